@@ -3,17 +3,22 @@ package com.myproject.nexa.aspect;
 import com.myproject.nexa.annotation.RateLimit;
 import com.myproject.nexa.exceptions.AppException;
 import com.myproject.nexa.exceptions.ErrorCode;
+import com.myproject.nexa.security.RateLimitDecision;
+import com.myproject.nexa.security.RateLimitPolicy;
+import com.myproject.nexa.security.RateLimitPolicyEngine;
 import com.myproject.nexa.services.RateLimitService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
 
 @Aspect
 @Component
@@ -22,23 +27,26 @@ import jakarta.servlet.http.HttpServletRequest;
 public class RateLimitAspect {
 
     private final RateLimitService rateLimitService;
+    private final RateLimitPolicyEngine rateLimitPolicyEngine;
 
     @Around("@annotation(rateLimit)")
     public Object applyRateLimit(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
 
         String clientIp = getClientIpAddress(request);
-        String key = rateLimit.key().isEmpty() ? generateDefaultKey(request) : rateLimit.key();
-        String rateLimitKey = key + ":" + clientIp; // Combine key with client IP
+        // Compiled once per method; a configured policy with the same name takes precedence
+        RateLimitPolicy policy = rateLimitPolicyEngine.forAnnotation(
+            ((MethodSignature) joinPoint.getSignature()).getMethod(), rateLimit);
 
-        boolean allowed = rateLimitService.isAllowed(
-            rateLimitKey,
-            rateLimit.limit(),
-            rateLimit.window(),
-            rateLimit.unit()
+        RateLimitDecision decision = rateLimitService.check(
+            rateLimitPolicyEngine.keyFor(policy, clientIp),
+            null,
+            rateLimitPolicyEngine.limitFor(policy),
+            policy.getWindowSeconds(),
+            TimeUnit.SECONDS
         );
 
-        if (!allowed) {
+        if (!decision.isAllowed()) {
             log.warn("Rate limit exceeded for IP: {}, endpoint: {}", clientIp, request.getRequestURI());
             throw new AppException(ErrorCode.SECURITY_002, rateLimit.message());
         }
@@ -59,10 +67,4 @@ public class RateLimitAspect {
 
         return request.getRemoteAddr();
     }
-
-    private String generateDefaultKey(HttpServletRequest request) {
-        String uri = request.getRequestURI();
-        String method = request.getMethod();
-        return method + ":" + uri;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,423 @@
+package com.myproject.nexa.cache;
+
+import com.myproject.nexa.dto.response.UserResponse;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary codec for cached values. Known cache DTOs are written field by field with
+ * varints and length-prefixed UTF-8 instead of JDK serialization, which repeats class
+ * descriptors in every entry. Anything else falls back to JDK serialization.
+ * <p>
+ * An entry is {magic}{type}{version}{payload}. Each type carries its own schema version:
+ * a layout change bumps it and keeps a reader for the old one, so entries written by an
+ * older node stay readable and unknown versions fail as a cache miss. Entries that start
+ * with the JDK stream header were written before this codec and are read as such.
+ */
+public class CompactCacheCodec implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xC7;
+    private static final byte JAVA_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_USER = 1;
+    private static final byte TYPE_PAGE = 2;
+    private static final byte TYPE_ID_PAGE = 3;
+    private static final byte TYPE_JAVA = 4;
+
+    private static final int USER_VERSION = 1;
+    private static final int PAGE_VERSION = 1;
+    private static final int ID_PAGE_VERSION = 1;
+
+    // UserResponse presence flags
+    private static final int HAS_ID = 1;
+    private static final int HAS_ENABLED = 1 << 1;
+    private static final int ENABLED = 1 << 2;
+    private static final int HAS_CREATED_AT = 1 << 3;
+    private static final int HAS_UPDATED_AT = 1 << 4;
+    private static final int HAS_ROLES = 1 << 5;
+
+    private final RedisSerializer<Object> fallback = RedisSerializer.java();
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Output out = new Output(128);
+        out.writeByte(MAGIC);
+        writeValue(out, value);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JAVA_STREAM_MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes[0] != MAGIC) {
+            throw new SerializationException("Unknown cache entry format");
+        }
+        try {
+            Input in = new Input(bytes, 1);
+            Object value = readValue(in);
+            if (in.remaining() != 0) {
+                throw new SerializationException("Trailing bytes after cache entry");
+            }
+            return value;
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated cache entry", e);
+        }
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value instanceof NullValue) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof UserResponse user) {
+            out.writeByte(TYPE_USER);
+            out.writeVarInt(USER_VERSION);
+            writeUser(out, user);
+        } else if (value instanceof IdPage idPage) {
+            out.writeByte(TYPE_ID_PAGE);
+            out.writeVarInt(ID_PAGE_VERSION);
+            writeIdPage(out, idPage);
+        } else if (value instanceof Page<?> page) {
+            out.writeByte(TYPE_PAGE);
+            out.writeVarInt(PAGE_VERSION);
+            writePage(out, page);
+        } else {
+            byte[] bytes = fallback.serialize(value);
+            out.writeByte(TYPE_JAVA);
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private Object readValue(Input in) {
+        byte type = in.readByte();
+        if (type == TYPE_NULL) {
+            return NullValue.INSTANCE;
+        }
+        if (type == TYPE_JAVA) {
+            return fallback.deserialize(in.readBytes(in.readVarInt()));
+        }
+        int version = in.readVarInt();
+        return switch (type) {
+            case TYPE_USER -> {
+                checkVersion("user", version, USER_VERSION);
+                yield readUser(in);
+            }
+            case TYPE_PAGE -> {
+                checkVersion("page", version, PAGE_VERSION);
+                yield readPage(in);
+            }
+            case TYPE_ID_PAGE -> {
+                checkVersion("ID page", version, ID_PAGE_VERSION);
+                yield readIdPage(in);
+            }
+            default -> throw new SerializationException("Unknown cache entry type " + type);
+        };
+    }
+
+    private static void checkVersion(String type, int version, int supported) {
+        if (version < 1 || version > supported) {
+            throw new SerializationException("Unsupported " + type + " schema version " + version);
+        }
+    }
+
+    private static void writeUser(Output out, UserResponse user) {
+        int flags = 0;
+        if (user.getId() != null) {
+            flags |= HAS_ID;
+        }
+        if (user.getEnabled() != null) {
+            flags |= HAS_ENABLED | (user.getEnabled() ? ENABLED : 0);
+        }
+        if (user.getCreatedAt() != null) {
+            flags |= HAS_CREATED_AT;
+        }
+        if (user.getUpdatedAt() != null) {
+            flags |= HAS_UPDATED_AT;
+        }
+        if (user.getRoles() != null) {
+            flags |= HAS_ROLES;
+        }
+
+        out.writeVarInt(flags);
+        if (user.getId() != null) {
+            out.writeVarLong(user.getId());
+        }
+        out.writeString(user.getUsername());
+        out.writeString(user.getEmail());
+        out.writeString(user.getFirstName());
+        out.writeString(user.getLastName());
+        out.writeString(user.getPhone());
+        out.writeString(user.getAddress());
+        if (user.getCreatedAt() != null) {
+            out.writeDateTime(user.getCreatedAt());
+        }
+        if (user.getUpdatedAt() != null) {
+            out.writeDateTime(user.getUpdatedAt());
+        }
+        if (user.getRoles() != null) {
+            out.writeVarInt(user.getRoles().size());
+            for (String role : user.getRoles()) {
+                out.writeString(role);
+            }
+        }
+    }
+
+    private static UserResponse readUser(Input in) {
+        int flags = in.readVarInt();
+        UserResponse user = new UserResponse();
+        if ((flags & HAS_ID) != 0) {
+            user.setId(in.readVarLong());
+        }
+        user.setUsername(in.readString());
+        user.setEmail(in.readString());
+        user.setFirstName(in.readString());
+        user.setLastName(in.readString());
+        user.setPhone(in.readString());
+        user.setAddress(in.readString());
+        if ((flags & HAS_ENABLED) != 0) {
+            user.setEnabled((flags & ENABLED) != 0);
+        }
+        if ((flags & HAS_CREATED_AT) != 0) {
+            user.setCreatedAt(in.readDateTime());
+        }
+        if ((flags & HAS_UPDATED_AT) != 0) {
+            user.setUpdatedAt(in.readDateTime());
+        }
+        if ((flags & HAS_ROLES) != 0) {
+            int count = in.readVarInt();
+            List<String> roles = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                roles.add(in.readString());
+            }
+            user.setRoles(roles);
+        }
+        return user;
+    }
+
+    private void writePage(Output out, Page<?> page) {
+        Pageable pageable = page.getPageable();
+        if (pageable.isPaged()) {
+            writePageRequest(out, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        } else {
+            writePageRequest(out, 0, 0, pageable.getSort());
+        }
+        out.writeVarLong(page.getTotalElements());
+        out.writeVarInt(page.getNumberOfElements());
+        for (Object entry : page.getContent()) {
+            writeValue(out, entry);
+        }
+    }
+
+    private Page<Object> readPage(Input in) {
+        int pageNumber = in.readVarInt();
+        int pageSize = in.readVarInt();
+        Sort sort = readSort(in);
+        long total = in.readVarLong();
+        int count = in.readVarInt();
+        List<Object> content = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            content.add(readValue(in));
+        }
+        return new PageImpl<>(content, IdPage.pageable(pageNumber, pageSize, sort), total);
+    }
+
+    private static void writeIdPage(Output out, IdPage idPage) {
+        writePageRequest(out, idPage.getPageNumber(), idPage.getPageSize(), idPage.getSort());
+        out.writeVarLong(idPage.getTotal());
+        out.writeVarInt(idPage.getIds().size());
+        for (Long id : idPage.getIds()) {
+            out.writeVarLong(id);
+        }
+    }
+
+    private static IdPage readIdPage(Input in) {
+        int pageNumber = in.readVarInt();
+        int pageSize = in.readVarInt();
+        Sort sort = readSort(in);
+        long total = in.readVarLong();
+        int count = in.readVarInt();
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(in.readVarLong());
+        }
+        return new IdPage(ids, total, pageNumber, pageSize, sort);
+    }
+
+    private static void writePageRequest(Output out, int pageNumber, int pageSize, Sort sort) {
+        out.writeVarInt(pageNumber);
+        out.writeVarInt(pageSize);
+        List<Sort.Order> orders = sort.toList();
+        out.writeVarInt(orders.size());
+        for (Sort.Order order : orders) {
+            out.writeString(order.getProperty());
+            out.writeByte((byte) (order.isAscending() ? 0 : 1));
+        }
+    }
+
+    private static Sort readSort(Input in) {
+        int count = in.readVarInt();
+        if (count == 0) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String property = in.readString();
+            orders.add(in.readByte() == 0 ? Sort.Order.asc(property) : Sort.Order.desc(property));
+        }
+        return Sort.by(orders);
+    }
+
+    /**
+     * Growable write buffer. Signed longs are zigzag encoded so small negatives stay short;
+     * strings are prefixed with their UTF-8 length plus one, zero meaning null.
+     */
+    private static final class Output {
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            writeBytes(bytes);
+        }
+
+        void writeDateTime(LocalDateTime value) {
+            writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        byte[] readBytes(int length) {
+            if (length < 0 || length > remaining()) {
+                throw new SerializationException("Truncated cache entry");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = buffer[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in cache entry");
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new SerializationException("Malformed varint in cache entry");
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        LocalDateTime readDateTime() {
+            long epochSecond = readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(), ZoneOffset.UTC);
+        }
+
+        int remaining() {
+            return buffer.length - position;
+        }
+    }
+}
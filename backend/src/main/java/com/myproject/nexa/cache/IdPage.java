@@ -0,0 +1,89 @@
+package com.myproject.nexa.cache;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A cached page that holds only the IDs of its entries, the total count and the page
+ * request. Entries are resolved through the per-entity cache when the page is read, so a
+ * cached page never duplicates entity payloads and always shows their current state.
+ */
+public final class IdPage implements Serializable {
+
+    private final List<Long> ids;
+    private final long total;
+    private final int pageNumber;
+    private final int pageSize; // 0 for an unpaged request
+    private final Sort sort;
+
+    public IdPage(List<Long> ids, long total, int pageNumber, int pageSize, Sort sort) {
+        this.ids = Collections.unmodifiableList(ids);
+        this.total = total;
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.sort = sort;
+    }
+
+    /**
+     * @return the page as IDs, or null when an entry has no ID and could not be resolved later
+     */
+    public static <T> IdPage of(Page<T> page, Function<T, Long> idOf) {
+        List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+        for (T entry : page.getContent()) {
+            Long id = idOf.apply(entry);
+            if (id == null) {
+                return null;
+            }
+            ids.add(id);
+        }
+        Pageable pageable = page.getPageable();
+        return pageable.isPaged()
+                ? new IdPage(ids, page.getTotalElements(), pageable.getPageNumber(), pageable.getPageSize(),
+                        pageable.getSort())
+                : new IdPage(ids, page.getTotalElements(), 0, 0, pageable.getSort());
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public Pageable getPageable() {
+        return pageable(pageNumber, pageSize, sort);
+    }
+
+    /**
+     * Rebuild the page from its entries, resolved in ID order
+     */
+    public <T> Page<T> toPage(List<T> content) {
+        return new PageImpl<>(content, getPageable(), total);
+    }
+
+    static Pageable pageable(int pageNumber, int pageSize, Sort sort) {
+        return pageSize > 0 ? PageRequest.of(pageNumber, pageSize, sort) : Pageable.unpaged(sort);
+    }
+}
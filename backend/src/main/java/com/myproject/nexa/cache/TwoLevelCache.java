@@ -0,0 +1,518 @@
+package com.myproject.nexa.cache;
+
+import com.myproject.nexa.utils.BoundedLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * A named cache with a bounded in-heap L1 in front of Redis (L2). Reads are served from
+ * L1 when possible and fall back to Redis, promoting what they find. Writes go to both
+ * tiers and are announced through TwoLevelCacheManager so other nodes drop their L1 copy.
+ * <p>
+ * Redis keys are cache:{name}:{generation}:{key}. Clearing the cache bumps the generation
+ * instead of scanning for keys; entries of older generations simply expire.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final TwoLevelCacheManager manager;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisSerializer<Object> serializer;
+    private final BoundedLruCache<String, Object> local;
+    private final long ttlMillis;
+    private final long generationTtlMillis;
+
+    private final double earlyRefreshBeta;
+    // Load time and Redis expiry of entries this node loaded, for early refresh
+    private final BoundedLruCache<String, LoadStats> loadStats;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile long generation = -1;
+    private volatile long generationExpiresAt = 0;
+
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l2Errors;
+    private final Timer l2Latency;
+    private final Counter coalescedWaiters;
+    private final Counter earlyRefreshes;
+
+    TwoLevelCache(String name, TwoLevelCacheManager manager, RedisTemplate<String, String> redisTemplate,
+                  RedisSerializer<Object> serializer, int localMaxSize, long ttlMillis, long localTtlMillis,
+                  double earlyRefreshBeta, MeterRegistry meterRegistry) {
+        super(true);
+        this.name = name;
+        this.manager = manager;
+        this.redisTemplate = redisTemplate;
+        this.serializer = serializer;
+        this.ttlMillis = ttlMillis;
+        this.generationTtlMillis = localTtlMillis;
+        this.local = new BoundedLruCache<>(localMaxSize, Math.min(ttlMillis, localTtlMillis));
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.loadStats = new BoundedLruCache<>(localMaxSize, ttlMillis);
+
+        FunctionCounter.builder("cache.tier.requests", local, BoundedLruCache::hitCount)
+                .description("Two-level cache lookups by tier")
+                .tags("cache", name, "tier", "l1", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.tier.requests", local, BoundedLruCache::missCount)
+                .description("Two-level cache lookups by tier")
+                .tags("cache", name, "tier", "l1", "result", "miss")
+                .register(meterRegistry);
+        l2Hits = Counter.builder("cache.tier.requests")
+                .description("Two-level cache lookups by tier")
+                .tags("cache", name, "tier", "l2", "result", "hit")
+                .register(meterRegistry);
+        l2Misses = Counter.builder("cache.tier.requests")
+                .description("Two-level cache lookups by tier")
+                .tags("cache", name, "tier", "l2", "result", "miss")
+                .register(meterRegistry);
+        l2Errors = Counter.builder("cache.tier.errors")
+                .description("Redis operations of the two-level cache that failed")
+                .tags("cache", name, "tier", "l2")
+                .register(meterRegistry);
+        l2Latency = Timer.builder("cache.tier.latency")
+                .description("Time spent on Redis by the two-level cache")
+                .tags("cache", name, "tier", "l2")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.tier.evictions", local, BoundedLruCache::evictionCount)
+                .description("L1 entries evicted to stay within the size bound")
+                .tags("cache", name, "tier", "l1")
+                .register(meterRegistry);
+        coalescedWaiters = Counter.builder("cache.single_flight.coalesced")
+                .description("Cache misses that waited for a load already in flight instead of loading")
+                .tags("cache", name)
+                .register(meterRegistry);
+        earlyRefreshes = Counter.builder("cache.early_refreshes")
+                .description("Entries reloaded before their expiry by probabilistic early refresh")
+                .tags("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.tier.size", local, BoundedLruCache::size)
+                .description("Entries held in L1 on this node")
+                .tags("cache", name, "tier", "l1")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.get(localKey);
+        if (value != null) {
+            return value;
+        }
+
+        byte[] bytes = l2Get(redisKey(localKey));
+        if (bytes == null) {
+            l2Misses.increment();
+            return null;
+        }
+        value = deserialize(localKey, bytes);
+        if (value == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        local.put(localKey, value);
+        return value;
+    }
+
+    /**
+     * Read-through lookup used by @Cacheable(sync = true). Concurrent misses on the same key
+     * share one load: the first caller runs the loader and the others wait for its result.
+     * An entry this node loaded is also refreshed early with probability rising towards its
+     * Redis expiry (XFetch: refresh once now - delta * beta * ln(rand) passes the expiry,
+     * delta being the load time), so hot keys are reloaded by one caller before they expire
+     * instead of by every caller after. Callers arriving during an early refresh keep
+     * getting the current value, and so does the refreshing caller if the refresh fails.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = String.valueOf(key);
+        Object cached = lookup(key);
+        if (cached != null && !shouldRefreshEarly(localKey)) {
+            return (T) fromStoreValue(cached);
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, flight);
+        if (existing != null) {
+            if (cached != null) {
+                return (T) fromStoreValue(cached);
+            }
+            coalescedWaiters.increment();
+            return (T) fromStoreValue(await(existing, key, valueLoader));
+        }
+
+        try {
+            if (cached == null) {
+                // A load that finished since our lookup has already filled L1
+                Object loaded = local.get(localKey);
+                if (loaded != null) {
+                    flight.complete(loaded);
+                    return (T) fromStoreValue(loaded);
+                }
+            } else {
+                earlyRefreshes.increment();
+            }
+            long start = System.nanoTime();
+            T value = valueLoader.call();
+            double loadMillis = (System.nanoTime() - start) / 1_000_000.0;
+            put(key, value);
+            loadStats.put(localKey, new LoadStats(loadMillis, System.currentTimeMillis() + ttlMillis));
+            flight.complete(toStoreValue(value));
+            return value;
+        } catch (Exception e) {
+            if (cached != null) {
+                // Serve the current value until it expires rather than retrying on every hit
+                log.warn("Early refresh of entry {} in cache {} failed: {}", key, name, e.getMessage());
+                loadStats.invalidate(localKey);
+                flight.complete(cached);
+                return (T) fromStoreValue(cached);
+            }
+            flight.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            if (!flight.isDone()) {
+                flight.completeExceptionally(new IllegalStateException("Loading cache entry " + key + " failed"));
+            }
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        Object value = lookup(key);
+        return value != null ? CompletableFuture.completedFuture(toValueWrapper(value)) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture((T) fromStoreValue(value));
+        }
+        return valueLoader.get().thenApply(loaded -> {
+            put(key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Look up several keys at once: L1 first, then the rest with a single MGET
+     *
+     * @return the cached values by key, without null values and missing keys
+     */
+    public Map<String, Object> getAll(Collection<?> keys) {
+        Map<String, Object> found = new HashMap<>();
+        List<String> remote = new ArrayList<>();
+        for (Object key : keys) {
+            String localKey = String.valueOf(key);
+            Object value = local.get(localKey);
+            if (value != null) {
+                found.put(localKey, value);
+            } else {
+                remote.add(localKey);
+            }
+        }
+        if (remote.isEmpty()) {
+            return toValues(found);
+        }
+
+        byte[][] redisKeys = remote.stream()
+                .map(key -> redisKey(key).getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        List<byte[]> values;
+        try {
+            values = l2Latency.record(() -> redisTemplate.execute(
+                    (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(redisKeys)));
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Could not read cache {} from Redis: {}", name, e.getMessage());
+            values = null;
+        }
+
+        for (int i = 0; i < remote.size(); i++) {
+            byte[] bytes = values != null && i < values.size() ? values.get(i) : null;
+            Object value = bytes != null ? deserialize(remote.get(i), bytes) : null;
+            if (value == null) {
+                l2Misses.increment();
+                continue;
+            }
+            l2Hits.increment();
+            local.put(remote.get(i), value);
+            found.put(remote.get(i), value);
+        }
+        return toValues(found);
+    }
+
+    /**
+     * Backfill several entries with one pipelined SET NX. An entry already in Redis wins,
+     * so values read before a concurrent update cannot overwrite what that update wrote.
+     * Only entries written to Redis are kept in L1.
+     */
+    public void putAllIfAbsent(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<String> localKeys = new ArrayList<>(entries.size());
+        List<Object> storeValues = new ArrayList<>(entries.size());
+        List<byte[]> redisKeys = new ArrayList<>(entries.size());
+        List<byte[]> payloads = new ArrayList<>(entries.size());
+        entries.forEach((key, value) -> {
+            String localKey = String.valueOf(key);
+            Object storeValue = toStoreValue(value);
+            try {
+                payloads.add(serializer.serialize(storeValue));
+            } catch (Exception e) {
+                log.warn("Could not serialize entry {} of cache {}, not caching it: {}", localKey, name, e.getMessage());
+                return;
+            }
+            localKeys.add(localKey);
+            storeValues.add(storeValue);
+            redisKeys.add(redisKey(localKey).getBytes(StandardCharsets.UTF_8));
+        });
+        if (localKeys.isEmpty()) {
+            return;
+        }
+
+        Expiration expiration = Expiration.milliseconds(ttlMillis);
+        List<Object> results;
+        try {
+            results = l2Latency.record(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < redisKeys.size(); i++) {
+                    connection.stringCommands().set(redisKeys.get(i), payloads.get(i), expiration,
+                            RedisStringCommands.SetOption.ifAbsent());
+                }
+                return null;
+            }));
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Could not write cache {} to Redis: {}", name, e.getMessage());
+            return;
+        }
+
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < localKeys.size(); i++) {
+            if (results != null && i < results.size() && Boolean.TRUE.equals(results.get(i))) {
+                local.put(localKeys.get(i), storeValues.get(i));
+                loadStats.invalidate(localKeys.get(i));
+                written.add(localKeys.get(i));
+            }
+        }
+        if (!written.isEmpty()) {
+            manager.publishEvictions(name, written);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = String.valueOf(key);
+        Object storeValue = toStoreValue(value);
+        local.put(localKey, storeValue);
+        // The entry's expiry moved; a load through get() records fresh stats after this
+        loadStats.invalidate(localKey);
+        l2Set(localKey, storeValue);
+        manager.publishEviction(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = String.valueOf(key);
+        local.invalidate(localKey);
+        loadStats.invalidate(localKey);
+        l2Delete(redisKey(localKey));
+        manager.publishEviction(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        loadStats.invalidateAll();
+        try {
+            Long next = redisTemplate.opsForValue().increment(TwoLevelCacheManager.GENERATION_PREFIX + name);
+            if (next != null) {
+                generation = next;
+                generationExpiresAt = System.currentTimeMillis() + generationTtlMillis;
+            }
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Could not clear cache {} in Redis: {}", name, e.getMessage());
+        }
+        manager.publishEviction(name, TwoLevelCacheManager.ALL_KEYS);
+    }
+
+    /**
+     * Drop L1 entries after another node changed them
+     */
+    void evictLocal(String key) {
+        if (TwoLevelCacheManager.ALL_KEYS.equals(key)) {
+            local.invalidateAll();
+            loadStats.invalidateAll();
+            generationExpiresAt = 0;
+        } else {
+            local.invalidate(key);
+            loadStats.invalidate(key);
+        }
+    }
+
+    void cleanUp() {
+        local.cleanUp();
+        loadStats.cleanUp();
+    }
+
+    private String redisKey(String key) {
+        return "cache:" + name + ":" + currentGeneration() + ":" + key;
+    }
+
+    /**
+     * Generation of the cache's Redis keys, re-read at most once per L1 TTL so a missed
+     * clear notification cannot hide fresh entries for long
+     */
+    private long currentGeneration() {
+        long now = System.currentTimeMillis();
+        if (generation >= 0 && now < generationExpiresAt) {
+            return generation;
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(TwoLevelCacheManager.GENERATION_PREFIX + name);
+            generation = value != null ? Long.parseLong(value) : 0;
+            generationExpiresAt = now + generationTtlMillis;
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Could not read generation of cache {}: {}", name, e.getMessage());
+        }
+        return Math.max(0, generation);
+    }
+
+    private boolean shouldRefreshEarly(String key) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        LoadStats stats = loadStats.get(key);
+        if (stats == null) {
+            return false;
+        }
+        double gap = -stats.loadMillis * earlyRefreshBeta * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= stats.expiresAt;
+    }
+
+    private static Object await(CompletableFuture<Object> flight, Object key, Callable<?> valueLoader) {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private Object deserialize(String key, byte[] bytes) {
+        try {
+            return serializer.deserialize(bytes);
+        } catch (Exception e) {
+            log.warn("Could not read cached entry {} of cache {}: {}", key, name, e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Object> toValues(Map<String, Object> storeValues) {
+        Map<String, Object> values = new HashMap<>(storeValues.size());
+        storeValues.forEach((key, storeValue) -> {
+            Object value = fromStoreValue(storeValue);
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    private byte[] l2Get(String redisKey) {
+        byte[] keyBytes = redisKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            return l2Latency.record(() -> redisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.stringCommands().get(keyBytes)));
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Could not read cache {} from Redis: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void l2Set(String key, Object storeValue) {
+        byte[] bytes;
+        try {
+            bytes = serializer.serialize(storeValue);
+        } catch (Exception e) {
+            // Keep the value in L1 only; other nodes load it themselves
+            log.warn("Could not serialize entry {} of cache {}, caching it locally only: {}",
+                    key, name, e.getMessage());
+            l2Delete(redisKey(key));
+            return;
+        }
+        byte[] keyBytes = redisKey(key).getBytes(StandardCharsets.UTF_8);
+        try {
+            l2Latency.record(() -> redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.stringCommands().set(keyBytes, bytes, Expiration.milliseconds(ttlMillis),
+                            RedisStringCommands.SetOption.upsert())));
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Could not write cache {} to Redis: {}", name, e.getMessage());
+        }
+    }
+
+    private void l2Delete(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Could not evict from cache {} in Redis: {}", name, e.getMessage());
+        }
+    }
+
+    private static final class LoadStats {
+        private final double loadMillis;
+        private final long expiresAt;
+
+        LoadStats(double loadMillis, long expiresAt) {
+            this.loadMillis = loadMillis;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.myproject.nexa.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CacheManager for {@link TwoLevelCache}s, created on first use. Every write, eviction or
+ * clear is broadcast on a Redis pub/sub channel as "{node}\n{cache}\n{key}" so other nodes
+ * drop their L1 copy; a node ignores its own messages. Bulk writes list one key per line.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager {
+
+    static final String INVALIDATION_CHANNEL = "cache:invalidate";
+    static final String GENERATION_PREFIX = "cache_generation:";
+    static final String ALL_KEYS = "*";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisSerializer<Object> serializer;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> ttlMillisByCache;
+    private final long defaultTtlMillis;
+    private final long localTtlMillis;
+    private final int localMaxSize;
+    private final double earlyRefreshBeta;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttlMillisByCache Redis TTL per cache name; other caches use defaultTtlMillis
+     * @param localTtlMillis   upper bound on how long a node serves an entry from L1
+     * @param localMaxSize     L1 capacity per cache
+     * @param earlyRefreshBeta XFetch beta for loads through get(key, loader), 0 to disable
+     */
+    public TwoLevelCacheManager(RedisTemplate<String, String> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                RedisSerializer<Object> serializer,
+                                MeterRegistry meterRegistry,
+                                Map<String, Long> ttlMillisByCache,
+                                long defaultTtlMillis,
+                                long localTtlMillis,
+                                int localMaxSize,
+                                double earlyRefreshBeta) {
+        this.redisTemplate = redisTemplate;
+        this.serializer = serializer;
+        this.meterRegistry = meterRegistry;
+        this.ttlMillisByCache = Map.copyOf(ttlMillisByCache);
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.localTtlMillis = localTtlMillis;
+        this.localMaxSize = localMaxSize;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+
+        listenerContainer.addMessageListener((message, pattern) ->
+                        onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> new TwoLevelCache(cacheName, this, redisTemplate,
+                serializer, localMaxSize, ttlMillisByCache.getOrDefault(cacheName, defaultTtlMillis),
+                localTtlMillis, earlyRefreshBeta, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Drop expired L1 entries so idle keys do not hold memory
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanUp() {
+        caches.values().forEach(TwoLevelCache::cleanUp);
+    }
+
+    void publishEviction(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "\n" + cacheName + "\n" + key);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast eviction from cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Announce several keys in one message, one key per line
+     */
+    void publishEvictions(String cacheName, Collection<String> keys) {
+        publishEviction(cacheName, String.join("\n", keys));
+    }
+
+    private void onInvalidation(String message) {
+        String[] parts = message.split("\n", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            for (String key : parts[2].split("\n")) {
+                cache.evictLocal(key);
+            }
+        }
+    }
+}
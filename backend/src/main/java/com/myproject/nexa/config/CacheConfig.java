@@ -0,0 +1,61 @@
+package com.myproject.nexa.config;
+
+import com.myproject.nexa.cache.CompactCacheCodec;
+import com.myproject.nexa.cache.TwoLevelCacheManager;
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.services.UserPageCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring cache abstraction backed by a two-level cache: a bounded in-heap L1 per node in
+ * front of Redis. User caches expire after app.cache.user-ttl-seconds, all others after
+ * app.cache.ttl-seconds. Values are written to Redis with the codec chosen by app.cache.codec,
+ * which the user cache service shares.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public RedisSerializer<Object> cacheCodec(AppProperties appProperties) {
+        return switch (appProperties.getCache().getCodec()) {
+            case COMPACT -> new CompactCacheCodec();
+            case JAVA -> RedisSerializer.java();
+        };
+    }
+
+    @Bean
+    public CacheManager cacheManager(AppProperties appProperties,
+                                     RedisTemplate<String, String> redisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                     RedisSerializer<Object> cacheCodec,
+                                     MeterRegistry meterRegistry) {
+        AppProperties.Cache cache = appProperties.getCache();
+        if (!cache.isEnabled()) {
+            return new NoOpCacheManager();
+        }
+
+        long userTtlMillis = TimeUnit.SECONDS.toMillis(cache.getUserTtlSeconds());
+        return new TwoLevelCacheManager(
+                redisTemplate,
+                redisMessageListenerContainer,
+                cacheCodec,
+                meterRegistry,
+                Map.of("users", userTtlMillis, "usersByUsername", userTtlMillis, UserPageCache.CACHE_NAME, userTtlMillis),
+                TimeUnit.SECONDS.toMillis(cache.getTtlSeconds()),
+                TimeUnit.SECONDS.toMillis(cache.getLocalTtlSeconds()),
+                cache.getMaxSize(),
+                cache.getEarlyRefreshBeta());
+    }
+}
@@ -4,13 +4,42 @@ import com.myproject.nexa.config.properties.AppProperties;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Configuration class for rate limiting settings
- * Used primarily for configuration validation through ConfigurationValidator
+ * Used for configuration validation through ConfigurationValidator and as the source of
+ * the per-route policies compiled by RateLimitPolicyEngine
  */
 @Component
 @RequiredArgsConstructor
 public class RateLimitConfig {
 
+    private static final List<String> DEFAULT_PROTECTED_PATTERNS = List.of(
+            "/api/v1/auth/**", // Auth endpoints
+            "/api/v1/users/**", // User endpoints
+            "/api/v1/public/contact"); // Public contact form
+
     private final AppProperties appProperties;
-}
\ No newline at end of file
+
+    /**
+     * Policies from app.rate-limit.policies, or IP-based defaults for the protected
+     * endpoints when none are configured
+     */
+    public List<AppProperties.RateLimit.Policy> getPolicies() {
+        AppProperties.RateLimit rateLimit = appProperties.getRateLimit();
+        if (!rateLimit.getPolicies().isEmpty()) {
+            return rateLimit.getPolicies();
+        }
+        return DEFAULT_PROTECTED_PATTERNS.stream()
+                .map(pattern -> {
+                    AppProperties.RateLimit.Policy policy = new AppProperties.RateLimit.Policy();
+                    policy.setName(pattern);
+                    policy.setPattern(pattern);
+                    policy.setLimit(rateLimit.getMaxRequests());
+                    policy.setWindowSeconds(rateLimit.getWindowSeconds());
+                    return policy;
+                })
+                .toList();
+    }
+}
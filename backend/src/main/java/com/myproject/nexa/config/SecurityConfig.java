@@ -1,19 +1,26 @@
 package com.myproject.nexa.config;
 
+import com.myproject.nexa.security.BoundedPasswordEncoder;
+import com.myproject.nexa.security.CustomUserDetailsService;
 import com.myproject.nexa.security.RateLimitingService;
 import com.myproject.nexa.security.JwtAuthenticationFilter;
 import com.myproject.nexa.security.JwtAuthenticationEntryPoint;
 import com.myproject.nexa.security.RateLimitFilter;
+import com.myproject.nexa.security.RateLimitPolicyEngine;
 import com.myproject.nexa.security.RequestSanitizationFilter;
 import com.myproject.nexa.security.TenantSecurityFilter;
 import com.myproject.nexa.services.RateLimitService;
 import com.myproject.nexa.config.properties.AppProperties;
 import com.myproject.nexa.utils.InputSanitizer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
@@ -23,7 +30,6 @@ import org.springframework.security.web.session.HttpSessionEventPublisher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.firewall.StrictHttpFirewall;
 import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -41,11 +47,23 @@ public class SecurityConfig {
     private final RateLimitingService rateLimitingService;
     private final RateLimitService rateLimitService; // For rate limit filter
     private final ObjectMapper objectMapper; // For rate limit filter
+    private final RateLimitPolicyEngine rateLimitPolicyEngine; // For rate limit filter
     private final AppProperties appProperties;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // Increased strength from default 10
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        // BCrypt on a bounded pool, cost calibrated to app.security.password-hash-target-ms
+        return new BoundedPasswordEncoder(appProperties.getSecurity(), meterRegistry);
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(CustomUserDetailsService userDetailsService,
+                                                       PasswordEncoder passwordEncoder) {
+        // Unknown usernames are checked against a dummy hash on the same bounded encoder, so
+        // shedding there surfaces as a 503 just like for known users
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        return new ProviderManager(provider);
     }
 
     @Bean
@@ -117,16 +135,16 @@ public class SecurityConfig {
             .exceptionHandling(exceptionHandling ->
                 exceptionHandling.authenticationEntryPoint(jwtAuthenticationEntryPoint)
             )
-            .addFilterBefore(requestSanitizationFilter, RateLimitFilter.class) // Add request sanitization filter first
-            .addFilterBefore(tenantSecurityFilter, RequestSanitizationFilter.class) // Add tenant security filter before sanitization
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-            .addFilterBefore(rateLimitFilter(), JwtAuthenticationFilter.class); // Add rate limiting filter
+            .addFilterAfter(rateLimitFilter(), JwtAuthenticationFilter.class) // Rate limit once the caller is known
+            .addFilterBefore(requestSanitizationFilter, JwtAuthenticationFilter.class) // Add request sanitization filter first
+            .addFilterBefore(tenantSecurityFilter, RequestSanitizationFilter.class); // Add tenant security filter before sanitization
 
         return http.build();
     }
 
     @Bean
     public RateLimitFilter rateLimitFilter() {
-        return new RateLimitFilter(rateLimitService, objectMapper);
+        return new RateLimitFilter(rateLimitService, objectMapper, rateLimitPolicyEngine);
     }
 }
\ No newline at end of file
@@ -5,11 +5,19 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Application configuration properties with validation
  */
@@ -34,6 +42,7 @@ public class AppProperties {
     private Cache cache = new Cache();
     private RateLimit rateLimit = new RateLimit();
     private Audit audit = new Audit();
+    private Domain domain = new Domain();
 
     @Data
     public static class Security {
@@ -44,8 +53,36 @@ public class AppProperties {
         private int maxLoginAttempts = 5;
         private long lockoutDurationMinutes = 30; // 30 minutes
         private String[] allowedOrigins = {"https://myproject.nexa", "https://api.myproject.nexa"};
-        private int maxPasswordHistory = 5; // Number of past passwords to remember
+
+        @PositiveOrZero(message = "Max password history cannot be negative")
+        private int maxPasswordHistory = 5; // Number of past passwords to remember, 0 disables the check
         private long passwordExpiryDays = 90; // Password expiration in days
+
+        @Positive(message = "Lockout flush interval must be positive")
+        private long lockoutFlushIntervalMs = 1000; // How often pending account lock flags are written to the database
+
+        @PositiveOrZero(message = "Max sessions per user cannot be negative")
+        private int maxSessionsPerUser = 5; // Oldest session is evicted beyond this, 0 means unlimited
+
+        @PositiveOrZero(message = "Password hash threads cannot be negative")
+        private int passwordHashThreads = 0; // 0 means one per available processor
+
+        @Positive(message = "Password hash queue capacity must be positive")
+        private int passwordHashQueueCapacity = 64; // Hash requests beyond this are shed with a 503
+
+        @Positive(message = "Password hash timeout must be positive")
+        private long passwordHashTimeoutMs = 5000;
+
+        private boolean passwordHashAutoCalibrate = true;
+
+        @Positive(message = "Password hash target latency must be positive")
+        private long passwordHashTargetMs = 250; // Calibrated BCrypt cost aims for this hash time
+
+        @Min(value = 4, message = "BCrypt cost must be at least 4")
+        private int passwordHashMinCost = 12;
+
+        @Max(value = 31, message = "BCrypt cost must be at most 31")
+        private int passwordHashMaxCost = 15;
     }
 
     @Data
@@ -64,6 +101,40 @@ public class AppProperties {
 
         @NotBlank(message = "JWT prefix is required")
         private String prefix = "Bearer ";
+
+        private boolean statelessPrincipal = false; // Build the principal from token claims instead of loading the user
+
+        @Positive(message = "Revocation check TTL must be positive")
+        private long revocationCheckTtlMs = 5000; // How long a token version is trusted locally
+
+        @PositiveOrZero(message = "Verified token cache size must not be negative")
+        private int verifiedTokenCacheSize = 10000; // 0 disables the verified token cache
+
+        private Algorithm algorithm = Algorithm.HMAC; // HMAC signs with the shared secret, RS256/ES256 with rotated key pairs
+
+        @Positive(message = "JWT key rotation interval must be positive")
+        private long keyRotationIntervalMs = 86400000; // 24 hours
+
+        @Positive(message = "JWT key refresh interval must be positive")
+        private long keyRefreshIntervalMs = 60000; // How often other nodes' rotations are picked up
+
+        @Positive(message = "JWT verification key count must be positive")
+        private int verificationKeys = 3; // Signing keys kept for verification, including the active one
+
+        @Positive(message = "Refresh token audit queue capacity must be positive")
+        private int refreshAuditQueueCapacity = 10000; // Audit records buffered before new ones are dropped
+
+        @Positive(message = "Refresh token audit flush interval must be positive")
+        private long refreshAuditFlushIntervalMs = 1000; // How often buffered audit records are written to the database
+
+        @PositiveOrZero(message = "Refresh token reuse grace period cannot be negative")
+        private long refreshReuseGraceMs = 10000; // A redeemed token presented again this soon gets its successor back
+
+        public enum Algorithm {
+            HMAC,
+            RS256,
+            ES256
+        }
     }
 
     @Data
@@ -88,11 +159,35 @@ public class AppProperties {
         @Positive(message = "Cache TTL must be positive")
         private long ttlSeconds = 3600; // 1 hour
 
+        @Positive(message = "User cache TTL must be positive")
+        private long userTtlSeconds = 1800; // 30 minutes for user data
+
         @Positive(message = "Cache max size must be positive")
-        private int maxSize = 1000;
+        private int maxSize = 1000; // In-heap entries per cache on each node
+
+        @Positive(message = "Local cache TTL must be positive")
+        private long localTtlSeconds = 60; // Upper bound on how long a node serves an entry from heap
+
+        @PositiveOrZero(message = "Cache early refresh beta cannot be negative")
+        private double earlyRefreshBeta = 1.0; // XFetch beta, higher refreshes hot entries earlier; 0 disables early refresh
+
+        private Codec codec = Codec.COMPACT; // COMPACT writes known DTOs in a versioned binary format, JAVA uses JDK serialization
 
         private boolean enabled = true;
         private String defaultCacheName = "default";
+
+        private boolean userDetailsEnabled = true; // Near-cache UserDetails for authenticated requests
+
+        @Positive(message = "UserDetails cache size must be positive")
+        private int userDetailsMaxSize = 10000;
+
+        @Positive(message = "UserDetails cache staleness must be positive")
+        private long userDetailsMaxStalenessMs = 30000; // Upper bound on how long a cached user is served
+
+        public enum Codec {
+            COMPACT,
+            JAVA
+        }
     }
 
     @Data
@@ -105,6 +200,51 @@ public class AppProperties {
 
         private boolean enabled = true;
         private boolean enablePerUserLimit = false;
+        private Mode mode = Mode.STRICT; // STRICT checks Redis per request, LEASED serves leased quota locally
+
+        @Positive(message = "Rate limit lease fraction must be positive")
+        private double leaseFraction = 0.1; // Share of the window quota leased per Redis round trip
+
+        @Valid
+        private List<Policy> policies = new ArrayList<>(); // Per-route rules, see RateLimitPolicyEngine
+
+        private String policyFile; // Optional YAML file with app.rate-limit.policies, reloaded when it changes
+
+        @Positive(message = "Rate limit policy reload interval must be positive")
+        private long policyReloadIntervalMs = 30000; // 30 seconds
+
+        public enum Mode {
+            STRICT,
+            LEASED
+        }
+
+        public enum KeyStrategy {
+            IP,
+            USER, // Falls back to IP for anonymous requests
+            TENANT, // Falls back to IP when no tenant is set
+            GLOBAL
+        }
+
+        @Data
+        public static class Policy {
+            @NotBlank(message = "Rate limit policy name is required")
+            private String name;
+
+            @NotBlank(message = "Rate limit policy pattern is required")
+            private String pattern; // Path with optional * (one segment) and trailing ** (rest of path)
+
+            private List<String> methods = new ArrayList<>(); // Empty matches every method
+
+            @Positive(message = "Rate limit policy limit must be positive")
+            private int limit = 100;
+
+            @Positive(message = "Rate limit policy window must be positive")
+            private long windowSeconds = 60;
+
+            private KeyStrategy keyStrategy = KeyStrategy.IP;
+            private Map<String, Integer> tenantLimits = new HashMap<>(); // Tenant ID -> limit override
+            private Map<String, Integer> userLimits = new HashMap<>(); // Username -> limit override
+        }
     }
 
     @Data
@@ -114,4 +254,53 @@ public class AppProperties {
         private String logFormat = "JSON";
         private boolean enableUserTracking = true;
     }
+
+    @Data
+    public static class Domain {
+        private boolean indexEnabled = true; // Serve availability checks from the in-memory label index
+
+        @Positive(message = "Domain index reconcile interval must be positive")
+        private long indexReconcileIntervalMs = 300000; // 5 minutes
+
+        @PositiveOrZero(message = "Domain index max drift cannot be negative")
+        private long indexMaxDrift = 0; // Rebuild once drift exceeds this many labels
+
+        @Positive(message = "Domain index release interval must be positive")
+        private long indexReleaseIntervalMs = 5000; // How often renamed-away labels are checked and released
+
+        private boolean bloomFilterEnabled = true; // Negative cache used while the full index is disabled
+
+        @Positive(message = "Bloom filter expected insertions must be positive")
+        private long bloomExpectedInsertions = 1000000;
+
+        @Positive(message = "Bloom filter false positive rate must be positive")
+        private double bloomFalsePositiveRate = 0.01;
+
+        @Positive(message = "Bloom filter max false positive ratio must be positive")
+        private double bloomMaxFalsePositiveRatio = 0.05; // Observed ratio that triggers a rebuild
+
+        @Positive(message = "Bloom filter min samples must be positive")
+        private long bloomMinSamples = 1000; // Probable hits needed before the observed ratio is trusted
+
+        @Positive(message = "Bloom filter check interval must be positive")
+        private long bloomCheckIntervalMs = 60000; // 1 minute
+
+        @Positive(message = "Bloom filter rebuild interval must be positive")
+        private long bloomRebuildIntervalMs = 21600000; // 6 hours, clears labels released since the last build
+
+        @Positive(message = "Domain availability batch size must be positive")
+        private int availabilityBatchMaxSize = 500; // Names accepted per batch availability request
+
+        @Positive(message = "Premium top-K must be positive")
+        private int premiumTopK = 100; // Best labels kept per length bucket in the ranking table
+
+        @Positive(message = "Premium max results must be positive")
+        private int premiumMaxResults = 1000; // Most ranked names one premium listing returns, pages included
+
+        @Positive(message = "Suggestion time budget must be positive")
+        private long suggestionTimeBudgetMs = 20; // Candidate generation stops once this is spent
+
+        @Positive(message = "Suggestion max candidates must be positive")
+        private int suggestionMaxCandidates = 200;
+    }
 }
\ No newline at end of file
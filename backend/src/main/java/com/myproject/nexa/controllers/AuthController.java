@@ -7,6 +7,7 @@ import com.myproject.nexa.dto.request.RegisterRequest;
 import com.myproject.nexa.dto.request.RefreshTokenRequest;
 import com.myproject.nexa.dto.response.ApiResponse;
 import com.myproject.nexa.dto.response.AuthResponse;
+import com.myproject.nexa.security.JwtKeyManager;
 import com.myproject.nexa.services.AuthService;
 import com.myproject.nexa.utils.CookieUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,9 +16,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -28,6 +33,7 @@ public class AuthController {
     private final AuthService authService;
     private final CookieUtil cookieUtil;
     private final AppProperties appProperties;
+    private final JwtKeyManager jwtKeyManager;
 
     @PostMapping("/login")
     @RateLimited(limit = 5, window = 300, by = RateLimited.RateLimitType.IP) // 5 attempts per 5 minutes by IP
@@ -92,4 +98,13 @@ public class AuthController {
 
         return ResponseEntity.ok(ApiResponse.success("Logout successful"));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/jwks")
+    @Operation(summary = "Token verification keys", description = "Public keys for verifying access tokens, as a JSON Web Key Set")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        // Short max-age so verifiers pick up rotated keys well before the old ones are retired
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(jwtKeyManager.jwks());
+    }
+}
@@ -1,10 +1,12 @@
 package com.myproject.nexa.controllers;
 
+import com.myproject.nexa.dto.request.DomainAvailabilityBatchRequest;
 import com.myproject.nexa.dto.response.DomainAvailabilityResponse;
 import com.myproject.nexa.dto.response.DomainIdentityResponse;
 import com.myproject.nexa.services.DomainIdentityService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +28,14 @@ public class DomainIdentityController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/availability/batch")
+    @Operation(summary = "Check availability of multiple domain names in one request")
+    public ResponseEntity<List<DomainAvailabilityResponse>> checkDomainAvailabilityBatch(
+            @Valid @RequestBody DomainAvailabilityBatchRequest request) {
+        List<DomainAvailabilityResponse> response = domainIdentityService.checkDomainAvailabilityBatch(request.getDomains());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/identity/{domainName}")
     @Operation(summary = "Get domain identity information")
     public ResponseEntity<DomainIdentityResponse> getDomainIdentity(@PathVariable String domainName) {
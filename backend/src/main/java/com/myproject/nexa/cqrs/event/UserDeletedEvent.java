@@ -5,10 +5,16 @@ import java.time.LocalDateTime;
 
 public class UserDeletedEvent implements Event {
     private final Long userId;
+    private final String username;
     private final LocalDateTime timestamp;
     
     public UserDeletedEvent(Long userId) {
+        this(userId, null);
+    }
+    
+    public UserDeletedEvent(Long userId, String username) {
         this.userId = userId;
+        this.username = username;
         this.timestamp = LocalDateTime.now();
     }
     
@@ -16,6 +22,10 @@ public class UserDeletedEvent implements Event {
         return userId;
     }
     
+    public String getUsername() {
+        return username;
+    }
+    
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -0,0 +1,38 @@
+package com.myproject.nexa.cqrs.event;
+
+import com.myproject.nexa.cqrs.Event;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a change affects how a user authenticates: account status flags,
+ * roles or a forced logout. Issued tokens no longer describe the user correctly.
+ */
+public class UserSecurityChangedEvent implements Event {
+    private final Long userId;
+    private final String username;
+    private final String reason;
+    private final LocalDateTime timestamp;
+
+    public UserSecurityChangedEvent(Long userId, String username, String reason) {
+        this.userId = userId;
+        this.username = username;
+        this.reason = reason;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
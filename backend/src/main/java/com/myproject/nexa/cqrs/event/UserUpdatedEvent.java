@@ -5,12 +5,18 @@ import java.time.LocalDateTime;
 
 public class UserUpdatedEvent implements Event {
     private final Long userId;
+    private final String previousUsername;
     private final String username;
     private final String email;
     private final LocalDateTime timestamp;
     
     public UserUpdatedEvent(Long userId, String username, String email) {
+        this(userId, username, username, email);
+    }
+
+    public UserUpdatedEvent(Long userId, String previousUsername, String username, String email) {
         this.userId = userId;
+        this.previousUsername = previousUsername;
         this.username = username;
         this.email = email;
         this.timestamp = LocalDateTime.now();
@@ -20,6 +26,10 @@ public class UserUpdatedEvent implements Event {
         return userId;
     }
     
+    public String getPreviousUsername() {
+        return previousUsername;
+    }
+
     public String getUsername() {
         return username;
     }
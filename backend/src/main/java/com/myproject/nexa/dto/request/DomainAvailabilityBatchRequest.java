@@ -0,0 +1,13 @@
+package com.myproject.nexa.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DomainAvailabilityBatchRequest {
+
+    @NotEmpty(message = "At least one domain name is required")
+    private List<String> domains;
+}
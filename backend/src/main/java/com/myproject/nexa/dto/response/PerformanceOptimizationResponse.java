@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 
@@ -12,7 +13,7 @@ import java.util.Map;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PerformanceOptimizationResponse {
+public class PerformanceOptimizationResponse implements Serializable {
     private String domain;
     private Long totalUsers;
     private Long activeUsers;
@@ -26,7 +27,7 @@ public class PerformanceOptimizationResponse {
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class PaginatedUsersResponse {
+    public static class PaginatedUsersResponse implements Serializable {
         private List<?> content;
         private Long totalElements;
         private Integer totalPages;
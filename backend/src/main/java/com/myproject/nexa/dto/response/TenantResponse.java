@@ -5,11 +5,12 @@ import com.myproject.nexa.entities.User;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Data
 @Builder
-public class TenantResponse {
+public class TenantResponse implements Serializable {
     
     private Long id;
     private String name;
@@ -0,0 +1,41 @@
+package com.myproject.nexa.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A previously used password hash. Stored by user ID rather than as a collection on
+ * User, so the history is only read when a password actually changes.
+ */
+@Entity
+@Table(name = "user_password_history", indexes = {
+        @Index(name = "idx_password_history_user_created", columnList = "user_id, created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class PasswordHistoryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "password_hash", nullable = false, length = 255)
+    private String passwordHash;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public PasswordHistoryEntry(Long userId, String passwordHash) {
+        this.userId = userId;
+        this.passwordHash = passwordHash;
+        this.createdAt = LocalDateTime.now();
+    }
+}
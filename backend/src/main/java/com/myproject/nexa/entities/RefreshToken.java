@@ -6,6 +6,10 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 
+/**
+ * Audit copy of an issued refresh token. The live tokens are held in Redis; rows here are
+ * written behind by RefreshTokenAuditWriter and store only the token's SHA-256 hash.
+ */
 @Entity
 @Table(name = "refresh_tokens")
 @Getter
@@ -15,10 +19,13 @@ public class RefreshToken extends BaseEntity {
     @Column(name = "token", nullable = false, unique = true)
     private String token;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @Column(name = "family_id", length = 64)
+    private String familyId;
+
     @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
 
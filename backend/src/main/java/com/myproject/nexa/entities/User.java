@@ -13,7 +13,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.ArrayList;
 
 @Entity
 @Table(name = "users", indexes = {
@@ -73,11 +72,6 @@ public class User extends TenantAwareBaseEntity implements UserDetails {
     @Column(name = "credentials_non_expired", nullable = false)
     private Boolean credentialsNonExpired = true;
 
-    @ElementCollection
-    @CollectionTable(name = "user_password_history", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "password_hash", length = 255)
-    private List<String> passwordHistory = new ArrayList<>();
-
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private List<Role> roles;
@@ -205,12 +199,4 @@ public class User extends TenantAwareBaseEntity implements UserDetails {
     public void setPassword(String password) {
         this.password = password;
     }
-
-    public List<String> getPasswordHistory() {
-        return passwordHistory;
-    }
-
-    public void setPasswordHistory(List<String> passwordHistory) {
-        this.passwordHistory = passwordHistory;
-    }
 }
\ No newline at end of file
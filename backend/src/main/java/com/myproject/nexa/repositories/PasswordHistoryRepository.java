@@ -0,0 +1,25 @@
+package com.myproject.nexa.repositories;
+
+import com.myproject.nexa.entities.PasswordHistoryEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PasswordHistoryRepository extends JpaRepository<PasswordHistoryEntry, Long> {
+
+    @Query("SELECT p.passwordHash FROM PasswordHistoryEntry p WHERE p.userId = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<String> findRecentHashes(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT p.id FROM PasswordHistoryEntry p WHERE p.userId = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<Long> findIdsNewestFirst(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM PasswordHistoryEntry p WHERE p.id IN :ids")
+    void deleteByIds(@Param("ids") List<Long> ids);
+}
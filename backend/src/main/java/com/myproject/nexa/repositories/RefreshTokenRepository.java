@@ -1,16 +1,28 @@
 package com.myproject.nexa.repositories;
 
 import com.myproject.nexa.entities.RefreshToken;
-import com.myproject.nexa.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByToken(String token);
-    Optional<RefreshToken> findByUser(User user);
-    void deleteByUser(User user);
-    void deleteByToken(String token);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.used = true WHERE t.token IN :tokens")
+    int markUsed(@Param("tokens") Collection<String> tokens);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId IN :familyIds AND t.revoked = false")
+    int revokeFamilies(@Param("familyIds") Collection<String> familyIds);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.user.id IN :userIds AND t.revoked = false")
+    int revokeUsers(@Param("userIds") Collection<Long> userIds);
+}
@@ -5,6 +5,7 @@ import com.myproject.nexa.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,6 +19,32 @@ public interface UserRepository extends BaseRepository<User, Long>, JpaSpecifica
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
 
+    // Label queries backing the in-memory domain availability index, served by the
+    // LOWER(username) index
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE LOWER(u.username) = :label")
+    boolean existsByLabel(@Param("label") String label);
+
+    @Query("SELECT u.username FROM User u")
+    java.util.List<String> findAllUsernames();
+
+    @Query("SELECT COUNT(DISTINCT LOWER(u.username)) FROM User u")
+    long countDistinctUsernames();
+
+    @Query("SELECT DISTINCT LOWER(u.username) FROM User u WHERE LOWER(u.username) IN :labels")
+    java.util.List<String> findRegisteredLabels(@Param("labels") java.util.Collection<String> labels);
+
+    // Coalesced lock flag writes from AccountLockoutService: the accounts a write would
+    // change, then the write itself
+    @Query("SELECT u.id as id, u.username as username FROM User u " +
+           "WHERE u.username IN :usernames AND u.accountNonLocked <> :accountNonLocked")
+    java.util.List<UserProjection> findLockStateChanges(@Param("usernames") java.util.Collection<String> usernames,
+                                                        @Param("accountNonLocked") boolean accountNonLocked);
+
+    @Modifying
+    @Query("UPDATE User u SET u.accountNonLocked = :accountNonLocked WHERE u.username IN :usernames")
+    int updateAccountNonLocked(@Param("usernames") java.util.Collection<String> usernames,
+                               @Param("accountNonLocked") boolean accountNonLocked);
+
     @Query("SELECT u FROM User u JOIN FETCH u.roles r WHERE r.name = :roleName")
     java.util.List<User> findByRoleName(@Param("roleName") String roleName);
 
@@ -0,0 +1,251 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.exceptions.AppException;
+import com.myproject.nexa.exceptions.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt encoder that runs every hash on a dedicated, bounded executor instead of the
+ * calling request thread. At most app.security.password-hash-threads hashes run at once
+ * (one per processor by default) and at most password-hash-queue-capacity wait; beyond
+ * that callers are shed with a 503 right away. Callers block on the result, so no more
+ * than threads plus queue capacity servlet threads are ever parked on hashing and a
+ * login storm cannot tie up the whole servlet pool.
+ * <p>
+ * The BCrypt cost is calibrated at startup to the highest cost between the configured
+ * bounds whose hash time stays within password-hash-target-ms. Existing hashes keep
+ * verifying since their cost is stored in the hash itself.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final String CALIBRATION_PASSWORD = "calibration-Password-1!";
+
+    private final AppProperties.Security config;
+    private final ThreadPoolExecutor executor;
+    private final BCryptPasswordEncoder delegate;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(AppProperties.Security config, MeterRegistry meterRegistry) {
+        this.config = config;
+
+        int threads = config.getPasswordHashThreads() > 0
+                ? config.getPasswordHashThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getPasswordHashQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        int cost = calibrateCost(config);
+        this.delegate = new BCryptPasswordEncoder(cost);
+
+        this.encodeTimer = Timer.builder("password_hash.duration")
+                .description("Time spent computing BCrypt hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password_hash.duration")
+                .description("Time spent computing BCrypt hashes")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueTimer = Timer.builder("password_hash.queue_time")
+                .description("Time hash requests waited for a hashing thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password_hash.rejected")
+                .description("Hash requests shed because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("password_hash.queue_depth", executor, pool -> pool.getQueue().size())
+                .description("Hash requests waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("password_hash.cost", () -> cost)
+                .description("BCrypt cost used for new hashes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Whether the raw password matches any of the encoded passwords. The comparisons run
+     * in parallel on the hashing pool; once one matches, the ones still queued are
+     * cancelled.
+     */
+    public boolean matchesAny(CharSequence rawPassword, List<String> encodedPasswords) {
+        if (encodedPasswords.isEmpty()) {
+            return false;
+        }
+        if (encodedPasswords.size() == 1) {
+            return matches(rawPassword, encodedPasswords.get(0));
+        }
+
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Boolean>> futures = new ArrayList<>(encodedPasswords.size());
+        try {
+            for (String encodedPassword : encodedPasswords) {
+                futures.add(completionService.submit(
+                        timed(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer)));
+            }
+        } catch (RejectedExecutionException e) {
+            cancel(futures);
+            throw shed();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getPasswordHashTimeoutMs());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Boolean> done = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    log.warn("Password history check did not complete within {}ms", config.getPasswordHashTimeoutMs());
+                    throw new AppException(ErrorCode.SYSTEM_002, "Password hashing timed out, please retry shortly");
+                }
+                if (Boolean.TRUE.equals(done.get())) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.SYSTEM_002, "Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            cancel(futures);
+        }
+    }
+
+    private <T> T submit(Callable<T> hash, Timer timer) {
+        Future<T> future;
+        try {
+            future = executor.submit(timed(hash, timer));
+        } catch (RejectedExecutionException e) {
+            throw shed();
+        }
+
+        try {
+            return future.get(config.getPasswordHashTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Password hash did not complete within {}ms", config.getPasswordHashTimeoutMs());
+            throw new AppException(ErrorCode.SYSTEM_002, "Password hashing timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new AppException(ErrorCode.SYSTEM_002, "Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Wrap a hash so its queue wait and run time are recorded
+     */
+    private <T> Callable<T> timed(Callable<T> hash, Timer timer) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            return timer.recordCallable(hash);
+        };
+    }
+
+    private AppException shed() {
+        rejectedCounter.increment();
+        log.warn("Password hashing queue is full, shedding request");
+        return new AppException(ErrorCode.SYSTEM_002, "Too many concurrent sign-in requests, please retry shortly");
+    }
+
+    private void cancel(List<? extends Future<?>> futures) {
+        boolean cancelled = false;
+        for (Future<?> future : futures) {
+            // BCrypt does not check for interrupts, so this only drops comparisons still queued
+            cancelled |= future.cancel(false);
+        }
+        if (cancelled) {
+            executor.purge();
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException("Password hashing failed", e.getCause());
+    }
+
+    /**
+     * Highest cost within the configured bounds whose hash time fits the target. Each
+     * cost step doubles the work, so one timed hash at the minimum cost is enough.
+     */
+    private static int calibrateCost(AppProperties.Security config) {
+        int minCost = config.getPasswordHashMinCost();
+        int maxCost = Math.max(minCost, config.getPasswordHashMaxCost());
+        if (!config.isPasswordHashAutoCalibrate()) {
+            return minCost;
+        }
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode(CALIBRATION_PASSWORD); // Warm up
+        long start = System.nanoTime();
+        probe.encode(CALIBRATION_PASSWORD);
+        double elapsedMs = Math.max(0.001, (System.nanoTime() - start) / 1_000_000.0);
+
+        int cost = minCost;
+        while (cost < maxCost && elapsedMs * 2 <= config.getPasswordHashTargetMs()) {
+            elapsedMs *= 2;
+            cost++;
+        }
+        log.info("Calibrated BCrypt cost {} (~{}ms per hash, target {}ms)",
+                cost, Math.round(elapsedMs), config.getPasswordHashTargetMs());
+        return cost;
+    }
+}
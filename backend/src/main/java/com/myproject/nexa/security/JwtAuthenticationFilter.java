@@ -1,5 +1,6 @@
 package com.myproject.nexa.security;
 
+import com.myproject.nexa.config.properties.AppProperties;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,13 +11,13 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,7 +25,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsNearCache userDetailsNearCache;
+    private final AppProperties appProperties;
 
     @Override
     protected void doFilterInternal(
@@ -35,15 +37,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            // Signature, expiry and claims come from a single parse
+            Optional<VerifiedToken> verifiedToken = StringUtils.hasText(jwt)
+                    ? tokenProvider.verify(jwt)
+                    : Optional.empty();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (verifiedToken.isPresent()) {
+                UserDetails userDetails = resolvePrincipal(verifiedToken.get());
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -52,6 +59,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * In stateless mode the principal is rebuilt from the token claims as long as the
+     * token has not been revoked; otherwise, or when the revocation state is unknown, the
+     * user is loaded through the near-cache.
+     * @return the principal, or null if the token must not authenticate the request
+     */
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        if (appProperties.getJwt().isStatelessPrincipal() && token.hasPrincipalClaims()) {
+            Boolean revoked = tokenProvider.isRevoked(token);
+            if (Boolean.TRUE.equals(revoked)) {
+                log.debug("Rejecting revoked token for user {}", token.getSubject());
+                return null;
+            }
+            if (revoked != null) {
+                TokenPrincipal principal = token.toPrincipal();
+                return principal.isEnabled() && principal.isAccountNonLocked() ? principal : null;
+            }
+        }
+        return userDetailsNearCache.load(token.getSubject(), token.getVersion());
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
@@ -0,0 +1,398 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.services.DistributedLockService;
+import com.myproject.nexa.services.SecretsManagementService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification keys for access tokens. In HMAC mode every token is signed
+ * and verified with the shared secret. In RS256/ES256 mode key pairs are generated by
+ * SecretsManagementService and shared between nodes through Redis, with the private key
+ * encrypted. Tokens carry the kid of their signing key and are verified against an
+ * in-memory map of the last few public keys, which is also published as a JWKS so other
+ * services can verify tokens without calling back. A new key pair is rotated in once the
+ * active one is older than app.jwt.key-rotation-interval-ms.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtKeyManager implements SigningKeyResolver {
+
+    private static final String SIGNING_KEYS_KEY = "jwt_signing_keys";
+    private static final String ROTATION_LOCK_KEY = "lock:jwt_key_rotation";
+    private static final long ROTATION_LOCK_SECONDS = 30;
+    // Lower bound between reloads triggered by tokens with an unknown kid
+    private static final long UNKNOWN_KID_RELOAD_INTERVAL_MS = 1000;
+    // Startup backoff while another node holds the rotation lock
+    private static final long KEY_WAIT_INITIAL_MS = 100;
+    private static final long KEY_WAIT_MAX_MS = 2000;
+
+    private final AppProperties appProperties;
+    private final SecretsManagementService secretsManagementService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final DistributedLockService distributedLockService;
+
+    private volatile KeySet keySet = KeySet.EMPTY;
+    private volatile long lastUnknownKidReload = 0;
+
+    @PostConstruct
+    public void init() {
+        if (!isAsymmetric()) {
+            keySet = KeySet.hmac(Keys.hmacShaKeyFor(appProperties.getJwt().getSecret().getBytes()));
+            return;
+        }
+
+        IllegalStateException failure = null;
+        try {
+            reload();
+            if (keySet.activeKid == null) {
+                rotate(true);
+            }
+        } catch (IllegalStateException e) {
+            failure = e;
+        }
+
+        // A node that lost the rotation lock sees the winner's key once it is stored
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ROTATION_LOCK_SECONDS);
+        long backoff = KEY_WAIT_INITIAL_MS;
+        while (keySet.activeKid == null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a JWT signing key", e);
+            }
+            backoff = Math.min(backoff * 2, KEY_WAIT_MAX_MS);
+            try {
+                reload();
+                failure = null;
+            } catch (IllegalStateException e) {
+                failure = e;
+            }
+        }
+        if (keySet.activeKid == null) {
+            throw new IllegalStateException("No JWT signing key available for " + appProperties.getJwt().getAlgorithm(),
+                    failure);
+        }
+    }
+
+    /**
+     * Key used to sign new tokens
+     */
+    public Key signingKey() {
+        return keySet.signingKey;
+    }
+
+    /**
+     * kid header for new tokens, or null in HMAC mode
+     */
+    public String activeKid() {
+        return keySet.activeKid;
+    }
+
+    /**
+     * Public verification keys as a JSON Web Key Set
+     */
+    public Map<String, Object> jwks() {
+        return keySet.jwks;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        return verificationKey(header);
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, String plaintext) {
+        return verificationKey(header);
+    }
+
+    /**
+     * Pick up keys rotated by other nodes and rotate when the active key is due
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.key-refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        try {
+            reload();
+            if (System.currentTimeMillis() - keySet.activeCreatedAt >= appProperties.getJwt().getKeyRotationIntervalMs()) {
+                rotate(false);
+            }
+        } catch (Exception e) {
+            log.error("JWT signing key refresh failed, keeping current keys: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Generate and activate a new signing key. Unless forced, nothing happens when another
+     * node rotated recently enough.
+     */
+    public void rotate(boolean force) {
+        String lockToken = distributedLockService.acquireLock(ROTATION_LOCK_KEY, ROTATION_LOCK_SECONDS);
+        if (lockToken == null) {
+            log.debug("JWT signing key rotation already running on another node");
+            return;
+        }
+        try {
+            List<StoredKey> stored = readStoredKeys();
+            StoredKey newest = stored.isEmpty() ? null : stored.get(0);
+            if (!force && newest != null
+                    && System.currentTimeMillis() - newest.createdAt < appProperties.getJwt().getKeyRotationIntervalMs()) {
+                return;
+            }
+
+            AppProperties.Jwt.Algorithm algorithm = appProperties.getJwt().getAlgorithm();
+            KeyPair keyPair = secretsManagementService.generateSigningKeyPair(algorithm);
+            String kid = UUID.randomUUID().toString();
+            String value = algorithm.name() + ";" + System.currentTimeMillis() + ";"
+                    + Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()) + ";"
+                    + secretsManagementService.encryptSecret(
+                            Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+            redisTemplate.opsForHash().put(SIGNING_KEYS_KEY, kid, value);
+
+            // Keep the newest keys so tokens signed before the rotation still verify
+            int keep = appProperties.getJwt().getVerificationKeys();
+            for (int i = keep - 1; i < stored.size(); i++) {
+                redisTemplate.opsForHash().delete(SIGNING_KEYS_KEY, stored.get(i).kid);
+            }
+            log.info("Rotated JWT signing key, new kid {}", kid);
+        } catch (Exception e) {
+            log.error("JWT signing key rotation failed: {}", e.getMessage(), e);
+        } finally {
+            distributedLockService.releaseLock(ROTATION_LOCK_KEY, lockToken);
+        }
+        reload();
+    }
+
+    /**
+     * Rebuild the verifier map from the keys stored in Redis. When the newest key cannot be
+     * decrypted the verifiers are still updated, the current signing key stays active and
+     * an IllegalStateException reports the failure.
+     */
+    public synchronized void reload() {
+        List<StoredKey> stored = readStoredKeys();
+        AppProperties.Jwt.Algorithm algorithm = appProperties.getJwt().getAlgorithm();
+
+        Map<String, PublicKey> verifiers = new HashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        StoredKey active = null;
+        for (StoredKey key : stored) {
+            verifiers.put(key.kid, key.publicKey);
+            jwks.add(toJwk(key));
+            if (active == null && key.algorithm == algorithm) {
+                active = key;
+            }
+        }
+        if (active == null) {
+            keySet = new KeySet(null, null, 0, Map.copyOf(verifiers), Map.of("keys", List.copyOf(jwks)));
+            return;
+        }
+
+        KeySet current = keySet;
+        PrivateKey privateKey = active.kid.equals(current.activeKid)
+                ? (PrivateKey) current.signingKey
+                : decryptPrivateKey(active);
+        if (privateKey == null) {
+            keySet = new KeySet(current.activeKid, current.signingKey, current.activeCreatedAt, Map.copyOf(verifiers),
+                    Map.of("keys", List.copyOf(jwks)));
+            throw new IllegalStateException("Could not decrypt JWT signing key " + active.kid
+                    + (current.activeKid != null ? ", still signing with " + current.activeKid : ""));
+        }
+        keySet = new KeySet(active.kid, privateKey, active.createdAt, Map.copyOf(verifiers),
+                Map.of("keys", List.copyOf(jwks)));
+    }
+
+    private Key verificationKey(JwsHeader header) {
+        KeySet current = keySet;
+        if (current.hmacKey != null) {
+            return current.hmacKey;
+        }
+
+        String kid = header.getKeyId();
+        if (kid == null) {
+            throw new UnsupportedJwtException("JWT has no key id");
+        }
+        Key key = current.verifiers.get(kid);
+        if (key == null) {
+            // The token may be signed with a key another node has just rotated in
+            long now = System.currentTimeMillis();
+            if (now - lastUnknownKidReload >= UNKNOWN_KID_RELOAD_INTERVAL_MS) {
+                lastUnknownKidReload = now;
+                try {
+                    reload();
+                } catch (IllegalStateException e) {
+                    // The verifiers are updated even when the new signing key is unusable here
+                    log.warn("JWT key reload for kid {} was incomplete: {}", kid, e.getMessage());
+                }
+                key = keySet.verifiers.get(kid);
+            }
+        }
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id " + kid);
+        }
+        return key;
+    }
+
+    /**
+     * Stored keys, newest first
+     */
+    private List<StoredKey> readStoredKeys() {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(SIGNING_KEYS_KEY);
+        List<StoredKey> keys = new ArrayList<>(entries.size());
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            try {
+                keys.add(StoredKey.parse(String.valueOf(entry.getKey()), String.valueOf(entry.getValue())));
+            } catch (Exception e) {
+                log.warn("Ignoring unreadable JWT signing key {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        keys.sort(Comparator.comparingLong((StoredKey key) -> key.createdAt).reversed());
+        return keys;
+    }
+
+    private PrivateKey decryptPrivateKey(StoredKey key) {
+        try {
+            byte[] encoded = Base64.getDecoder().decode(secretsManagementService.decryptSecret(key.encryptedPrivateKey));
+            return keyFactory(key.algorithm).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (Exception e) {
+            log.error("Could not decrypt JWT signing key {}: {}", key.kid, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private boolean isAsymmetric() {
+        return appProperties.getJwt().getAlgorithm() != AppProperties.Jwt.Algorithm.HMAC;
+    }
+
+    private static KeyFactory keyFactory(AppProperties.Jwt.Algorithm algorithm) throws Exception {
+        return KeyFactory.getInstance(algorithm == AppProperties.Jwt.Algorithm.ES256 ? "EC" : "RSA");
+    }
+
+    private static Map<String, Object> toJwk(StoredKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", key.kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", key.algorithm.name());
+        if (key.publicKey instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(rsa.getModulus(), 0));
+            jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+        } else if (key.publicKey instanceof ECPublicKey ec) {
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(ec.getW().getAffineX(), 32));
+            jwk.put("y", base64Url(ec.getW().getAffineY(), 32));
+        }
+        return jwk;
+    }
+
+    /**
+     * Unsigned big-endian base64url encoding, left-padded to length bytes when length > 0
+     */
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - start, length);
+        byte[] unsigned = new byte[size];
+        System.arraycopy(bytes, start, unsigned, size - (bytes.length - start), bytes.length - start);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+
+    /**
+     * A key pair as stored in Redis: algorithm;createdAt;public key;encrypted private key
+     */
+    private static final class StoredKey {
+        private final String kid;
+        private final AppProperties.Jwt.Algorithm algorithm;
+        private final long createdAt;
+        private final PublicKey publicKey;
+        private final String encryptedPrivateKey;
+
+        private StoredKey(String kid, AppProperties.Jwt.Algorithm algorithm, long createdAt, PublicKey publicKey,
+                          String encryptedPrivateKey) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.createdAt = createdAt;
+            this.publicKey = publicKey;
+            this.encryptedPrivateKey = encryptedPrivateKey;
+        }
+
+        static StoredKey parse(String kid, String value) throws Exception {
+            String[] parts = value.split(";", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("expected 4 fields");
+            }
+            AppProperties.Jwt.Algorithm algorithm = AppProperties.Jwt.Algorithm.valueOf(parts[0]);
+            PublicKey publicKey = keyFactory(algorithm)
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(parts[2])));
+            return new StoredKey(kid, algorithm, Long.parseLong(parts[1]), publicKey, parts[3]);
+        }
+    }
+
+    /**
+     * Immutable snapshot of the keys, swapped atomically on reload
+     */
+    private static final class KeySet {
+        static final KeySet EMPTY = new KeySet(null, null, 0, Map.of(), Map.of("keys", List.of()));
+
+        private final String activeKid;
+        private final Key signingKey;
+        private final long activeCreatedAt;
+        private final Map<String, PublicKey> verifiers;
+        private final Map<String, Object> jwks;
+        private final Key hmacKey;
+
+        private KeySet(String activeKid, Key signingKey, long activeCreatedAt, Map<String, PublicKey> verifiers,
+                       Map<String, Object> jwks) {
+            this(activeKid, signingKey, activeCreatedAt, verifiers, jwks, null);
+        }
+
+        private KeySet(String activeKid, Key signingKey, long activeCreatedAt, Map<String, PublicKey> verifiers,
+                       Map<String, Object> jwks, Key hmacKey) {
+            this.activeKid = activeKid;
+            this.signingKey = signingKey;
+            this.activeCreatedAt = activeCreatedAt;
+            this.verifiers = verifiers;
+            this.jwks = jwks;
+            this.hmacKey = hmacKey;
+        }
+
+        static KeySet hmac(Key key) {
+            // The shared secret is never published
+            return new KeySet(null, key, Long.MAX_VALUE, Map.of(), Map.of("keys", List.of()), key);
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.myproject.nexa.security;
 
 import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.entities.Role;
+import com.myproject.nexa.entities.User;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -19,40 +23,101 @@ import java.util.Date;
 public class JwtTokenProvider {
 
     private final AppProperties appProperties;
+    private final TokenVersionService tokenVersionService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtKeyManager jwtKeyManager;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(appProperties.getJwt().getSecret().getBytes());
+    // Immutable and thread-safe, so it is built once instead of per call. Keys are
+    // resolved per token by kid, which keeps the parser valid across key rotations.
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(jwtKeyManager)
+                .build();
     }
 
     public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-
         Date expiryDate = new Date(System.currentTimeMillis() + appProperties.getJwt().getExpiration());
 
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(authentication.getName())
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .setExpiration(expiryDate);
+
+        if (authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            addPrincipalClaims(builder, user);
+        }
+
+        String kid = jwtKeyManager.activeKid();
+        if (kid != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, kid);
+        }
+
+        return builder.signWith(jwtKeyManager.signingKey()).compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        io.jsonwebtoken.Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+    /**
+     * Embed the claims needed to rebuild the principal without a database lookup. The
+     * version claim is left out when it cannot be read, which keeps such tokens on the
+     * database path.
+     */
+    private void addPrincipalClaims(JwtBuilder builder, User user) {
+        Long version = tokenVersionService.issuingVersion(user.getId());
+        if (version == null) {
+            return;
+        }
+
+        List<String> roles = new ArrayList<>();
+        if (user.getRoles() != null) {
+            for (Role role : user.getRoles()) {
+                roles.add(role.getName());
+            }
+        }
+
+        builder.claim(VerifiedToken.CLAIM_USER_ID, user.getId())
+                .claim(VerifiedToken.CLAIM_ROLES, roles)
+                .claim(VerifiedToken.CLAIM_FLAGS, TokenPrincipal.flagsOf(user))
+                .claim(VerifiedToken.CLAIM_VERSION, version);
+        if (user.getTenantId() != null) {
+            builder.claim(VerifiedToken.CLAIM_TENANT_ID, user.getTenantId());
+        }
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Whether the token was issued before the user's tokens were last revoked
+     * @return null when the current version cannot be determined
+     */
+    public Boolean isRevoked(VerifiedToken token) {
+        Long current = tokenVersionService.currentVersion(token.getUserId());
+        if (current == null) {
+            return null;
+        }
+        return !current.equals(token.getVersion());
+    }
+
+    /**
+     * Validate a token and extract its claims in a single parse. Tokens verified before
+     * are served from the verified token cache until they expire or their session is
+     * revoked.
+     * @return the verified token, or empty if the signature, format or expiry is invalid or
+     * the token's session has been revoked
+     */
+    public Optional<VerifiedToken> verify(String authToken) {
+        if (authToken != null) {
+            VerifiedToken cached = verifiedTokenCache.get(authToken);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
+            VerifiedToken verified = new VerifiedToken(authToken, jwtParser.parseClaimsJws(authToken).getBody());
+            if (!verifiedTokenCache.admit(verified)) {
+                log.debug("Rejecting token of a revoked session for user {}", verified.getSubject());
+                return Optional.empty();
+            }
+            return Optional.of(verified);
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -66,16 +131,33 @@ public class JwtTokenProvider {
         } catch (Exception ex) {
             log.error("JWT token validation failed");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Drop a revoked token from the verified token cache
+     */
+    public void evictVerified(String token) {
+        verifiedTokenCache.evict(token);
+    }
+
+    /**
+     * Drop several revoked tokens from the verified token cache
+     */
+    public void evictVerified(Collection<String> tokens) {
+        verifiedTokenCache.evictAll(tokens);
+    }
+
+    public String getUsernameFromToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    public boolean validateToken(String authToken) {
+        return verify(authToken).isPresent();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        io.jsonwebtoken.Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getExpiration();
+        return jwtParser.parseClaimsJws(token).getBody().getExpiration();
     }
 
     /**
@@ -0,0 +1,34 @@
+package com.myproject.nexa.security;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Outcome of a single rate limit check, carrying everything needed for the
+ * X-RateLimit-* and Retry-After response headers
+ */
+@Getter
+@Builder
+@ToString
+public class RateLimitDecision {
+
+    private final boolean allowed;
+    private final long limit;
+    private final long remaining;
+    private final long resetAt; // Epoch seconds at which the full quota is available again
+    private final long retryAfterSeconds; // 0 when the request was allowed
+
+    /**
+     * Decision used when the limiter backend is unavailable and requests fail open
+     */
+    public static RateLimitDecision failOpen(long limit, long windowSeconds) {
+        return RateLimitDecision.builder()
+                .allowed(true)
+                .limit(limit)
+                .remaining(limit)
+                .resetAt(System.currentTimeMillis() / 1000 + windowSeconds)
+                .retryAfterSeconds(0)
+                .build();
+    }
+}
@@ -12,73 +12,64 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
 
 import java.io.IOException;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Generic rate limiting filter that can be applied to specific endpoints
+ * Generic rate limiting filter that can be applied to specific endpoints. It runs right
+ * after JwtAuthenticationFilter so USER key strategies and per-user tiers see the caller.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitFilter extends OncePerRequestFilter {
 
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
     private final RateLimitService rateLimitService;
     private final ObjectMapper objectMapper;
-
-    // Define endpoints that should have rate limiting applied
-    private final AntPathRequestMatcher[] protectedEndpoints = {
-        new AntPathRequestMatcher("/api/v1/auth/**"), // Auth endpoints
-        new AntPathRequestMatcher("/api/v1/users/**"), // User endpoints
-        new AntPathRequestMatcher("/api/v1/public/contact"), // Public contact form
-    };
+    private final RateLimitPolicyEngine rateLimitPolicyEngine;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Check if the current endpoint should be rate limited
-        boolean shouldCheckRateLimit = false;
-        for (AntPathRequestMatcher matcher : protectedEndpoints) {
-            if (matcher.matches(request)) {
-                shouldCheckRateLimit = true;
-                break;
-            }
-        }
+        // Match on the decoded path without ;parameters, the same path the dispatcher routes on
+        String path = PATH_HELPER.getPathWithinApplication(request);
+        RateLimitPolicy policy = rateLimitPolicyEngine.match(request.getMethod(), path);
 
-        if (shouldCheckRateLimit) {
+        if (policy != null) {
             String clientIp = getClientIpAddress(request);
-            boolean allowed = rateLimitService.isIpAllowed(clientIp);
-
-            if (!allowed) {
+            // One round trip answers both the decision and the header values
+            RateLimitDecision decision = rateLimitService.check(
+                    rateLimitPolicyEngine.keyFor(policy, clientIp),
+                    null,
+                    rateLimitPolicyEngine.limitFor(policy),
+                    policy.getWindowSeconds(),
+                    TimeUnit.SECONDS);
+            addRateLimitHeaders(response, decision);
+
+            if (!decision.isAllowed()) {
                 log.warn("Rate limit exceeded for IP: {} on endpoint: {}", clientIp, request.getRequestURI());
-                
-                // Add rate limit headers
-                addRateLimitHeaders(response, clientIp);
-                
+
                 // Send rate limit response
+                response.setHeader("Retry-After", String.valueOf(decision.getRetryAfterSeconds()));
                 sendRateLimitErrorResponse(response);
                 return;
             }
-
-            // Add rate limit headers to the response
-            addRateLimitHeaders(response, clientIp);
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private void addRateLimitHeaders(HttpServletResponse response, String ip) {
-        long remaining = rateLimitService.getRemainingRequests("ip:" + ip);
-        long resetTime = rateLimitService.getResetTime("ip:" + ip);
-
-        response.setHeader("X-RateLimit-Limit", String.valueOf(100)); // This should match your config
-        response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, remaining)));
-        response.setHeader("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + resetTime));
+    private void addRateLimitHeaders(HttpServletResponse response, RateLimitDecision decision) {
+        response.setHeader("X-RateLimit-Limit", String.valueOf(decision.getLimit()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(decision.getResetAt()));
     }
 
     private void sendRateLimitErrorResponse(HttpServletResponse response) throws IOException {
@@ -0,0 +1,72 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compiled, immutable form of a rate limit rule. The Redis key prefix is built once so
+ * per-request key construction is a single concatenation.
+ */
+@Getter
+public class RateLimitPolicy {
+
+    private final String name;
+    private final int limit;
+    private final long windowSeconds;
+    private final AppProperties.RateLimit.KeyStrategy keyStrategy;
+    private final Set<String> methods;
+    private final Map<String, Integer> tenantLimits;
+    private final Map<String, Integer> userLimits;
+    private final String keyPrefix;
+
+    public RateLimitPolicy(AppProperties.RateLimit.Policy policy) {
+        this(policy.getName(), policy.getLimit(), policy.getWindowSeconds(), policy.getKeyStrategy(),
+                policy.getMethods().stream().map(m -> m.toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet()),
+                Map.copyOf(policy.getTenantLimits()), Map.copyOf(policy.getUserLimits()));
+    }
+
+    public RateLimitPolicy(String name, int limit, long windowSeconds,
+                           AppProperties.RateLimit.KeyStrategy keyStrategy, Set<String> methods,
+                           Map<String, Integer> tenantLimits, Map<String, Integer> userLimits) {
+        this.name = name;
+        this.limit = limit;
+        this.windowSeconds = windowSeconds;
+        this.keyStrategy = keyStrategy != null ? keyStrategy : AppProperties.RateLimit.KeyStrategy.IP;
+        this.methods = methods;
+        this.tenantLimits = tenantLimits;
+        this.userLimits = userLimits;
+        this.keyPrefix = "rl:" + name + ":";
+    }
+
+    public boolean appliesTo(String method) {
+        return methods.isEmpty() || methods.contains(method);
+    }
+
+    /**
+     * Effective limit for the caller: a user tier beats a tenant tier, which beats the default
+     */
+    public int limitFor(String tenantId, String username) {
+        if (username != null && !userLimits.isEmpty()) {
+            Integer userLimit = userLimits.get(username);
+            if (userLimit != null) {
+                return userLimit;
+            }
+        }
+        if (tenantId != null && !tenantLimits.isEmpty()) {
+            Integer tenantLimit = tenantLimits.get(tenantId);
+            if (tenantLimit != null) {
+                return tenantLimit;
+            }
+        }
+        return limit;
+    }
+
+    public String keyFor(String identity) {
+        return keyPrefix + identity;
+    }
+}
@@ -0,0 +1,261 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.annotation.RateLimit;
+import com.myproject.nexa.config.RateLimitConfig;
+import com.myproject.nexa.config.TenantContext;
+import com.myproject.nexa.config.properties.AppProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles the per-route rate limit policies from RateLimitConfig (and the optional
+ * policy file) into a path-segment trie. Matching walks the request path once, so it is
+ * O(path length) regardless of how many rules exist. At each segment a literal match
+ * beats a '*' wildcard, and the most specific '**' rule seen on the way is used when no
+ * exact rule matches. The trie is rebuilt and swapped atomically when the policy file
+ * changes, without a restart.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitPolicyEngine {
+
+    private static final String POLICIES_PROPERTY = "app.rate-limit.policies";
+
+    private final RateLimitConfig rateLimitConfig;
+    private final AppProperties appProperties;
+
+    private volatile Node root = new Node();
+    private final Map<Method, RateLimitPolicy> annotatedPolicies = new ConcurrentHashMap<>();
+    private volatile long policyFileModified = 0;
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * Recompile all policies. Rules from the policy file replace the configured ones.
+     */
+    public synchronized void reload() {
+        List<AppProperties.RateLimit.Policy> policies = loadPolicyFile();
+        if (policies == null) {
+            policies = rateLimitConfig.getPolicies();
+        }
+
+        Node fresh = new Node();
+        for (AppProperties.RateLimit.Policy policy : policies) {
+            insert(fresh, policy.getPattern(), new RateLimitPolicy(policy));
+        }
+        root = fresh;
+        annotatedPolicies.clear();
+        log.info("Compiled {} rate limit policies", policies.size());
+    }
+
+    /**
+     * Reload the policies when the policy file has been modified
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.policy-reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        File file = policyFile();
+        if (file == null || !file.isFile()) {
+            return;
+        }
+        if (file.lastModified() != policyFileModified) {
+            log.info("Rate limit policy file {} changed, reloading", file);
+            reload();
+        }
+    }
+
+    /**
+     * Find the policy for a request path, or null when the path is not rate limited
+     */
+    public RateLimitPolicy match(String method, String path) {
+        Node node = root;
+        RateLimitPolicy fallback = select(node.rest, method);
+
+        int length = path.length();
+        int start = 0;
+        while (true) {
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start >= length) {
+                break;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+
+            Node next = node.children.get(path.substring(start, end));
+            if (next == null) {
+                next = node.wildcard;
+            }
+            if (next == null) {
+                return fallback;
+            }
+            node = next;
+
+            RateLimitPolicy rest = select(node.rest, method);
+            if (rest != null) {
+                fallback = rest;
+            }
+            start = end;
+        }
+
+        RateLimitPolicy exact = select(node.exact, method);
+        return exact != null ? exact : fallback;
+    }
+
+    /**
+     * Policy for a {@link RateLimit}-annotated method, compiled once per method. A
+     * configured policy with the annotation's key as name overrides the annotation values.
+     */
+    public RateLimitPolicy forAnnotation(Method method, RateLimit rateLimit) {
+        return annotatedPolicies.computeIfAbsent(method, m -> {
+            String name = rateLimit.key().isEmpty()
+                    ? m.getDeclaringClass().getSimpleName() + "." + m.getName()
+                    : rateLimit.key();
+            for (AppProperties.RateLimit.Policy policy : rateLimitConfig.getPolicies()) {
+                if (name.equals(policy.getName())) {
+                    return new RateLimitPolicy(policy);
+                }
+            }
+            return new RateLimitPolicy(name, rateLimit.limit(), rateLimit.unit().toSeconds(rateLimit.window()),
+                    AppProperties.RateLimit.KeyStrategy.IP, Set.of(), Map.of(), Map.of());
+        });
+    }
+
+    /**
+     * Redis key for the caller according to the policy's key strategy
+     */
+    public String keyFor(RateLimitPolicy policy, String clientIp) {
+        return switch (policy.getKeyStrategy()) {
+            case GLOBAL -> policy.keyFor("global");
+            case USER -> {
+                String username = currentUsername();
+                yield username != null ? policy.keyFor("user:" + username) : policy.keyFor("ip:" + clientIp);
+            }
+            case TENANT -> {
+                String tenantId = TenantContext.getCurrentTenant();
+                yield tenantId != null ? policy.keyFor("tenant:" + tenantId) : policy.keyFor("ip:" + clientIp);
+            }
+            default -> policy.keyFor("ip:" + clientIp);
+        };
+    }
+
+    /**
+     * Effective limit for the caller, applying tenant and user tiers
+     */
+    public int limitFor(RateLimitPolicy policy) {
+        if (policy.getTenantLimits().isEmpty() && policy.getUserLimits().isEmpty()) {
+            return policy.getLimit();
+        }
+        return policy.limitFor(TenantContext.getCurrentTenant(), currentUsername());
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static RateLimitPolicy select(List<RateLimitPolicy> policies, String method) {
+        for (int i = 0; i < policies.size(); i++) {
+            RateLimitPolicy policy = policies.get(i);
+            if (policy.appliesTo(method)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private static void insert(Node root, String pattern, RateLimitPolicy policy) {
+        Node node = root;
+        String[] segments = pattern.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1) {
+                    log.warn("Rate limit policy {} uses '**' before the end of {}, ignoring the rest",
+                            policy.getName(), pattern);
+                }
+                node.rest.add(policy);
+                return;
+            }
+            if ("*".equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.exact.add(policy);
+    }
+
+    private List<AppProperties.RateLimit.Policy> loadPolicyFile() {
+        File file = policyFile();
+        if (file == null) {
+            return null;
+        }
+        if (!file.isFile()) {
+            log.warn("Rate limit policy file {} not found, using configured policies", file);
+            return null;
+        }
+
+        try {
+            policyFileModified = file.lastModified();
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                    .load("rate-limit-policies", new FileSystemResource(file));
+            return new Binder(ConfigurationPropertySources.from(sources))
+                    .bind(POLICIES_PROPERTY, Bindable.listOf(AppProperties.RateLimit.Policy.class))
+                    .orElse(null);
+        } catch (Exception e) {
+            log.error("Failed to load rate limit policy file {}, keeping configured policies: {}",
+                    file, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private File policyFile() {
+        String location = appProperties.getRateLimit().getPolicyFile();
+        return location == null || location.isBlank() ? null : new File(location);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node wildcard;
+        private final List<RateLimitPolicy> exact = new ArrayList<>(1);
+        private final List<RateLimitPolicy> rest = new ArrayList<>(1);
+    }
+}
@@ -1,86 +1,161 @@
 package com.myproject.nexa.security;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * Service for handling rate limiting using Redis
+ * Service for handling rate limiting using Redis.
+ * Uses the generic cell rate algorithm (GCRA): each key stores only its theoretical
+ * arrival time, and the check-and-update runs as one atomic Lua script, so a decision
+ * costs a single round trip and concurrent requests cannot race past the limit.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitingService {
 
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    // Returns {allowed, remaining, retry_after_ms, reset_after_ms}. Uses the Redis clock so
+    // every node agrees on the time.
+    private static final String GCRA_SCRIPT =
+            "if redis.replicate_commands then redis.replicate_commands() end\n" +
+            "local limit = tonumber(ARGV[1])\n" +
+            "local period = tonumber(ARGV[2])\n" +
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n" +
+            "local interval = period / limit\n" +
+            "local tat = tonumber(redis.call('GET', KEYS[1]))\n" +
+            "if not tat or tat < now then tat = now end\n" +
+            "local new_tat = tat + interval\n" +
+            "local allow_at = new_tat - period\n" +
+            "if allow_at > now then\n" +
+            "  return {0, 0, math.ceil(allow_at - now), math.ceil(tat - now)}\n" +
+            "end\n" +
+            "local reset_after = math.ceil(new_tat - now)\n" +
+            "redis.call('SET', KEYS[1], string.format('%.3f', new_tat), 'PX', reset_after)\n" +
+            "return {1, math.floor((now + period - new_tat) / interval), 0, reset_after}";
+
+    private static final DefaultRedisScript<List> RATE_LIMIT_SCRIPT = new DefaultRedisScript<>(GCRA_SCRIPT, List.class);
+
     private final RedisTemplate<String, String> redisTemplate;
 
     /**
-     * Check if the request should be allowed based on rate limit
+     * Load the script into Redis up front so the first check already goes through EVALSHA
+     */
+    @PostConstruct
+    public void preloadScript() {
+        try {
+            String sha = redisTemplate.execute((RedisCallback<String>) connection -> loadScript(connection));
+            log.debug("Rate limit script loaded with SHA {}", sha);
+        } catch (Exception e) {
+            // The template falls back to EVAL on NOSCRIPT, so this only costs one extra upload later
+            log.warn("Could not preload rate limit script: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Check the rate limit for a key and consume one request if allowed
      * @param key The unique identifier for rate limiting (e.g., IP address, user ID)
      * @param limit The maximum number of requests allowed
      * @param duration The time window in seconds
-     * @return true if request is allowed, false otherwise
+     * @return the decision with remaining quota and reset time
      */
-    public boolean isAllowed(String key, int limit, int duration) {
-        String rateLimitKey = "rate_limit:" + key;
-        ValueOperations<String, String> ops = redisTemplate.opsForValue();
-
-        String currentCountStr = ops.get(rateLimitKey);
-        long currentCount = currentCountStr != null ? Long.parseLong(currentCountStr) : 0;
-
-        if (currentCount >= limit) {
-            // Check if we're still in the time window
-            Long ttl = redisTemplate.getExpire(rateLimitKey);
-            if (ttl != null && ttl > 0) {
-                log.warn("Rate limit exceeded for key: {}", key);
-                return false;
-            } else {
-                // TTL expired, reset counter
-                currentCount = 0;
-            }
+    public RateLimitDecision check(String key, int limit, int duration) {
+        List<?> result;
+        try {
+            result = redisTemplate.execute(
+                    RATE_LIMIT_SCRIPT,
+                    Collections.singletonList(KEY_PREFIX + key),
+                    String.valueOf(limit),
+                    String.valueOf(duration * 1000L));
+        } catch (Exception e) {
+            log.warn("Rate limit check failed for key: {}, allowing request: {}", key, e.getMessage());
+            return RateLimitDecision.failOpen(limit, duration);
+        }
+
+        if (result == null || result.size() < 4) {
+            log.warn("Rate limit script returned no result for key: {}, allowing request", key);
+            return RateLimitDecision.failOpen(limit, duration);
         }
 
-        // Increment the counter
-        currentCount++;
-        ops.set(rateLimitKey, String.valueOf(currentCount), Duration.ofSeconds(duration));
+        boolean allowed = toLong(result.get(0)) == 1;
+        long nowMillis = System.currentTimeMillis();
+        RateLimitDecision decision = RateLimitDecision.builder()
+                .allowed(allowed)
+                .limit(limit)
+                .remaining(Math.max(0, toLong(result.get(1))))
+                .resetAt((nowMillis + toLong(result.get(3)) + 999) / 1000)
+                .retryAfterSeconds((toLong(result.get(2)) + 999) / 1000)
+                .build();
 
-        log.debug("Rate limit increment for key: {}, count: {}", key, currentCount);
-        return true;
+        if (allowed) {
+            log.debug("Rate limit check for key: {}, remaining: {}", key, decision.getRemaining());
+        } else {
+            log.warn("Rate limit exceeded for key: {}", key);
+        }
+        return decision;
+    }
+
+    /**
+     * Check if the request should be allowed based on rate limit
+     * @param key The unique identifier for rate limiting (e.g., IP address, user ID)
+     * @param limit The maximum number of requests allowed
+     * @param duration The time window in seconds
+     * @return true if request is allowed, false otherwise
+     */
+    public boolean isAllowed(String key, int limit, int duration) {
+        return check(key, limit, duration).isAllowed();
     }
 
     /**
      * Check rate limit with IP address
      */
     public boolean isAllowedByIP(String ip, int limit, int duration) {
-        return isAllowed("ip:" + ip, limit, duration);
+        return checkByIP(ip, limit, duration).isAllowed();
     }
 
     /**
      * Check rate limit by user ID
      */
     public boolean isAllowedByUser(String userId, int limit, int duration) {
-        return isAllowed("user:" + userId, limit, duration);
+        return checkByUser(userId, limit, duration).isAllowed();
     }
 
     /**
      * Check rate limit by endpoint
      */
     public boolean isAllowedByEndpoint(String endpoint, String identifier, int limit, int duration) {
-        return isAllowed("endpoint:" + endpoint + ":" + identifier, limit, duration);
+        return checkByEndpoint(endpoint, identifier, limit, duration).isAllowed();
     }
 
-    /**
-     * Get remaining requests for a key
-     */
-    public long getRemaining(String key, int limit) {
-        String rateLimitKey = "rate_limit:" + key;
-        String currentCountStr = redisTemplate.opsForValue().get(rateLimitKey);
-        long currentCount = currentCountStr != null ? Long.parseLong(currentCountStr) : 0;
-        return Math.max(0, limit - currentCount);
+    public RateLimitDecision checkByIP(String ip, int limit, int duration) {
+        return check("ip:" + ip, limit, duration);
+    }
+
+    public RateLimitDecision checkByUser(String userId, int limit, int duration) {
+        return check("user:" + userId, limit, duration);
+    }
+
+    public RateLimitDecision checkByEndpoint(String endpoint, String identifier, int limit, int duration) {
+        return check("endpoint:" + endpoint + ":" + identifier, limit, duration);
+    }
+
+    private static String loadScript(RedisConnection connection) {
+        return connection.scriptingCommands().scriptLoad(GCRA_SCRIPT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
     }
-}
\ No newline at end of file
+}
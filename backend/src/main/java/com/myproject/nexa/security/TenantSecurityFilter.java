@@ -34,21 +34,23 @@ public class TenantSecurityFilter extends OncePerRequestFilter {
                 String currentTenant = TenantContext.getCurrentTenant();
                 log.debug("Current tenant context: {}", currentTenant);
                 
-                if (authentication.getPrincipal() instanceof User) {
-                    User authenticatedUser = (User) authentication.getPrincipal();
-                    Long userTenantId = authenticatedUser.getTenantId();
+                Long userTenantId = null;
+                if (authentication.getPrincipal() instanceof User authenticatedUser) {
+                    userTenantId = authenticatedUser.getTenantId();
+                } else if (authentication.getPrincipal() instanceof TokenPrincipal tokenPrincipal) {
+                    userTenantId = tokenPrincipal.getTenantId();
+                }
+
+                // Verify that the user belongs to the current tenant context
+                if (userTenantId != null && currentTenant != null) {
+                    // Convert tenant name to ID using same logic as entity listener for comparison
+                    long expectedTenantId = Math.abs(currentTenant.hashCode()) % 1000000L;
                     
-                    // Verify that the user belongs to the current tenant context
-                    if (userTenantId != null && currentTenant != null) {
-                        // Convert tenant name to ID using same logic as entity listener for comparison
-                        long expectedTenantId = Math.abs(currentTenant.hashCode()) % 1000000L;
-                        
-                        if (!userTenantId.equals(expectedTenantId)) {
-                            log.warn("User tenant ID {} does not match request tenant ID {}", 
-                                   userTenantId, expectedTenantId);
-                            // In a real implementation, you might want to return 403 or similar
-                            // For now, we'll just log this situation
-                        }
+                    if (!userTenantId.equals(expectedTenantId)) {
+                        log.warn("User tenant ID {} does not match request tenant ID {}", 
+                               userTenantId, expectedTenantId);
+                        // In a real implementation, you might want to return 403 or similar
+                        // For now, we'll just log this situation
                     }
                 }
             }
@@ -0,0 +1,95 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.entities.Role;
+import com.myproject.nexa.entities.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal rebuilt from access token claims, without loading the user from the database,
+ * or an immutable snapshot of a loaded user. It carries no password; anything that needs
+ * the full entity must still load it.
+ */
+@Getter
+public class TokenPrincipal implements UserDetails {
+
+    static final int FLAG_ENABLED = 1;
+    static final int FLAG_NON_LOCKED = 1 << 1;
+    static final int FLAG_NON_EXPIRED = 1 << 2;
+    static final int FLAG_CREDENTIALS_NON_EXPIRED = 1 << 3;
+
+    private final Long id;
+    private final String username;
+    private final Long tenantId;
+    private final List<GrantedAuthority> authorities;
+    private final int flags;
+
+    public TokenPrincipal(Long id, String username, Long tenantId, Collection<String> roles, int flags) {
+        this.id = id;
+        this.username = username;
+        this.tenantId = tenantId;
+        this.flags = flags;
+        List<GrantedAuthority> granted = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            granted.add(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+        this.authorities = List.copyOf(granted);
+    }
+
+    /**
+     * Copy a loaded user's identity, roles and account status into a principal that can be
+     * shared between requests
+     */
+    public static TokenPrincipal snapshotOf(User user) {
+        List<String> roles = user.getRoles() != null
+                ? user.getRoles().stream().map(Role::getName).toList()
+                : List.of();
+        return new TokenPrincipal(user.getId(), user.getUsername(), user.getTenantId(), roles, flagsOf(user));
+    }
+
+    /**
+     * Pack the account status flags of a user into the compact claim form
+     */
+    public static int flagsOf(UserDetails user) {
+        return (user.isEnabled() ? FLAG_ENABLED : 0)
+                | (user.isAccountNonLocked() ? FLAG_NON_LOCKED : 0)
+                | (user.isAccountNonExpired() ? FLAG_NON_EXPIRED : 0)
+                | (user.isCredentialsNonExpired() ? FLAG_CREDENTIALS_NON_EXPIRED : 0);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return (flags & FLAG_ENABLED) != 0;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return (flags & FLAG_NON_LOCKED) != 0;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return (flags & FLAG_NON_EXPIRED) != 0;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return (flags & FLAG_CREDENTIALS_NON_EXPIRED) != 0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserDeletedEvent;
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user token version counter. Every access token carries the version that was
+ * current when it was issued; bumping the counter revokes all of a user's tokens at
+ * once. For validation, versions are read from Redis and kept locally for a short TTL, so
+ * a revocation reaches other nodes within app.jwt.revocation-check-ttl-ms. Issuing always
+ * reads Redis, so a token is never stamped with a version that was already revoked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionService {
+
+    private static final String TOKEN_VERSION_PREFIX = "token_version:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AppProperties appProperties;
+
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Current token version of a user
+     * @return the version, or null when it cannot be determined (Redis unavailable)
+     */
+    public Long currentVersion(Long userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now < cached.expiresAt) {
+            return cached.version;
+        }
+        return read(userId, now);
+    }
+
+    /**
+     * Token version to stamp on a newly issued token, read from Redis rather than the
+     * local cache
+     * @return the version, or null when it cannot be determined (Redis unavailable)
+     */
+    public Long issuingVersion(Long userId) {
+        return read(userId, System.currentTimeMillis());
+    }
+
+    private Long read(Long userId, long now) {
+        try {
+            String value = redisTemplate.opsForValue().get(TOKEN_VERSION_PREFIX + userId);
+            long version = value != null ? Long.parseLong(value) : 0;
+            versions.put(userId, new CachedVersion(version, now + appProperties.getJwt().getRevocationCheckTtlMs()));
+            return version;
+        } catch (Exception e) {
+            log.warn("Could not read token version for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Revoke every token issued to the user so far
+     */
+    public void revokeAll(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        versions.remove(userId);
+        try {
+            redisTemplate.opsForValue().increment(TOKEN_VERSION_PREFIX + userId);
+            log.info("Revoked all tokens for user {}", userId);
+        } catch (Exception e) {
+            log.error("Failed to revoke tokens for user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        revokeAll(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        // Tokens name the user by username, so a rename invalidates them
+        if (!Objects.equals(event.getPreviousUsername(), event.getUsername())) {
+            revokeAll(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        revokeAll(event.getUserId());
+    }
+
+    /**
+     * Drop expired local entries so idle users do not accumulate
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredVersions() {
+        long now = System.currentTimeMillis();
+        versions.entrySet().removeIf(entry -> now >= entry.getValue().expiresAt);
+    }
+
+    private static final class CachedVersion {
+        private final long version;
+        private final long expiresAt;
+
+        CachedVersion(long version, long expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserDeletedEvent;
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
+import com.myproject.nexa.entities.User;
+import com.myproject.nexa.utils.BoundedLruCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of UserDetails in front of CustomUserDetailsService for the
+ * JWT filter. Entries are keyed by username and remember the token version they were
+ * loaded for, so a token issued after a revocation never sees the old entry, and every
+ * node drops a user's entries when a change to that user is broadcast on the invalidation
+ * channel. No entry is served for longer than app.cache.user-details-max-staleness-ms,
+ * which bounds staleness if a message is lost.
+ * <p>
+ * Entries hold an immutable TokenPrincipal snapshot rather than the User entity, so a
+ * request can neither see nor make changes to another request's copy. A load that overlaps
+ * an invalidation is returned but not kept, so the invalidation cannot be lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserDetailsNearCache {
+
+    static final String INVALIDATION_CHANNEL = "user_details:invalidate";
+    // Published when the changed user is not known by name
+    private static final String INVALIDATE_ALL = "*";
+
+    private final CustomUserDetailsService userDetailsService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    private BoundedLruCache<String, CachedUser> cache;
+    // Bumped before every local eviction
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AppProperties.Cache config = appProperties.getCache();
+        cache = new BoundedLruCache<>(config.getUserDetailsMaxSize(), config.getUserDetailsMaxStalenessMs());
+
+        listenerContainer.addMessageListener((message, pattern) ->
+                        evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+
+        FunctionCounter.builder("user_details_cache.requests", cache, BoundedLruCache::hitCount)
+                .description("UserDetails near-cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("user_details_cache.requests", cache, BoundedLruCache::missCount)
+                .description("UserDetails near-cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("user_details_cache.evictions", cache, BoundedLruCache::evictionCount)
+                .description("UserDetails entries evicted to stay within the size bound")
+                .register(meterRegistry);
+        Gauge.builder("user_details_cache.size", cache, BoundedLruCache::size)
+                .description("UserDetails entries cached on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load a user for an authenticated request, from the cache when possible
+     * @param version token version carried by the token, or null when it has none
+     */
+    public UserDetails load(String username, Long version) {
+        if (!appProperties.getCache().isUserDetailsEnabled()) {
+            return snapshot(userDetailsService.loadUserByUsername(username));
+        }
+
+        CachedUser cached = cache.get(username);
+        if (cached != null && Objects.equals(cached.version, version)) {
+            return cached.userDetails;
+        }
+        long seen = invalidations.get();
+        UserDetails loaded = snapshot(userDetailsService.loadUserByUsername(username));
+        cache.put(username, new CachedUser(version, loaded));
+        // An eviction that bumped the counter after this read runs after the put and removes
+        // the entry itself; one that bumped it during the load may have run before the put
+        if (invalidations.get() != seen) {
+            cache.invalidate(username);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop a user's entry on every node
+     */
+    public void invalidate(String username) {
+        String message = username != null ? username : INVALIDATE_ALL;
+        evictLocal(message);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast UserDetails invalidation for {}: {}", message, e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        invalidate(event.getUsername());
+        if (event.getPreviousUsername() != null && !event.getPreviousUsername().equals(event.getUsername())) {
+            invalidate(event.getPreviousUsername());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        invalidate(event.getUsername());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidate(event.getUsername());
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static UserDetails snapshot(UserDetails loaded) {
+        return loaded instanceof User user ? TokenPrincipal.snapshotOf(user) : loaded;
+    }
+
+    private void evictLocal(String username) {
+        invalidations.incrementAndGet();
+        if (INVALIDATE_ALL.equals(username)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(username);
+        }
+    }
+
+    private static final class CachedUser {
+        private final Long version;
+        private final UserDetails userDetails;
+
+        CachedUser(Long version, UserDetails userDetails) {
+            this.version = version;
+            this.userDetails = userDetails;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.myproject.nexa.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A JWT whose signature and expiry have been checked, with its claims already extracted
+ */
+@Getter
+public class VerifiedToken {
+
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_TENANT_ID = "tid";
+    static final String CLAIM_ROLES = "rol";
+    static final String CLAIM_FLAGS = "flg";
+    static final String CLAIM_VERSION = "ver";
+
+    private final String token;
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final Claims claims;
+
+    public VerifiedToken(String token, Claims claims) {
+        this.token = token;
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+        this.claims = claims;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiration != null ? expiration.getTime() : 0;
+    }
+
+    /**
+     * Whether the token carries enough claims to build the principal without a user lookup
+     */
+    public boolean hasPrincipalClaims() {
+        return claims.containsKey(CLAIM_USER_ID) && claims.containsKey(CLAIM_FLAGS)
+                && claims.containsKey(CLAIM_VERSION);
+    }
+
+    public Long getUserId() {
+        return longClaim(CLAIM_USER_ID);
+    }
+
+    public Long getTenantId() {
+        return longClaim(CLAIM_TENANT_ID);
+    }
+
+    public Long getVersion() {
+        return longClaim(CLAIM_VERSION);
+    }
+
+    public int getFlags() {
+        Long flags = longClaim(CLAIM_FLAGS);
+        return flags != null ? flags.intValue() : 0;
+    }
+
+    public List<String> getRoles() {
+        Object roles = claims.get(CLAIM_ROLES);
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            result.add(String.valueOf(value));
+        }
+        return result;
+    }
+
+    /**
+     * Principal described by the token claims
+     */
+    public TokenPrincipal toPrincipal() {
+        return new TokenPrincipal(getUserId(), subject, getTenantId(), getRoles(), getFlags());
+    }
+
+    private Long longClaim(String name) {
+        Object value = claims.get(name);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
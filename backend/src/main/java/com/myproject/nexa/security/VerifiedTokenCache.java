@@ -0,0 +1,186 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.utils.BoundedLruCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+/**
+ * Small LRU of tokens that already passed signature and expiry checks, so a client
+ * polling with the same access token skips HMAC verification and claim parsing. Entries
+ * are keyed by the token's signature segment, which is already a MAC over the whole
+ * token, and live until the token's exp.
+ * <p>
+ * Revoking a session through SessionManagementService marks its token in Redis
+ * (revoked_token:{token}, until the token's exp) and then evicts it on every node through
+ * a pub/sub channel. A token is checked against that mark once, when it is admitted after
+ * a full verification; a cached entry is therefore never revoked.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerifiedTokenCache {
+
+    static final String EVICTION_CHANNEL = "verified_token:evict";
+    public static final String REVOKED_TOKEN_PREFIX = "revoked_token:";
+
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Null when the cache is disabled
+    private BoundedLruCache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        int capacity = appProperties.getJwt().getVerifiedTokenCacheSize();
+        if (capacity <= 0) {
+            log.info("Verified token cache disabled");
+            return;
+        }
+        cache = new BoundedLruCache<>(capacity, 0);
+
+        listenerContainer.addMessageListener((message, pattern) -> {
+            // A message carries one key per line
+            for (String key : new String(message.getBody(), StandardCharsets.UTF_8).split("\n")) {
+                cache.invalidate(key);
+            }
+        }, new ChannelTopic(EVICTION_CHANNEL));
+
+        FunctionCounter.builder("jwt.verified_cache.requests", cache, BoundedLruCache::hitCount)
+                .description("Verified token cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.verified_cache.requests", cache, BoundedLruCache::missCount)
+                .description("Verified token cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.verified_cache.hit_ratio", cache, VerifiedTokenCache::hitRatio)
+                .description("Share of token verifications answered from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the cached verification result, or null when the token has to be verified
+     */
+    public VerifiedToken get(String token) {
+        if (cache == null) {
+            return null;
+        }
+        String key = keyOf(token);
+        if (key == null) {
+            return null;
+        }
+        VerifiedToken cached = cache.get(key);
+        // The key is only part of the token; a forged header or payload must not match
+        return cached != null && cached.getToken().equals(token) ? cached : null;
+    }
+
+    /**
+     * Accept a freshly verified token unless its session was revoked, caching it when it
+     * is accepted. The entry is added before the revocation mark is read: a revocation
+     * whose mark the read misses broadcasts its eviction afterwards, so it still removes
+     * the entry.
+     * @return false if the token's session has been revoked
+     */
+    public boolean admit(VerifiedToken verified) {
+        String key = cache != null && verified.getExpiration() != null ? keyOf(verified.getToken()) : null;
+        if (key != null) {
+            cache.put(key, verified, verified.getExpiresAtMillis());
+        }
+        Boolean revoked = isRevoked(verified.getToken());
+        if (key != null && !Boolean.FALSE.equals(revoked)) {
+            // Revoked, or unknown while Redis is unavailable; check again next time
+            cache.invalidate(key);
+        }
+        return !Boolean.TRUE.equals(revoked);
+    }
+
+    /**
+     * Forget a revoked token on every node
+     */
+    public void evict(String token) {
+        if (cache == null || token == null) {
+            return;
+        }
+        String key = keyOf(token);
+        if (key == null) {
+            return;
+        }
+        cache.invalidate(key);
+        try {
+            redisTemplate.convertAndSend(EVICTION_CHANNEL, key);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast verified token eviction: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Forget several revoked tokens on every node with a single broadcast
+     */
+    public void evictAll(Collection<String> tokens) {
+        if (cache == null || tokens.isEmpty()) {
+            return;
+        }
+        StringJoiner keys = new StringJoiner("\n");
+        for (String token : tokens) {
+            String key = token != null ? keyOf(token) : null;
+            if (key != null) {
+                cache.invalidate(key);
+                keys.add(key);
+            }
+        }
+        if (keys.length() == 0) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(EVICTION_CHANNEL, keys.toString());
+        } catch (Exception e) {
+            log.warn("Failed to broadcast verified token eviction: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void cleanUp() {
+        if (cache != null) {
+            cache.cleanUp();
+        }
+    }
+
+    /**
+     * @return whether the token's session was revoked, or null when Redis cannot be read
+     */
+    private Boolean isRevoked(String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_TOKEN_PREFIX + token));
+        } catch (Exception e) {
+            log.warn("Could not check token revocation, accepting the token uncached: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static double hitRatio(BoundedLruCache<?, ?> cache) {
+        long hits = cache.hitCount();
+        long total = hits + cache.missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static String keyOf(String token) {
+        int separator = token.lastIndexOf('.');
+        return separator > 0 && separator < token.length() - 1 ? token.substring(separator + 1) : null;
+    }
+}
@@ -1,17 +1,35 @@
 package com.myproject.nexa.services;
 
 import com.myproject.nexa.config.properties.AppProperties;
-import com.myproject.nexa.entities.User;
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
+import com.myproject.nexa.dto.projection.UserProjection;
 import com.myproject.nexa.repositories.UserRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Service for handling account lockout and brute force protection
+ * Service for handling account lockout and brute force protection.
+ * <p>
+ * Redis is the authority for lockouts: a failed attempt is counted and, at the limit,
+ * the lockout key is set in one Lua call, so concurrent failures cannot lose increments.
+ * The users.account_non_locked flag is only a mirror. Changes to it are coalesced per
+ * username and written in bulk on a schedule, so a brute-force burst costs at most one
+ * database write per account and flush interval, off the request path. Every account
+ * whose flag a flush changes gets a UserSecurityChangedEvent, which revokes its tokens
+ * and drops its cached entries like any other account status change.
  */
 @Service
 @RequiredArgsConstructor
@@ -21,9 +39,28 @@ public class AccountLockoutService {
     private final RedisTemplate<String, String> redisTemplate;
     private final UserRepository userRepository;
     private final AppProperties appProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String LOGIN_ATTEMPT_PREFIX = "login_attempt:";
     private static final String ACCOUNT_LOCKOUT_PREFIX = "account_lockout:";
+    private static final int MAX_PENDING_LOCK_UPDATES = 10000;
+
+    // KEYS: attempts, lockout. ARGV: window ms, max attempts.
+    // Returns {attempts, 1 if this attempt locked the account else 0}
+    private static final String FAILED_ATTEMPT_SCRIPT =
+            "local attempts = redis.call('INCR', KEYS[1])\n" +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1])\n" +
+            "local locked = 0\n" +
+            "if attempts >= tonumber(ARGV[2]) and redis.call('SET', KEYS[2], 'locked', 'PX', ARGV[1], 'NX') then\n" +
+            "  locked = 1\n" +
+            "end\n" +
+            "return {attempts, locked}";
+
+    private static final DefaultRedisScript<List> FAILED_ATTEMPT = new DefaultRedisScript<>(FAILED_ATTEMPT_SCRIPT, List.class);
+
+    // Latest lock flag per username waiting to be written; true means locked
+    private final Map<String, Boolean> pendingLocks = new ConcurrentHashMap<>();
 
     /**
      * Record a failed login attempt for the given username
@@ -31,23 +68,26 @@ public class AccountLockoutService {
      * @return true if account should be locked, false otherwise
      */
     public boolean recordFailedAttempt(String username) {
-        String key = LOGIN_ATTEMPT_PREFIX + username;
-        String attemptsStr = redisTemplate.opsForValue().get(key);
-        int attempts = attemptsStr != null ? Integer.parseInt(attemptsStr) : 0;
+        long window = TimeUnit.MINUTES.toMillis(appProperties.getSecurity().getLockoutDurationMinutes());
+        int maxAttempts = appProperties.getSecurity().getMaxLoginAttempts();
 
-        attempts++;
-        redisTemplate.opsForValue().set(key, String.valueOf(attempts), 
-                appProperties.getSecurity().getLockoutDurationMinutes(), TimeUnit.MINUTES);
+        List<?> result = redisTemplate.execute(FAILED_ATTEMPT,
+                List.of(LOGIN_ATTEMPT_PREFIX + username, ACCOUNT_LOCKOUT_PREFIX + username),
+                String.valueOf(window), String.valueOf(maxAttempts));
+        if (result == null || result.size() < 2) {
+            log.warn("Failed login attempt for user {} could not be counted", username);
+            return false;
+        }
 
+        long attempts = toLong(result.get(0));
         log.info("Failed login attempt #{} for user: {}", attempts, username);
 
-        if (attempts >= appProperties.getSecurity().getMaxLoginAttempts()) {
-            // Lock the account
-            lockAccount(username);
-            return true;
+        if (toLong(result.get(1)) == 1) {
+            // Only the attempt that set the lockout key updates the database flag
+            queueLockState(username, true);
+            log.warn("Account {} has been locked due to too many failed login attempts", username);
         }
-
-        return false;
+        return attempts >= maxAttempts;
     }
 
     /**
@@ -74,13 +114,7 @@ public class AccountLockoutService {
         String lockoutKey = ACCOUNT_LOCKOUT_PREFIX + username;
         redisTemplate.opsForValue().set(lockoutKey, "locked", 
                 appProperties.getSecurity().getLockoutDurationMinutes(), TimeUnit.MINUTES);
-        
-        // Update user account status in database if needed
-        User user = userRepository.findByUsername(username).orElse(null);
-        if (user != null) {
-            user.setAccountNonLocked(false);
-            userRepository.save(user);
-        }
+        queueLockState(username, true);
         
         log.warn("Account {} has been locked due to too many failed login attempts", username);
     }
@@ -92,15 +126,8 @@ public class AccountLockoutService {
         String attemptsKey = LOGIN_ATTEMPT_PREFIX + username;
         String lockoutKey = ACCOUNT_LOCKOUT_PREFIX + username;
         
-        redisTemplate.delete(attemptsKey);
-        redisTemplate.delete(lockoutKey);
-        
-        // Update user account status in database
-        User user = userRepository.findByUsername(username).orElse(null);
-        if (user != null) {
-            user.setAccountNonLocked(true);
-            userRepository.save(user);
-        }
+        redisTemplate.delete(List.of(attemptsKey, lockoutKey));
+        queueLockState(username, false);
         
         log.info("Account {} has been unlocked", username);
     }
@@ -125,4 +152,75 @@ public class AccountLockoutService {
         Long timeRemaining = redisTemplate.getExpire(lockoutKey, TimeUnit.SECONDS);
         return timeRemaining != null ? timeRemaining : 0;
     }
+
+    /**
+     * Write the pending account lock flags, one bulk update per flag value
+     */
+    @Scheduled(fixedDelayString = "${app.security.lockout-flush-interval-ms:1000}")
+    public void flushLockStates() {
+        if (pendingLocks.isEmpty()) {
+            return;
+        }
+        List<String> locked = new ArrayList<>();
+        List<String> unlocked = new ArrayList<>();
+        for (String username : pendingLocks.keySet()) {
+            Boolean state = pendingLocks.remove(username);
+            if (state != null) {
+                (state ? locked : unlocked).add(username);
+            }
+        }
+
+        int[] changed = new int[2];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                changed[0] = writeLockState(locked, false);
+                changed[1] = writeLockState(unlocked, true);
+            });
+        } catch (Exception e) {
+            log.error("Failed to write lock state for {} accounts: {}", locked.size() + unlocked.size(),
+                    e.getMessage(), e);
+            return;
+        }
+        log.debug("Wrote lock state for {} locked and {} unlocked accounts", changed[0], changed[1]);
+    }
+
+    /**
+     * Write one lock flag value and publish an event per account it changed. The events are
+     * delivered to their listeners once the transaction commits.
+     * @return the number of accounts changed
+     */
+    private int writeLockState(List<String> usernames, boolean accountNonLocked) {
+        if (usernames.isEmpty()) {
+            return 0;
+        }
+        List<UserProjection> changed = userRepository.findLockStateChanges(usernames, accountNonLocked);
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        userRepository.updateAccountNonLocked(changed.stream().map(UserProjection::getUsername).toList(),
+                accountNonLocked);
+        for (UserProjection user : changed) {
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(user.getId(), user.getUsername(),
+                    accountNonLocked ? "UNLOCKED" : "LOCKED"));
+        }
+        return changed.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushLockStates();
+    }
+
+    private void queueLockState(String username, boolean locked) {
+        // Redis stays authoritative, so the mirror may skip updates during an extreme burst
+        if (pendingLocks.size() >= MAX_PENDING_LOCK_UPDATES && !pendingLocks.containsKey(username)) {
+            log.warn("Too many pending account lock updates, not mirroring lock state of {}", username);
+            return;
+        }
+        pendingLocks.put(username, locked);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,373 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
+import com.myproject.nexa.repositories.UserRepository;
+import com.myproject.nexa.utils.DomainLabelUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of registered .nexa labels so availability checks can be answered
+ * without a database round trip. The index is loaded from the users table once the
+ * application is ready and kept current from user lifecycle events, which every node
+ * shares through a Redis channel. Each change also bumps a generation counter in Redis;
+ * a node that has applied fewer changes than the counter advanced since its last load
+ * missed a message and rebuilds, which catches renames that a count comparison cannot.
+ * The count comparison still runs as a backstop for changes made outside the application.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DomainAvailabilityIndex {
+
+    static final String CHANGES_CHANNEL = "domain:index:changes";
+    static final String GENERATION_KEY = "domain:index:generation";
+
+    private final UserRepository userRepository;
+    private final DomainNegativeCache domainNegativeCache;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private volatile Set<String> labels = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> rebuilding;
+    private volatile boolean ready = false;
+    private final AtomicLong drift = new AtomicLong(0);
+
+    // Changes received over the channel, and both counters as of the last load
+    private final AtomicLong received = new AtomicLong(0);
+    private volatile long loadedGeneration;
+    private volatile long loadedReceived;
+
+    // Labels renamed away from, released once the database confirms no row holds them
+    private final Set<String> pendingReleases = ConcurrentHashMap.newKeySet();
+
+    private Counter indexLookupCounter;
+    private Counter databaseLookupCounter;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener((message, pattern) ->
+                        applyChange(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANGES_CHANNEL));
+
+        Gauge.builder("domain.index.size", this, index -> index.labels.size())
+                .description("Number of registered labels held in the domain availability index")
+                .register(meterRegistry);
+
+        Gauge.builder("domain.index.drift", drift, AtomicLong::get)
+                .description("Absolute difference between indexed labels and registered labels in the database")
+                .register(meterRegistry);
+
+        indexLookupCounter = Counter.builder("domain.index.lookups")
+                .description("Availability lookups by source")
+                .tag("source", "index")
+                .register(meterRegistry);
+
+        databaseLookupCounter = Counter.builder("domain.index.lookups")
+                .description("Availability lookups by source")
+                .tag("source", "database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the index once the application context is fully started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!appProperties.getDomain().isIndexEnabled()) {
+            log.info("Domain availability index is disabled, availability checks will query the database");
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Check whether a label is already registered. Falls back to the database, behind the
+     * bloom filter negative cache, while the index is disabled or still loading.
+     */
+    public boolean isRegistered(String label) {
+        String normalized = normalize(label);
+        if (normalized == null) {
+            return false;
+        }
+
+        if (ready) {
+            indexLookupCounter.increment();
+            return labels.contains(normalized);
+        }
+
+        if (!domainNegativeCache.mightBeRegistered(normalized)) {
+            return false;
+        }
+
+        databaseLookupCounter.increment();
+        boolean registered = userRepository.existsByLabel(normalized);
+        domainNegativeCache.recordConfirmation(registered);
+        return registered;
+    }
+
+    /**
+     * Resolve which of the given normalized labels are registered. Served from the index
+     * when it is loaded, otherwise labels that survive the negative cache are resolved
+     * with a single set-based query.
+     */
+    public Set<String> findRegistered(Collection<String> normalizedLabels) {
+        Set<String> registered = new HashSet<>();
+        if (normalizedLabels.isEmpty()) {
+            return registered;
+        }
+
+        if (ready) {
+            indexLookupCounter.increment(normalizedLabels.size());
+            Set<String> current = labels;
+            for (String label : normalizedLabels) {
+                if (current.contains(label)) {
+                    registered.add(label);
+                }
+            }
+            return registered;
+        }
+
+        List<String> candidates = new ArrayList<>(normalizedLabels.size());
+        for (String label : normalizedLabels) {
+            if (domainNegativeCache.mightBeRegistered(label)) {
+                candidates.add(label);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return registered;
+        }
+
+        databaseLookupCounter.increment(candidates.size());
+        registered.addAll(userRepository.findRegisteredLabels(candidates));
+        for (String candidate : candidates) {
+            domainNegativeCache.recordConfirmation(registered.contains(candidate));
+        }
+        return registered;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return labels.size();
+    }
+
+    public long getDrift() {
+        return drift.get();
+    }
+
+    /**
+     * Rebuild the index from the database and swap it in atomically. Mutations that
+     * arrive while the rebuild is in progress are applied to both sets.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<String> fresh = ConcurrentHashMap.newKeySet();
+        rebuilding = fresh;
+        try {
+            // Read before the users so every change counted later is newer than the load
+            long generation = currentGeneration();
+            long receivedBefore = received.get();
+            List<String> usernames = userRepository.findAllUsernames();
+            for (String username : usernames) {
+                String normalized = normalize(username);
+                if (normalized != null) {
+                    fresh.add(normalized);
+                }
+            }
+            labels = fresh;
+            loadedGeneration = generation;
+            loadedReceived = receivedBefore;
+            ready = true;
+            drift.set(0);
+            log.info("Domain availability index loaded with {} labels in {}ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to load domain availability index, falling back to database lookups: {}",
+                    e.getMessage(), e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Rebuild when this node missed a change published by another node, or when the
+     * label count differs from the database by more than the configured threshold
+     */
+    @Scheduled(fixedDelayString = "${app.domain.index-reconcile-interval-ms:300000}",
+            initialDelayString = "${app.domain.index-reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+
+        try {
+            long generation = currentGeneration();
+            long published = generation - loadedGeneration;
+            long applied = received.get() - loadedReceived;
+            if (generation >= 0 && loadedGeneration >= 0 && applied < published) {
+                log.warn("Domain availability index missed {} of {} published changes, rebuilding",
+                        published - applied, published);
+                rebuild();
+                return;
+            }
+
+            long databaseCount = userRepository.countDistinctUsernames();
+            long currentDrift = Math.abs(databaseCount - labels.size());
+            drift.set(currentDrift);
+
+            if (currentDrift > appProperties.getDomain().getIndexMaxDrift()) {
+                log.warn("Domain availability index drifted by {} labels (database: {}, index: {}), rebuilding",
+                        currentDrift, databaseCount, labels.size());
+                rebuild();
+            } else {
+                log.debug("Domain availability index in sync (drift: {})", currentDrift);
+            }
+        } catch (Exception e) {
+            log.error("Domain availability index reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Release labels that were renamed away from once no other row holds them, e.g. "Bob"
+     * renamed while "bob" still exists. Checked in batches here so the commit path never
+     * queries the database.
+     */
+    @Scheduled(fixedDelayString = "${app.domain.index-release-interval-ms:5000}")
+    public void releasePending() {
+        if (pendingReleases.isEmpty()) {
+            return;
+        }
+        List<String> batch = new ArrayList<>(pendingReleases);
+        try {
+            Set<String> stillRegistered = new HashSet<>(userRepository.findRegisteredLabels(batch));
+            for (String label : batch) {
+                pendingReleases.remove(label);
+                if (!stillRegistered.contains(label)) {
+                    remove(label);
+                    publish('-', label);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to release {} domain labels, retrying: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        String label = normalize(event.getUsername());
+        if (label != null) {
+            add(label);
+            publish('+', label);
+        }
+    }
+
+    /**
+     * Deletes are soft and keep the row and its username, so only renames change labels
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        String previous = normalize(event.getPreviousUsername());
+        String current = normalize(event.getUsername());
+        if (current == null || current.equals(previous)) {
+            return;
+        }
+        add(current);
+        publish('+', current);
+        if (previous != null) {
+            pendingReleases.add(previous);
+        }
+    }
+
+    /**
+     * Apply a change published by any node, this one included. Messages are '+' or '-'
+     * followed by the normalized label.
+     */
+    private void applyChange(String message) {
+        received.incrementAndGet();
+        if (message.length() < 2) {
+            return;
+        }
+        String label = message.substring(1);
+        if (message.charAt(0) == '+') {
+            add(label);
+        } else if (message.charAt(0) == '-') {
+            remove(label);
+        }
+    }
+
+    private void publish(char operation, String label) {
+        try {
+            redisTemplate.opsForValue().increment(GENERATION_KEY);
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, operation + label);
+        } catch (Exception e) {
+            // The other nodes see the generation move without the message and rebuild
+            log.warn("Failed to publish domain label change {}{}: {}", operation, label, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the published change count, or -1 when Redis cannot be read
+     */
+    private long currentGeneration() {
+        try {
+            String value = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (Exception e) {
+            log.warn("Could not read the domain index generation: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private void add(String normalized) {
+        labels.add(normalized);
+        Set<String> pending = rebuilding;
+        if (pending != null) {
+            pending.add(normalized);
+        }
+    }
+
+    private void remove(String normalized) {
+        labels.remove(normalized);
+        Set<String> pending = rebuilding;
+        if (pending != null) {
+            pending.remove(normalized);
+        }
+    }
+
+    /**
+     * Normalize a domain name or username to the bare lower-case label
+     */
+    public static String normalize(String name) {
+        String label = DomainLabelUtil.canonicalize(name);
+        return label == null || label.isEmpty() ? null : label;
+    }
+}
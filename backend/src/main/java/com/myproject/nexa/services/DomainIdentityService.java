@@ -15,6 +15,12 @@ public interface DomainIdentityService {
      * Check availability of a domain name in the .nexa namespace
      */
     DomainAvailabilityResponse checkDomainAvailability(String domainName);
+
+    /**
+     * Check availability of many domain names at once. Results are returned in the same
+     * order as the requested names.
+     */
+    List<DomainAvailabilityResponse> checkDomainAvailabilityBatch(List<String> domainNames);
     
     /**
      * Get domain identity information including strategic advantages
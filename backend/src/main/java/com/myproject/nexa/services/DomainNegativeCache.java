@@ -0,0 +1,257 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
+import com.myproject.nexa.repositories.UserRepository;
+import com.myproject.nexa.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node Bloom filter over registered labels used as a negative cache in front of the
+ * authoritative availability check when the full in-memory index is disabled. A miss
+ * means the label is definitely available; a probable hit is confirmed against the
+ * database. Labels registered on any node are published on a Redis channel and added to
+ * every node's filter, so a miss stays authoritative across replicas. Released labels
+ * cannot be removed from the filter, so it is rebuilt on a fixed interval and earlier
+ * once the observed false-positive ratio drifts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DomainNegativeCache {
+
+    static final String REGISTERED_CHANNEL = "domain:registered";
+
+    private final UserRepository userRepository;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private volatile long builtAt;
+
+    // Window counters, reset whenever the filter is rebuilt
+    private final AtomicLong negatives = new AtomicLong(0);
+    private final AtomicLong probableHits = new AtomicLong(0);
+    private final AtomicLong falsePositives = new AtomicLong(0);
+
+    private Counter negativeCounter;
+    private Counter probableHitCounter;
+    private Counter falsePositiveCounter;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener((message, pattern) ->
+                        put(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(REGISTERED_CHANNEL));
+
+        negativeCounter = Counter.builder("domain.bloom.lookups")
+                .description("Bloom filter lookups by result")
+                .tag("result", "negative")
+                .register(meterRegistry);
+
+        probableHitCounter = Counter.builder("domain.bloom.lookups")
+                .description("Bloom filter lookups by result")
+                .tag("result", "probable")
+                .register(meterRegistry);
+
+        falsePositiveCounter = Counter.builder("domain.bloom.false_positives")
+                .description("Probable hits the database reported as available")
+                .register(meterRegistry);
+
+        Gauge.builder("domain.bloom.hit_rate", this, DomainNegativeCache::getHitRate)
+                .description("Share of lookups answered as definitely available without a database round trip")
+                .register(meterRegistry);
+
+        Gauge.builder("domain.bloom.false_positive_ratio", this, DomainNegativeCache::getFalsePositiveRatio)
+                .description("Share of probable hits that turned out to be available")
+                .register(meterRegistry);
+
+        Gauge.builder("domain.bloom.expected_fpp", this,
+                        cache -> cache.filter != null ? cache.filter.expectedFalsePositiveRate() : 0.0)
+                .description("False-positive probability implied by the filter's bit density")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the filter on startup when it is the active lookup path
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        AppProperties.Domain domain = appProperties.getDomain();
+        if (domain.isIndexEnabled() || !domain.isBloomFilterEnabled()) {
+            return;
+        }
+        rebuild();
+    }
+
+    public boolean isActive() {
+        return filter != null;
+    }
+
+    /**
+     * @return false if the label is definitely not registered, true if the caller has to
+     * confirm it against the database (always true while the filter is inactive)
+     */
+    public boolean mightBeRegistered(String normalizedLabel) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        if (current.mightContain(normalizedLabel)) {
+            probableHits.incrementAndGet();
+            probableHitCounter.increment();
+            return true;
+        }
+        negatives.incrementAndGet();
+        negativeCounter.increment();
+        return false;
+    }
+
+    /**
+     * Record the authoritative answer for a probable hit
+     */
+    public void recordConfirmation(boolean registered) {
+        if (filter != null && !registered) {
+            falsePositives.incrementAndGet();
+            falsePositiveCounter.increment();
+        }
+    }
+
+    public double getHitRate() {
+        long hits = negatives.get();
+        long total = hits + probableHits.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public double getFalsePositiveRatio() {
+        long probable = probableHits.get();
+        return probable == 0 ? 0.0 : (double) falsePositives.get() / probable;
+    }
+
+    /**
+     * Rebuild the filter from the database and swap it in. Labels added while the
+     * rebuild is running are written to both filters.
+     */
+    public synchronized void rebuild() {
+        AppProperties.Domain domain = appProperties.getDomain();
+        long start = System.currentTimeMillis();
+        try {
+            long registered = userRepository.countDistinctUsernames();
+            // Leave headroom so the filter does not saturate before the next rebuild
+            long expected = Math.max(domain.getBloomExpectedInsertions(), registered + registered / 5);
+            BloomFilter fresh = BloomFilter.create(expected, domain.getBloomFalsePositiveRate());
+            rebuilding = fresh;
+
+            List<String> usernames = userRepository.findAllUsernames();
+            for (String username : usernames) {
+                String normalized = DomainAvailabilityIndex.normalize(username);
+                if (normalized != null) {
+                    fresh.put(normalized);
+                }
+            }
+
+            filter = fresh;
+            builtAt = start;
+            negatives.set(0);
+            probableHits.set(0);
+            falsePositives.set(0);
+            log.info("Domain bloom filter built for {} labels ({} bits, {} hashes) in {}ms",
+                    usernames.size(), fresh.bitSize(), fresh.hashFunctions(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build domain bloom filter: {}", e.getMessage(), e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Rebuild in the background once the filter is older than the rebuild interval or the
+     * observed false-positive ratio drifts past the configured threshold
+     */
+    @Scheduled(fixedDelayString = "${app.domain.bloom-check-interval-ms:60000}",
+            initialDelayString = "${app.domain.bloom-check-interval-ms:60000}")
+    public void checkFalsePositiveRate() {
+        if (filter == null) {
+            return;
+        }
+
+        AppProperties.Domain domain = appProperties.getDomain();
+        if (System.currentTimeMillis() - builtAt >= domain.getBloomRebuildIntervalMs()) {
+            log.info("Domain bloom filter is older than {}ms, rebuilding", domain.getBloomRebuildIntervalMs());
+            rebuild();
+            return;
+        }
+
+        double observed = getFalsePositiveRatio();
+        if (probableHits.get() >= domain.getBloomMinSamples()
+                && observed > domain.getBloomMaxFalsePositiveRatio()) {
+            log.warn("Domain bloom filter false-positive ratio {} exceeds {}, rebuilding",
+                    String.format("%.4f", observed), domain.getBloomMaxFalsePositiveRatio());
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        publish(event.getUsername());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        publish(event.getUsername());
+    }
+
+    /**
+     * Add the label locally right away and tell the other nodes about it
+     */
+    private void publish(String label) {
+        String normalized = DomainAvailabilityIndex.normalize(label);
+        if (normalized == null) {
+            return;
+        }
+        put(normalized);
+        try {
+            redisTemplate.convertAndSend(REGISTERED_CHANNEL, normalized);
+        } catch (Exception e) {
+            // Other nodes pick the label up at their next rebuild
+            log.warn("Failed to publish registered label {}: {}", normalized, e.getMessage());
+        }
+    }
+
+    private void put(String label) {
+        String normalized = DomainAvailabilityIndex.normalize(label);
+        if (normalized == null) {
+            return;
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(normalized);
+        }
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(normalized);
+        }
+    }
+}
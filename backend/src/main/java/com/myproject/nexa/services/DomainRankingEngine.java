@@ -0,0 +1,243 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.utils.DomainLabelUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Premium ranking engine for .nexa labels. The candidate dictionary is scored once at
+ * startup into a compact table keyed by label ID, together with the top-K label IDs per
+ * label length. Ranking a known label is an array lookup and listing the best available
+ * names only walks the precomputed buckets.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DomainRankingEngine {
+
+    private static final String DICTIONARY_LOCATION = "domain/premium-labels.txt";
+
+    private final DomainAvailabilityIndex domainAvailabilityIndex;
+    private final AppProperties appProperties;
+
+    private volatile RankingTable table = RankingTable.build(List.of(), 1);
+
+    @PostConstruct
+    public void init() {
+        load(readDictionary());
+    }
+
+    /**
+     * Score the given dictionary and swap the new table in
+     */
+    public void load(Collection<String> dictionary) {
+        long start = System.currentTimeMillis();
+        RankingTable fresh = RankingTable.build(dictionary, appProperties.getDomain().getPremiumTopK());
+        table = fresh;
+        log.info("Domain ranking table built for {} labels in {}ms",
+                fresh.labels.length, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Premium ranking on a 1-100 scale; dictionary labels are served from the table
+     */
+    public int rank(String label) {
+        Integer id = table.ids.get(label);
+        return id != null ? table.scores[id] : score(label);
+    }
+
+    /**
+     * Best-ranked dictionary labels that are not registered yet, highest score first. The
+     * count is capped at the dictionary size and at app.domain.premium-max-results.
+     */
+    public List<String> topAvailable(int count) {
+        RankingTable current = table;
+        int limit = Math.min(count, Math.min(current.labels.length, appProperties.getDomain().getPremiumMaxResults()));
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<String> result = new ArrayList<>(limit);
+        BucketMerger merger = new BucketMerger(current);
+        while (result.size() < limit && merger.hasNext()) {
+            // Pull just enough candidates to fill the page, then resolve them in one lookup
+            List<String> candidates = new ArrayList<>();
+            while (candidates.size() < limit - result.size() && merger.hasNext()) {
+                candidates.add(current.labels[merger.next()]);
+            }
+            Set<String> registered = domainAvailabilityIndex.findRegistered(candidates);
+            for (String candidate : candidates) {
+                if (!registered.contains(candidate)) {
+                    result.add(candidate);
+                }
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return table.labels.length;
+    }
+
+    /**
+     * Score a label: shorter, vowel/consonant balanced names without repeated characters
+     * rank higher
+     */
+    public static int score(String label) {
+        int lengthScore = Math.max(0, 10 - label.length()); // Shorter is better (max 8 chars)
+        int vowelCount = DomainLabelUtil.countVowels(label);
+        int consonantCount = label.length() - vowelCount;
+
+        // Balanced vowel/consonant ratio gets higher score
+        double ratio = consonantCount > 0 ? (double) vowelCount / consonantCount : 0;
+        int balanceScore = (int) (20 * Math.max(0, 1 - Math.abs(ratio - 0.6))); // Optimal ratio ~0.6
+
+        // Avoid repetitive characters
+        int repetitionPenalty = 0;
+        for (int i = 1; i < label.length(); i++) {
+            if (label.charAt(i) == label.charAt(i - 1)) {
+                repetitionPenalty += 10;
+            }
+        }
+
+        return Math.max(1, Math.min(100, lengthScore * 3 + balanceScore * 2 - repetitionPenalty));
+    }
+
+    private List<String> readDictionary() {
+        List<String> dictionary = new ArrayList<>();
+        ClassPathResource resource = new ClassPathResource(DICTIONARY_LOCATION);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    dictionary.add(line);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read premium label dictionary {}: {}", DICTIONARY_LOCATION, e.getMessage(), e);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Immutable scoring table. Scores fit in a byte since they are capped at 100.
+     */
+    private static final class RankingTable {
+        private final String[] labels;
+        private final byte[] scores;
+        private final Map<String, Integer> ids;
+        // Label IDs per length, best first, at most K per bucket
+        private final int[][] topByLength;
+
+        private RankingTable(String[] labels, byte[] scores, Map<String, Integer> ids, int[][] topByLength) {
+            this.labels = labels;
+            this.scores = scores;
+            this.ids = ids;
+            this.topByLength = topByLength;
+        }
+
+        static RankingTable build(Collection<String> dictionary, int topK) {
+            Set<String> distinct = new LinkedHashSet<>();
+            for (String entry : dictionary) {
+                String label = DomainLabelUtil.normalizeLabel(entry);
+                if (label != null) {
+                    distinct.add(label);
+                }
+            }
+
+            String[] labels = distinct.toArray(new String[0]);
+            byte[] scores = new byte[labels.length];
+            Map<String, Integer> ids = new HashMap<>(labels.length * 2);
+            for (int id = 0; id < labels.length; id++) {
+                scores[id] = (byte) score(labels[id]);
+                ids.put(labels[id], id);
+            }
+
+            // Min-heap per length bucket: weakest on top, ties broken towards later dictionary entries
+            Comparator<Integer> weakestFirst = (a, b) -> scores[a] != scores[b]
+                    ? Integer.compare(scores[a], scores[b])
+                    : Integer.compare(b, a);
+            List<PriorityQueue<Integer>> heaps = new ArrayList<>(DomainLabelUtil.MAX_LABEL_LENGTH + 1);
+            for (int length = 0; length <= DomainLabelUtil.MAX_LABEL_LENGTH; length++) {
+                heaps.add(new PriorityQueue<>(weakestFirst));
+            }
+            for (int id = 0; id < labels.length; id++) {
+                PriorityQueue<Integer> heap = heaps.get(labels[id].length());
+                heap.offer(id);
+                if (heap.size() > topK) {
+                    heap.poll();
+                }
+            }
+
+            int[][] topByLength = new int[heaps.size()][];
+            for (int length = 0; length < heaps.size(); length++) {
+                PriorityQueue<Integer> heap = heaps.get(length);
+                int[] bucket = new int[heap.size()];
+                for (int i = bucket.length - 1; i >= 0; i--) {
+                    bucket[i] = heap.poll();
+                }
+                topByLength[length] = bucket;
+            }
+            return new RankingTable(labels, scores, ids, topByLength);
+        }
+    }
+
+    /**
+     * Lazily merges the per-length buckets into a single best-first sequence of label IDs
+     */
+    private static final class BucketMerger {
+        private final RankingTable table;
+        private final int[] positions;
+        private final PriorityQueue<Integer> heads;
+
+        BucketMerger(RankingTable table) {
+            this.table = table;
+            this.positions = new int[table.topByLength.length];
+            this.heads = new PriorityQueue<>(Comparator
+                    .comparingInt((Integer bucket) -> -table.scores[head(bucket)])
+                    .thenComparingInt(this::head));
+            for (int bucket = 0; bucket < table.topByLength.length; bucket++) {
+                if (table.topByLength[bucket].length > 0) {
+                    heads.offer(bucket);
+                }
+            }
+        }
+
+        boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        int next() {
+            int bucket = heads.poll();
+            int id = head(bucket);
+            positions[bucket]++;
+            if (positions[bucket] < table.topByLength[bucket].length) {
+                heads.offer(bucket);
+            }
+            return id;
+        }
+
+        private int head(int bucket) {
+            return table.topByLength[bucket][positions[bucket]];
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.utils.DomainLabelUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates alternative .nexa names for a label. Candidates are produced in stages
+ * (affixes, hyphenation, synonyms, edit-distance variants), filtered in one bulk lookup
+ * against the availability index and ordered by premium ranking, so only names that
+ * are actually free are returned. Generation stops early once the per-request time
+ * budget is spent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DomainSuggestionService {
+
+    private static final List<String> PREFIXES = List.of("get", "try", "my", "go", "use", "the", "join");
+    private static final List<String> SUFFIXES = List.of("app", "io", "hq", "hub", "labs", "ly", "now", "pro");
+    private static final char[] VOWELS = {'a', 'e', 'i', 'o', 'u'};
+
+    // A list, not a map, so a truncated synonym stage yields the same names on every node
+    private static final List<Map.Entry<String, List<String>>> SYNONYMS = List.of(
+            Map.entry("cloud", List.of("sky", "nimbus", "stratus")),
+            Map.entry("tech", List.of("tek", "labs", "digital")),
+            Map.entry("data", List.of("info", "stats", "insight")),
+            Map.entry("shop", List.of("store", "market", "cart")),
+            Map.entry("store", List.of("shop", "market", "cart")),
+            Map.entry("pay", List.of("cash", "coin", "wallet")),
+            Map.entry("bank", List.of("vault", "fund", "ledger")),
+            Map.entry("fast", List.of("swift", "rapid", "quick")),
+            Map.entry("quick", List.of("swift", "rapid", "fast")),
+            Map.entry("smart", List.of("wise", "bright", "clever")),
+            Map.entry("home", List.of("house", "nest", "base")),
+            Map.entry("learn", List.of("study", "skill", "academy")),
+            Map.entry("game", List.of("play", "arena", "quest")),
+            Map.entry("news", List.of("feed", "daily", "post")),
+            Map.entry("health", List.of("care", "fit", "vital")),
+            Map.entry("travel", List.of("trip", "tour", "route")),
+            Map.entry("finance", List.of("fin", "capital", "fund")),
+            Map.entry("code", List.of("dev", "stack", "build")),
+            Map.entry("ai", List.of("ml", "mind", "neural")),
+            Map.entry("green", List.of("eco", "leaf", "terra")));
+
+    private final DomainAvailabilityIndex domainAvailabilityIndex;
+    private final DomainRankingEngine domainRankingEngine;
+    private final AppProperties appProperties;
+
+    /**
+     * Suggest up to count available alternatives for a normalized label, best-ranked
+     * first, as full .nexa domain names
+     */
+    public List<String> suggest(String label, int count) {
+        if (label == null || count <= 0) {
+            return List.of();
+        }
+
+        AppProperties.Domain domain = appProperties.getDomain();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(domain.getSuggestionTimeBudgetMs());
+        CandidateSet candidates = new CandidateSet(label, domain.getSuggestionMaxCandidates(), deadline);
+
+        // Cheapest, most brandable variants first so a tight budget still yields good names
+        addAffixes(label, candidates);
+        addHyphenations(label, candidates);
+        addSynonyms(label, candidates);
+        addEditDistanceVariants(label, candidates);
+
+        if (candidates.isExhausted()) {
+            log.debug("Suggestion generation for {} stopped early with {} candidates", label, candidates.size());
+        }
+
+        Set<String> registered = domainAvailabilityIndex.findRegistered(candidates.values);
+        List<String> available = new ArrayList<>(candidates.size());
+        for (String candidate : candidates.values) {
+            if (!registered.contains(candidate)) {
+                available.add(candidate);
+            }
+        }
+
+        // Stable sort keeps generation order among equally ranked names
+        available.sort(Comparator.comparingInt(domainRankingEngine::rank).reversed());
+
+        List<String> result = new ArrayList<>(Math.min(count, available.size()));
+        for (int i = 0; i < available.size() && result.size() < count; i++) {
+            result.add(available.get(i) + DomainLabelUtil.DOMAIN_SUFFIX);
+        }
+        return result;
+    }
+
+    private void addAffixes(String label, CandidateSet candidates) {
+        for (int i = 0; i < Math.max(PREFIXES.size(), SUFFIXES.size()); i++) {
+            if (i < SUFFIXES.size() && !candidates.add(label + SUFFIXES.get(i))) {
+                return;
+            }
+            if (i < PREFIXES.size() && !candidates.add(PREFIXES.get(i) + label)) {
+                return;
+            }
+        }
+    }
+
+    private void addHyphenations(String label, CandidateSet candidates) {
+        if (!candidates.add(PREFIXES.get(0) + "-" + label) || !candidates.add(label + "-" + SUFFIXES.get(0))) {
+            return;
+        }
+        // Split longer labels into two readable halves
+        for (int split = 2; split <= label.length() - 2; split++) {
+            if (label.charAt(split - 1) != '-' && label.charAt(split) != '-'
+                    && !candidates.add(label.substring(0, split) + "-" + label.substring(split))) {
+                return;
+            }
+        }
+    }
+
+    private void addSynonyms(String label, CandidateSet candidates) {
+        for (Map.Entry<String, List<String>> entry : SYNONYMS) {
+            int position = label.indexOf(entry.getKey());
+            if (position < 0) {
+                continue;
+            }
+            String head = label.substring(0, position);
+            String tail = label.substring(position + entry.getKey().length());
+            for (String synonym : entry.getValue()) {
+                if (!candidates.add(head + synonym + tail)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Edit-distance-1 variants that stay readable: dropped letters, swapped neighbours and
+     * vowel substitutions
+     */
+    private void addEditDistanceVariants(String label, CandidateSet candidates) {
+        char[] chars = label.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (!candidates.add(label.substring(0, i) + label.substring(i + 1))) {
+                return;
+            }
+        }
+        for (int i = 0; i < chars.length - 1; i++) {
+            swap(chars, i, i + 1);
+            boolean added = candidates.add(new String(chars));
+            swap(chars, i, i + 1);
+            if (!added) {
+                return;
+            }
+        }
+        for (int i = 0; i < chars.length; i++) {
+            char original = chars[i];
+            if (!isVowel(original)) {
+                continue;
+            }
+            for (char vowel : VOWELS) {
+                if (vowel == original) {
+                    continue;
+                }
+                chars[i] = vowel;
+                boolean added = candidates.add(new String(chars));
+                chars[i] = original;
+                if (!added) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean isVowel(char c) {
+        for (char vowel : VOWELS) {
+            if (vowel == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void swap(char[] chars, int i, int j) {
+        char tmp = chars[i];
+        chars[i] = chars[j];
+        chars[j] = tmp;
+    }
+
+    /**
+     * Deduplicated, validated candidates bounded by size and deadline
+     */
+    private static final class CandidateSet {
+        private final String original;
+        private final int maxCandidates;
+        private final long deadline;
+        private final Set<String> values = new LinkedHashSet<>();
+        private boolean exhausted = false;
+
+        CandidateSet(String original, int maxCandidates, long deadline) {
+            this.original = original;
+            this.maxCandidates = maxCandidates;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return false once no more candidates should be generated
+         */
+        boolean add(String candidate) {
+            if (exhausted) {
+                return false;
+            }
+            if (values.size() >= maxCandidates || System.nanoTime() - deadline >= 0) {
+                exhausted = true;
+                return false;
+            }
+            String label = DomainLabelUtil.normalizeLabel(candidate);
+            if (label != null && !label.equals(original)) {
+                values.add(label);
+            }
+            return true;
+        }
+
+        boolean isExhausted() {
+            return exhausted;
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.myproject.nexa.dto.response.ReferralProgramResponse;
 import com.myproject.nexa.dto.response.PremiumMarketplaceResponse;
 import com.myproject.nexa.dto.response.MarketingInsightsResponse;
 import com.myproject.nexa.entities.User;
+import com.myproject.nexa.exceptions.AppException;
+import com.myproject.nexa.exceptions.ErrorCode;
 import com.myproject.nexa.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +30,10 @@ public class EcosystemService {
 
     private final UserRepository userRepository;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final DomainRankingEngine domainRankingEngine;
+
+    // Largest marketplace page served
+    private static final int MAX_MARKETPLACE_PAGE_SIZE = 100;
 
     /**
      * Get comprehensive ecosystem analytics
@@ -71,12 +77,16 @@ public class EcosystemService {
      */
     public PremiumMarketplaceResponse getPremiumMarketplaceListings(int page, int size) {
         log.info("Getting premium marketplace listings - page: {}, size: {}", page, size);
-        
+        if (page < 0 || size <= 0) {
+            throw new AppException(ErrorCode.VALIDATION_001, "Page must not be negative and size must be positive");
+        }
+        int pageSize = Math.min(size, MAX_MARKETPLACE_PAGE_SIZE);
+
         return PremiumMarketplaceResponse.builder()
                 .page(page)
-                .size(size)
+                .size(pageSize)
                 .totalListings(getTotalMarketplaceListings())
-                .availableDomains(getAvailablePremiumDomains(page, size))
+                .availableDomains(getAvailablePremiumDomains(page, pageSize))
                 .featuredListings(getFeaturedListings())
                 .marketTrends(getMarketTrends())
                 .pricingAnalytics(getPricingAnalytics())
@@ -233,15 +243,25 @@ public class EcosystemService {
     }
 
     private List<Map<String, Object>> getAvailablePremiumDomains(int page, int size) {
-        // Simulate premium domains
-        return java.util.stream.IntStream.range(0, size)
-                .mapToObj(i -> Map.of(
-                    "domain", "premium" + (page * size + i) + ".nexa",
-                    "price", 100.0 + (Math.random() * 900),
-                    "category", chooseCategory(),
-                    "popularity", (int) (Math.random() * 100),
-                    "trend", chooseTrend()
-                ))
+        // Pages are cut from the best available names in the precomputed ranking table
+        long offset = (long) page * size;
+        if (offset >= domainRankingEngine.size()) {
+            return List.of();
+        }
+        int limit = (int) Math.min(offset + size, domainRankingEngine.size());
+        List<String> ranked = domainRankingEngine.topAvailable(limit);
+        return ranked.stream()
+                .skip(offset)
+                .map(domain -> {
+                    int ranking = domainRankingEngine.rank(domain);
+                    return Map.<String, Object>of(
+                        "domain", domain + ".nexa",
+                        "price", 100.0 + ranking * 9.0,
+                        "category", chooseCategory(),
+                        "popularity", ranking,
+                        "trend", chooseTrend()
+                    );
+                })
                 .collect(Collectors.toList());
     }
 
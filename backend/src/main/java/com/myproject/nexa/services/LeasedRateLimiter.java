@@ -0,0 +1,246 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.security.RateLimitDecision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Local token-bucket tier for rate limiting. Each node leases a slice of a key's window
+ * quota from the shared Redis counter and hands it out from in-memory buckets, so most
+ * requests are decided without network I/O. Tokens are spread over striped atomics to
+ * keep hot keys from contending on a single counter. The cluster-wide limit holds since
+ * every token is counted in Redis before it is granted; unused tokens simply expire with
+ * the window.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeasedRateLimiter {
+
+    // Grants up to ARGV[3] tokens from the fixed window counter. Shares the key layout of
+    // the strict limiter so switching modes keeps the current window's count.
+    // Returns {granted, used, ttl_ms}
+    private static final String LEASE_SCRIPT =
+            "local limit = tonumber(ARGV[1])\n" +
+            "local window = tonumber(ARGV[2])\n" +
+            "local want = tonumber(ARGV[3])\n" +
+            "local used = tonumber(redis.call('GET', KEYS[1]) or '0')\n" +
+            "local grant = math.min(want, limit - used)\n" +
+            "if grant > 0 then\n" +
+            "  used = redis.call('INCRBY', KEYS[1], grant)\n" +
+            "else\n" +
+            "  grant = 0\n" +
+            "end\n" +
+            "local ttl = redis.call('PTTL', KEYS[1])\n" +
+            "if ttl < 0 then\n" +
+            "  redis.call('PEXPIRE', KEYS[1], window)\n" +
+            "  ttl = window\n" +
+            "end\n" +
+            "return {grant, used, ttl}";
+
+    private static final DefaultRedisScript<List> LEASE = new DefaultRedisScript<>(LEASE_SCRIPT, List.class);
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())));
+
+    private final RedisTemplate<String, String> customStringRedisTemplate;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private Counter localDecisionCounter;
+    private Counter redisDecisionCounter;
+
+    @PostConstruct
+    public void init() {
+        localDecisionCounter = Counter.builder("rate_limit.decisions")
+                .description("Rate limit decisions by tier")
+                .tag("tier", "local")
+                .register(meterRegistry);
+
+        redisDecisionCounter = Counter.builder("rate_limit.decisions")
+                .description("Rate limit decisions by tier")
+                .tag("tier", "redis")
+                .register(meterRegistry);
+
+        Gauge.builder("rate_limit.local_buckets", buckets, Map::size)
+                .description("Keys with a local token bucket on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one token for the key, leasing a new batch from Redis when the local bucket
+     * is empty
+     */
+    public RateLimitDecision tryAcquire(String key, int limit, long windowSeconds) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        long now = System.currentTimeMillis();
+
+        if (now < bucket.windowEndsAt) {
+            if (bucket.take()) {
+                localDecisionCounter.increment();
+                return allowed(bucket, limit);
+            }
+            if (bucket.exhausted) {
+                localDecisionCounter.increment();
+                return denied(bucket, limit, now);
+            }
+        }
+
+        synchronized (bucket) {
+            now = System.currentTimeMillis();
+            // Another thread may have refilled the bucket while we waited
+            if (now < bucket.windowEndsAt) {
+                if (bucket.take()) {
+                    localDecisionCounter.increment();
+                    return allowed(bucket, limit);
+                }
+                if (bucket.exhausted) {
+                    localDecisionCounter.increment();
+                    return denied(bucket, limit, now);
+                }
+            } else {
+                // Tokens left over from the previous window were counted there; drop them
+                bucket.clear();
+            }
+
+            redisDecisionCounter.increment();
+            List<?> lease = lease(key, limit, windowSeconds * 1000);
+            if (lease == null) {
+                return RateLimitDecision.failOpen(limit, windowSeconds);
+            }
+
+            long granted = toLong(lease.get(0));
+            bucket.remoteRemaining = Math.max(0, limit - toLong(lease.get(1)));
+            bucket.windowEndsAt = now + toLong(lease.get(2));
+            bucket.exhausted = granted == 0;
+            if (granted == 0) {
+                return denied(bucket, limit, now);
+            }
+            // Keep one token for this request and share the rest across the stripes
+            bucket.deposit(granted - 1);
+            return allowed(bucket, limit);
+        }
+    }
+
+    /**
+     * Forget the local bucket for a key, e.g. after an administrative reset
+     */
+    public void evict(String key) {
+        buckets.remove(key);
+    }
+
+    /**
+     * Drop buckets whose window has ended so idle keys do not accumulate
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredBuckets() {
+        long now = System.currentTimeMillis();
+        buckets.entrySet().removeIf(entry -> now >= entry.getValue().windowEndsAt);
+    }
+
+    private List<?> lease(String key, int limit, long windowMillis) {
+        double fraction = appProperties.getRateLimit().getLeaseFraction();
+        long batch = Math.max(1, (long) Math.ceil(limit * fraction));
+        try {
+            List<?> result = customStringRedisTemplate.execute(
+                    LEASE,
+                    Collections.singletonList(key),
+                    String.valueOf(limit),
+                    String.valueOf(windowMillis),
+                    String.valueOf(batch));
+            if (result != null && result.size() >= 3) {
+                return result;
+            }
+            log.warn("Rate limit lease returned no result for key '{}', allowing request", key);
+        } catch (Exception e) {
+            log.warn("Rate limit lease failed for key '{}', allowing request: {}", key, e.getMessage());
+        }
+        return null;
+    }
+
+    private RateLimitDecision allowed(Bucket bucket, int limit) {
+        return RateLimitDecision.builder()
+                .allowed(true)
+                .limit(limit)
+                .remaining(Math.min(limit, bucket.available() + bucket.remoteRemaining))
+                .resetAt((bucket.windowEndsAt + 999) / 1000)
+                .retryAfterSeconds(0)
+                .build();
+    }
+
+    private RateLimitDecision denied(Bucket bucket, int limit, long now) {
+        return RateLimitDecision.builder()
+                .allowed(false)
+                .limit(limit)
+                .remaining(0)
+                .resetAt((bucket.windowEndsAt + 999) / 1000)
+                .retryAfterSeconds(Math.max(1, (bucket.windowEndsAt - now + 999) / 1000))
+                .build();
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * Leased tokens for one key within the current window
+     */
+    private static final class Bucket {
+        private final AtomicLongArray tokens = new AtomicLongArray(STRIPES);
+        private volatile long windowEndsAt = 0;
+        private volatile long remoteRemaining = 0;
+        private volatile boolean exhausted = false;
+
+        boolean take() {
+            int start = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+            for (int i = 0; i < STRIPES; i++) {
+                int stripe = (start + i) & (STRIPES - 1);
+                long current;
+                while ((current = tokens.get(stripe)) > 0) {
+                    if (tokens.compareAndSet(stripe, current, current - 1)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void deposit(long count) {
+            long share = count / STRIPES;
+            long extra = count % STRIPES;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                tokens.addAndGet(stripe, share + (stripe < extra ? 1 : 0));
+            }
+        }
+
+        long available() {
+            long total = 0;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                total += tokens.get(stripe);
+            }
+            return total;
+        }
+
+        void clear() {
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                tokens.set(stripe, 0);
+            }
+            exhausted = false;
+        }
+    }
+}
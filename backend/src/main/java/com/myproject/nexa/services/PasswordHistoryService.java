@@ -1,16 +1,21 @@
 package com.myproject.nexa.services;
 
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.entities.PasswordHistoryEntry;
 import com.myproject.nexa.entities.User;
+import com.myproject.nexa.repositories.PasswordHistoryRepository;
 import com.myproject.nexa.repositories.UserRepository;
+import com.myproject.nexa.security.BoundedPasswordEncoder;
 import com.myproject.nexa.utils.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service for handling password history to prevent reuse
@@ -21,62 +26,68 @@ import java.util.stream.Collectors;
 public class PasswordHistoryService {
 
     private final UserRepository userRepository;
+    private final PasswordHistoryRepository passwordHistoryRepository;
     private final PasswordEncoder passwordEncoder;
     private final SecurityUtil securityUtil;
+    private final AppProperties appProperties;
 
     /**
-     * Check if the new password has been used recently
+     * Check if the new password has been used recently. The recent hashes are compared in
+     * parallel on the hashing pool and the check stops at the first match.
      * @param userId The user ID
      * @param newPassword The new password to check
      * @return true if password is unique (not in recent history), false otherwise
      */
     public boolean isPasswordUnique(Long userId, String newPassword) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null) {
+        if (!userRepository.existsById(userId)) {
             return false;
         }
 
-        // Get the password history for the user
-        List<String> passwordHistory = user.getPasswordHistory();
-        if (passwordHistory == null) {
-            passwordHistory = new ArrayList<>();
+        int depth = appProperties.getSecurity().getMaxPasswordHistory();
+        if (depth <= 0) {
+            return true;
         }
+        List<String> passwordHistory = passwordHistoryRepository.findRecentHashes(userId, PageRequest.of(0, depth));
 
-        // Check if the new password matches any in the history
-        for (String encodedPassword : passwordHistory) {
-            if (passwordEncoder.matches(newPassword, encodedPassword)) {
-                log.warn("Password has been used recently by user: {}", userId);
-                return false;
-            }
+        if (matchesAny(newPassword, passwordHistory)) {
+            log.warn("Password has been used recently by user: {}", userId);
+            return false;
         }
-
         return true;
     }
 
     /**
-     * Add a new password to the user's history
+     * Add a new password to the user's history, dropping entries beyond the configured depth
      * @param user The user
      * @param newPassword The new password to add
      */
+    @Transactional
     public void addPasswordToHistory(User user, String newPassword) {
-        if (user.getPasswordHistory() == null) {
-            user.setPasswordHistory(new ArrayList<>());
+        int depth = appProperties.getSecurity().getMaxPasswordHistory();
+        if (depth <= 0) {
+            return;
         }
 
         // Encode the new password before storing in history
         String encodedPassword = passwordEncoder.encode(newPassword);
-        
-        // Limit history to last 5 passwords (configurable)
-        if (user.getPasswordHistory().size() >= 5) {
-            // Remove the oldest password if we've reached the limit
-            user.getPasswordHistory().remove(0);
+        passwordHistoryRepository.save(new PasswordHistoryEntry(user.getId(), encodedPassword));
+
+        List<Long> ids = passwordHistoryRepository.findIdsNewestFirst(user.getId());
+        if (ids.size() > depth) {
+            passwordHistoryRepository.deleteByIds(ids.subList(depth, ids.size()));
         }
+    }
 
-        // Add the new password to history
-        user.getPasswordHistory().add(encodedPassword);
-        
-        // Save the user with updated password history
-        userRepository.save(user);
+    private boolean matchesAny(String rawPassword, List<String> encodedPasswords) {
+        if (passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder) {
+            return boundedPasswordEncoder.matchesAny(rawPassword, encodedPasswords);
+        }
+        for (String encodedPassword : encodedPasswords) {
+            if (passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -56,7 +56,7 @@ public class PerformanceOptimizationService {
     /**
      * Optimize user data by applying performance enhancements
      */
-    @CacheEvict(value = {"performanceReport", "users"}, allEntries = true)
+    @CacheEvict(value = {"performanceReport", "users", "usersByUsername"}, allEntries = true)
     public void optimizeUserData() {
         log.info("Starting user data optimization");
         
@@ -67,9 +67,8 @@ public class PerformanceOptimizationService {
     }
 
     /**
-     * Get optimized paginated users with caching
+     * Get optimized paginated users
      */
-    @Cacheable(value = "usersPage", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
     public CompletableFuture<PerformanceOptimizationResponse.PaginatedUsersResponse> getOptimizedUsers(
             Pageable pageable) {
         
@@ -1,16 +1,20 @@
 package com.myproject.nexa.services;
 
+import com.myproject.nexa.security.RateLimitDecision;
+
 import java.util.concurrent.TimeUnit;
 
 public interface RateLimitService {
     boolean isAllowed(String key, int limit, long window, TimeUnit unit);
     boolean isAllowed(String key, String identifier, int limit, long window, TimeUnit unit);
+    RateLimitDecision check(String key, String identifier, int limit, long window, TimeUnit unit);
     long getRemainingRequests(String key, long window, TimeUnit unit);
     long getResetTime(String key, long window, TimeUnit unit);
     void resetLimit(String key);
 
     // Additional methods for RateLimitFilter
     boolean isIpAllowed(String ip);
+    RateLimitDecision checkIp(String ip);
     long getRemainingRequests(String key);
     long getResetTime(String key);
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.entities.RefreshToken;
+import com.myproject.nexa.repositories.RefreshTokenRepository;
+import com.myproject.nexa.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Write-behind audit trail for refresh tokens. The token store records what happened in
+ * memory and returns; a scheduled flush writes the buffered records to refresh_tokens in
+ * one transaction per batch, so no login or refresh waits on Postgres. When a batch fails
+ * its records are retried one transaction each, so one bad record only loses itself. The
+ * buffer is bounded and records are dropped (and counted) when it is full, since the
+ * audit copy is never read on the authentication path.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenAuditWriter {
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<AuditRecord> queue;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(appProperties.getJwt().getRefreshAuditQueueCapacity());
+
+        droppedCounter = Counter.builder("refresh_token.audit.dropped")
+                .description("Refresh token audit records dropped because the buffer was full")
+                .register(meterRegistry);
+
+        writtenCounter = Counter.builder("refresh_token.audit.written")
+                .description("Refresh token audit records written to the database")
+                .register(meterRegistry);
+
+        Gauge.builder("refresh_token.audit.pending", this, writer -> writer.queue.size())
+                .description("Refresh token audit records waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public void issued(Long userId, String familyId, String tokenHash, long expiresAtMillis) {
+        enqueue(new AuditRecord(Type.ISSUED, userId, familyId, tokenHash, expiresAtMillis));
+    }
+
+    public void used(String tokenHash) {
+        enqueue(new AuditRecord(Type.USED, null, null, tokenHash, 0));
+    }
+
+    public void familyRevoked(String familyId) {
+        enqueue(new AuditRecord(Type.FAMILY_REVOKED, null, familyId, null, 0));
+    }
+
+    public void userRevoked(Long userId) {
+        enqueue(new AuditRecord(Type.USER_REVOKED, userId, null, null, 0));
+    }
+
+    /**
+     * Write everything buffered so far
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-audit-flush-interval-ms:1000}")
+    public void flush() {
+        List<AuditRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (queue.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+                writtenCounter.increment(batch.size());
+            } catch (Exception e) {
+                log.warn("Failed to write {} refresh token audit records, writing them one by one: {}",
+                        batch.size(), e.getMessage());
+                writeIndividually(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeIndividually(List<AuditRecord> batch) {
+        for (AuditRecord record : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(List.of(record)));
+                writtenCounter.increment();
+            } catch (Exception e) {
+                droppedCounter.increment();
+                log.error("Failed to write {} refresh token audit record: {}", record.type, e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void enqueue(AuditRecord record) {
+        if (!queue.offer(record)) {
+            droppedCounter.increment();
+            log.warn("Refresh token audit buffer is full, dropping {} record", record.type);
+        }
+    }
+
+    /**
+     * Inserts go first so updates in the same batch find their rows
+     */
+    private void write(List<AuditRecord> batch) {
+        List<RefreshToken> inserts = new ArrayList<>();
+        Set<String> usedTokens = new LinkedHashSet<>();
+        Set<String> revokedFamilies = new LinkedHashSet<>();
+        Set<Long> revokedUsers = new LinkedHashSet<>();
+
+        for (AuditRecord record : batch) {
+            switch (record.type) {
+                case ISSUED -> inserts.add(toEntity(record));
+                case USED -> usedTokens.add(record.tokenHash);
+                case FAMILY_REVOKED -> revokedFamilies.add(record.familyId);
+                case USER_REVOKED -> revokedUsers.add(record.userId);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            refreshTokenRepository.saveAll(inserts);
+        }
+        if (!usedTokens.isEmpty()) {
+            refreshTokenRepository.markUsed(usedTokens);
+        }
+        if (!revokedFamilies.isEmpty()) {
+            refreshTokenRepository.revokeFamilies(revokedFamilies);
+        }
+        if (!revokedUsers.isEmpty()) {
+            refreshTokenRepository.revokeUsers(revokedUsers);
+        }
+    }
+
+    private RefreshToken toEntity(AuditRecord record) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(userRepository.getReferenceById(record.userId));
+        refreshToken.setFamilyId(record.familyId);
+        refreshToken.setToken(record.tokenHash);
+        refreshToken.setExpiryDate(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.expiresAtMillis),
+                ZoneId.systemDefault()));
+        return refreshToken;
+    }
+
+    private enum Type {
+        ISSUED,
+        USED,
+        FAMILY_REVOKED,
+        USER_REVOKED
+    }
+
+    private static final class AuditRecord {
+        private final Type type;
+        private final Long userId;
+        private final String familyId;
+        private final String tokenHash;
+        private final long expiresAtMillis;
+
+        AuditRecord(Type type, Long userId, String familyId, String tokenHash, long expiresAtMillis) {
+            this.type = type;
+            this.userId = userId;
+            this.familyId = familyId;
+            this.tokenHash = tokenHash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
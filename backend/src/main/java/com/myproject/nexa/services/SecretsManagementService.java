@@ -11,7 +11,11 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
 import java.util.Base64;
 
 /**
@@ -98,6 +102,27 @@ public class SecretsManagementService {
         return Base64.getEncoder().encodeToString(key.getEncoded());
     }
 
+    /**
+     * Generate a key pair for signing access tokens: RSA 2048 for RS256, P-256 for ES256
+     */
+    public KeyPair generateSigningKeyPair(AppProperties.Jwt.Algorithm algorithm) throws GeneralSecurityException {
+        KeyPairGenerator generator;
+        switch (algorithm) {
+            case RS256 -> {
+                generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+            }
+            case ES256 -> {
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            default -> throw new IllegalArgumentException("No key pair for JWT algorithm " + algorithm);
+        }
+        KeyPair keyPair = generator.generateKeyPair();
+        log.info("Generated new {} signing key pair", algorithm);
+        return keyPair;
+    }
+
     /**
      * Get master key bytes from configuration
      */
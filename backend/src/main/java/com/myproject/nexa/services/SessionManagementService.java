@@ -1,18 +1,38 @@
 package com.myproject.nexa.services;
 
+import com.myproject.nexa.config.properties.AppProperties;
 import com.myproject.nexa.entities.User;
 import com.myproject.nexa.repositories.UserRepository;
 import com.myproject.nexa.security.JwtTokenProvider;
+import com.myproject.nexa.security.TokenVersionService;
+import com.myproject.nexa.security.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 /**
- * Service for handling session management including multiple device login and forced logout
+ * Service for handling session management including multiple device login and forced logout.
+ * <p>
+ * A user's sessions live in one hash, user_device_sessions:{userId}, mapping each device ID to
+ * "{registeredAt}:{expiresAt}:{token}". Every multi-key operation runs as a single Lua
+ * script, so registering, revoking one device or logging out everywhere is one round
+ * trip regardless of how many devices the user has. Registering enforces
+ * app.security.max-sessions-per-user atomically by evicting the oldest sessions.
+ * <p>
+ * A session that is displaced, invalidated or logged out has its token marked as
+ * revoked_token:{token} until the token expires, and the token is evicted from every
+ * node's verified token cache. JwtTokenProvider.verify rejects marked tokens, so revoking
+ * a session takes effect on the next request rather than when the token expires.
+ * <p>
+ * The scripts write and delete keys they derive from the hash contents, so they expect a
+ * single (non-cluster) Redis, as configured.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,40 +42,138 @@ public class SessionManagementService {
     private final RedisTemplate<String, String> redisTemplate;
     private final JwtTokenProvider tokenProvider;
     private final UserRepository userRepository;
+    private final TokenVersionService tokenVersionService;
+    private final TokenService tokenService;
+    private final AppProperties appProperties;
 
-    private static final String USER_SESSIONS_PREFIX = "user_sessions:";
+    private static final String USER_SESSIONS_PREFIX = "user_device_sessions:";
     private static final String ACTIVE_TOKEN_PREFIX = "active_token:";
 
+    // KEYS: sessions hash. ARGV: deviceId, token, expiresAt, now, max sessions, active token prefix,
+    // revoked token prefix. Drops expired sessions, replaces the device's previous session,
+    // evicts the oldest sessions beyond the cap, marks their tokens revoked until they expire
+    // and returns the tokens of every session it displaced
+    private static final String REGISTER_SCRIPT =
+            "local now = tonumber(ARGV[4])\n" +
+            "local max = tonumber(ARGV[5])\n" +
+            "local latestExpiry = tonumber(ARGV[3])\n" +
+            "local displaced = {}\n" +
+            "local others = {}\n" +
+            "local entries = redis.call('HGETALL', KEYS[1])\n" +
+            "for i = 1, #entries, 2 do\n" +
+            "  local device = entries[i]\n" +
+            "  local registeredAt, expiresAt, token = string.match(entries[i + 1], '^(%d+):(%d+):(.*)$')\n" +
+            "  if not registeredAt or tonumber(expiresAt) <= now then\n" +
+            "    redis.call('HDEL', KEYS[1], device)\n" +
+            "  elseif device == ARGV[1] then\n" +
+            "    table.insert(displaced, {token, tonumber(expiresAt)})\n" +
+            "  else\n" +
+            "    table.insert(others, {device, tonumber(registeredAt), tonumber(expiresAt), token})\n" +
+            "  end\n" +
+            "end\n" +
+            "table.sort(others, function(a, b) return a[2] < b[2] end)\n" +
+            "local excess = 0\n" +
+            "if max > 0 then\n" +
+            "  excess = #others - max + 1\n" +
+            "end\n" +
+            "for i, session in ipairs(others) do\n" +
+            "  if i <= excess then\n" +
+            "    redis.call('HDEL', KEYS[1], session[1])\n" +
+            "    table.insert(displaced, {session[4], session[3]})\n" +
+            "  elseif session[3] > latestExpiry then\n" +
+            "    latestExpiry = session[3]\n" +
+            "  end\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[4] .. ':' .. ARGV[3] .. ':' .. ARGV[2])\n" +
+            "redis.call('PEXPIREAT', KEYS[1], latestExpiry)\n" +
+            "local tokens = {}\n" +
+            "for _, session in ipairs(displaced) do\n" +
+            "  redis.call('DEL', ARGV[6] .. session[1])\n" +
+            "  redis.call('SET', ARGV[7] .. session[1], '1', 'PX', session[2] - now)\n" +
+            "  table.insert(tokens, session[1])\n" +
+            "end\n" +
+            "return tokens";
+
+    // KEYS: sessions hash. ARGV: active token prefix, device to keep ('' for none), revoked
+    // token prefix, now. Removes every other session, marks unexpired tokens revoked and
+    // returns their tokens
+    private static final String REVOKE_SCRIPT =
+            "local now = tonumber(ARGV[4])\n" +
+            "local tokens = {}\n" +
+            "local entries = redis.call('HGETALL', KEYS[1])\n" +
+            "for i = 1, #entries, 2 do\n" +
+            "  if entries[i] ~= ARGV[2] then\n" +
+            "    redis.call('HDEL', KEYS[1], entries[i])\n" +
+            "    local expiresAt, token = string.match(entries[i + 1], '^%d+:(%d+):(.*)$')\n" +
+            "    if token then\n" +
+            "      redis.call('DEL', ARGV[1] .. token)\n" +
+            "      if tonumber(expiresAt) > now then\n" +
+            "        redis.call('SET', ARGV[3] .. token, '1', 'PX', tonumber(expiresAt) - now)\n" +
+            "      end\n" +
+            "      table.insert(tokens, token)\n" +
+            "    end\n" +
+            "  end\n" +
+            "end\n" +
+            "return tokens";
+
+    // KEYS: sessions hash. ARGV: deviceId, active token prefix, revoked token prefix, now.
+    // Marks the session's token revoked until it expires and returns it
+    private static final String INVALIDATE_SCRIPT =
+            "local value = redis.call('HGET', KEYS[1], ARGV[1])\n" +
+            "if not value then\n" +
+            "  return false\n" +
+            "end\n" +
+            "redis.call('HDEL', KEYS[1], ARGV[1])\n" +
+            "local expiresAt, token = string.match(value, '^%d+:(%d+):(.*)$')\n" +
+            "if not token then\n" +
+            "  return false\n" +
+            "end\n" +
+            "redis.call('DEL', ARGV[2] .. token)\n" +
+            "local ttl = tonumber(expiresAt) - tonumber(ARGV[4])\n" +
+            "if ttl > 0 then\n" +
+            "  redis.call('SET', ARGV[3] .. token, '1', 'PX', ttl)\n" +
+            "end\n" +
+            "return token";
+
+    private static final DefaultRedisScript<List> REGISTER = new DefaultRedisScript<>(REGISTER_SCRIPT, List.class);
+    private static final DefaultRedisScript<List> REVOKE = new DefaultRedisScript<>(REVOKE_SCRIPT, List.class);
+    private static final DefaultRedisScript<String> INVALIDATE = new DefaultRedisScript<>(INVALIDATE_SCRIPT, String.class);
+
     /**
-     * Register a new session for a user
+     * Register a new session for a user. When the user already has the maximum number of
+     * sessions, the oldest ones are logged out.
      * @param userId The user ID
      * @param deviceId The device ID
      * @param token The JWT token
      */
     public void registerSession(Long userId, String deviceId, String token) {
-        String userSessionsKey = USER_SESSIONS_PREFIX + userId;
-        
-        // Store the session info in Redis with expiration matching the token
-        String sessionInfo = deviceId + ":" + token;
-        redisTemplate.opsForValue().set(
-            userSessionsKey + ":" + deviceId, 
-            sessionInfo, 
-            tokenProvider.getExpiration(token), 
-            TimeUnit.MILLISECONDS
-        );
-        
-        // Add device to user's session list
-        redisTemplate.opsForList().rightPush(userSessionsKey, deviceId);
-        
-        log.info("Session registered for user {} on device {}", userId, deviceId);
+        List<String> displaced = execute(REGISTER, userId,
+                deviceId,
+                token,
+                String.valueOf(tokenProvider.getExpiration(token)),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(appProperties.getSecurity().getMaxSessionsPerUser()),
+                ACTIVE_TOKEN_PREFIX,
+                VerifiedTokenCache.REVOKED_TOKEN_PREFIX);
+        tokenProvider.evictVerified(displaced);
+
+        log.info("Session registered for user {} on device {}, {} previous sessions displaced",
+                userId, deviceId, displaced.size());
     }
 
     /**
-     * Get all active sessions for a user
+     * Get the devices with an active session for a user
      */
     public List<String> getActiveSessions(Long userId) {
-        String userSessionsKey = USER_SESSIONS_PREFIX + userId;
-        return redisTemplate.opsForList().range(userSessionsKey, 0, -1);
+        Map<Object, Object> sessions = redisTemplate.opsForHash().entries(USER_SESSIONS_PREFIX + userId);
+        long now = System.currentTimeMillis();
+        List<String> deviceIds = new ArrayList<>(sessions.size());
+        for (Map.Entry<Object, Object> session : sessions.entrySet()) {
+            if (expiresAt(String.valueOf(session.getValue())) > now) {
+                deviceIds.add(String.valueOf(session.getKey()));
+            }
+        }
+        return deviceIds;
     }
 
     /**
@@ -70,24 +188,14 @@ public class SessionManagementService {
      * Invalidate a specific session
      */
     public void invalidateSession(Long userId, String deviceId) {
-        String userSessionsKey = USER_SESSIONS_PREFIX + userId;
-        String sessionKey = userSessionsKey + ":" + deviceId;
-        
-        // Get the token associated with this session
-        String sessionInfo = redisTemplate.opsForValue().get(sessionKey);
-        if (sessionInfo != null) {
-            String[] parts = sessionInfo.split(":", 2);
-            if (parts.length == 2) {
-                String token = parts[1];
-                String tokenKey = ACTIVE_TOKEN_PREFIX + token;
-                redisTemplate.delete(tokenKey);
-            }
+        String token = redisTemplate.execute(INVALIDATE,
+                Collections.singletonList(USER_SESSIONS_PREFIX + userId),
+                deviceId, ACTIVE_TOKEN_PREFIX, VerifiedTokenCache.REVOKED_TOKEN_PREFIX,
+                String.valueOf(System.currentTimeMillis()));
+        if (token != null) {
+            tokenProvider.evictVerified(token);
         }
-        
-        // Remove the session
-        redisTemplate.delete(sessionKey);
-        redisTemplate.opsForList().remove(userSessionsKey, 1, deviceId);
-        
+
         log.info("Session invalidated for user {} on device {}", userId, deviceId);
     }
 
@@ -95,58 +203,24 @@ public class SessionManagementService {
      * Force logout from all devices for a user
      */
     public void forceLogoutAllDevices(Long userId) {
-        String userSessionsKey = USER_SESSIONS_PREFIX + userId;
-        List<String> deviceIds = redisTemplate.opsForList().range(userSessionsKey, 0, -1);
-        
-        if (deviceIds != null) {
-            for (String deviceId : deviceIds) {
-                String sessionKey = userSessionsKey + ":" + deviceId;
-                String sessionInfo = redisTemplate.opsForValue().get(sessionKey);
-                
-                if (sessionInfo != null) {
-                    String[] parts = sessionInfo.split(":", 2);
-                    if (parts.length == 2) {
-                        String token = parts[1];
-                        String tokenKey = ACTIVE_TOKEN_PREFIX + token;
-                        redisTemplate.delete(tokenKey);
-                    }
-                }
-                
-                redisTemplate.delete(sessionKey);
-            }
-        }
-        
-        // Clear the user's session list
-        redisTemplate.delete(userSessionsKey);
-        
-        log.info("Forced logout from all devices for user {}", userId);
+        List<String> tokens = revoke(userId, "");
+        tokenProvider.evictVerified(tokens);
+
+        // Tokens issued without a registered session are only rejected once their version is stale
+        tokenVersionService.revokeAll(userId);
+        tokenService.revokeAllRefreshTokens(userId);
+
+        log.info("Forced logout from all devices for user {} ({} sessions)", userId, tokens.size());
     }
 
     /**
      * Force logout from all devices except current session
      */
     public void forceLogoutOtherDevices(Long userId, String currentDeviceId) {
-        String userSessionsKey = USER_SESSIONS_PREFIX + userId;
-        List<String> deviceIds = redisTemplate.opsForList().range(userSessionsKey, 0, -1);
-        
-        if (deviceIds != null) {
-            for (String deviceId : deviceIds) {
-                if (!deviceId.equals(currentDeviceId)) {
-                    invalidateSession(userId, deviceId);
-                }
-            }
-        }
-        
-        log.info("Forced logout from other devices for user {}", userId);
-    }
+        List<String> tokens = revoke(userId, currentDeviceId);
+        tokenProvider.evictVerified(tokens);
 
-    /**
-     * Check if user has reached maximum concurrent sessions
-     */
-    public boolean hasReachedMaxSessions(Long userId) {
-        List<String> activeSessions = getActiveSessions(userId);
-        // For now, we'll assume a max of 5 concurrent sessions
-        return activeSessions != null && activeSessions.size() >= 5;
+        log.info("Forced logout from other devices for user {} ({} sessions)", userId, tokens.size());
     }
 
     /**
@@ -157,4 +231,29 @@ public class SessionManagementService {
         // For now, we're relying on Redis TTL to handle expiration
         log.debug("Session cleanup called");
     }
+
+    private List<String> revoke(Long userId, String keptDeviceId) {
+        return execute(REVOKE, userId, ACTIVE_TOKEN_PREFIX, keptDeviceId,
+                VerifiedTokenCache.REVOKED_TOKEN_PREFIX, String.valueOf(System.currentTimeMillis()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> execute(DefaultRedisScript<List> script, Long userId, String... args) {
+        List<String> tokens = redisTemplate.execute(script,
+                Collections.singletonList(USER_SESSIONS_PREFIX + userId), (Object[]) args);
+        return tokens != null ? tokens : List.of();
+    }
+
+    private static long expiresAt(String session) {
+        int first = session.indexOf(':');
+        int second = first < 0 ? -1 : session.indexOf(':', first + 1);
+        if (second < 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(session.substring(first + 1, second));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 }
\ No newline at end of file
@@ -1,14 +1,48 @@
 package com.myproject.nexa.services;
 
-import com.myproject.nexa.entities.RefreshToken;
 import com.myproject.nexa.entities.User;
 
-import java.util.Optional;
-
 public interface TokenService {
-    RefreshToken createRefreshToken(User user);
-    Optional<RefreshToken> findByToken(String token);
-    RefreshToken verifyExpiration(RefreshToken token);
-    void deleteByUser(User user);
-    void deleteByToken(String token);
-}
\ No newline at end of file
+
+    /**
+     * Issue a refresh token that starts a new rotation family
+     */
+    String createRefreshToken(User user);
+
+    /**
+     * Redeem a refresh token for its successor in the same family. Presenting a token
+     * that was already redeemed revokes the whole family.
+     */
+    Rotation rotateRefreshToken(String token);
+
+    /**
+     * Revoke the family the refresh token belongs to
+     */
+    void revokeRefreshToken(String token);
+
+    /**
+     * Revoke every refresh token family of the user
+     */
+    void revokeAllRefreshTokens(Long userId);
+
+    /**
+     * Outcome of a successful rotation
+     */
+    final class Rotation {
+        private final Long userId;
+        private final String refreshToken;
+
+        public Rotation(Long userId, String refreshToken) {
+            this.userId = userId;
+            this.refreshToken = refreshToken;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
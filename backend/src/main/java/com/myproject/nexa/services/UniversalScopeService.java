@@ -3,6 +3,7 @@ package com.myproject.nexa.services;
 import com.myproject.nexa.dto.response.UniversalScopeResponse;
 import com.myproject.nexa.dto.response.SubdomainConfigurationResponse;
 import com.myproject.nexa.dto.response.NexaLinkResponse;
+import com.myproject.nexa.utils.DomainLabelUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -313,11 +314,8 @@ public class UniversalScopeService {
      * Validate subdomain format
      */
     private boolean isValidSubdomain(String subdomain) {
-        if (subdomain == null || subdomain.trim().isEmpty()) {
-            return false;
-        }
         // Basic validation: alphanumeric and hyphens, not starting/ending with hyphen
-        return subdomain.matches("^[a-zA-Z0-9]([a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?$");
+        return DomainLabelUtil.isValidLabel(subdomain, 1);
     }
 
     /**
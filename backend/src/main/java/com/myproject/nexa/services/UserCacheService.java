@@ -7,9 +7,12 @@ import java.util.List;
 
 public interface UserCacheService {
     void cacheUser(UserResponse user);
+    void cacheUser(UserResponse user, long readStamp);
     UserResponse getCachedUser(Long userId);
     void evictUser(Long userId);
     void evictAllUsers();
-    void cacheAllUsers(Page<UserResponse> users, String cacheKey);
+    void evictUserPages();
+    long readStamp();
+    void cacheAllUsers(Page<UserResponse> users, String cacheKey, long readStamp);
     Page<UserResponse> getCachedAllUsers(String cacheKey);
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.cache.IdPage;
+import com.myproject.nexa.cache.TwoLevelCache;
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.cqrs.event.UserDeletedEvent;
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
+import com.myproject.nexa.dto.response.UserResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of user pages that stores only the ordered user IDs and the total count per query
+ * shape (page, size and sort). Pages are hydrated with one multi-get on the per-user
+ * "users" cache, so a cached page never holds a copy of a user and reflects the latest
+ * cached state of each one. A page whose users are not all cached counts as a miss.
+ * <p>
+ * User events keep it consistent: creates and deletes change membership and totals and
+ * clear every page; updates evict the user's entries by ID and by username, so pages
+ * showing them reload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserPageCache {
+
+    public static final String CACHE_NAME = "userIdPages";
+    private static final String USER_CACHE_NAME = "users";
+    private static final String USERNAME_CACHE_NAME = "usersByUsername";
+
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter hydrationMissCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("user_page_cache.requests")
+                .description("User page lookups by result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+
+        missCounter = Counter.builder("user_page_cache.requests")
+                .description("User page lookups by result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+
+        hydrationMissCounter = Counter.builder("user_page_cache.hydration_misses")
+                .description("Cached ID pages that could not be served because a user was not cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the cached page, or null when it is not cached or cannot be fully hydrated
+     */
+    public Page<UserResponse> get(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return null;
+        }
+        Cache.ValueWrapper cached = pages().get(key(pageable));
+        if (cached == null || !(cached.get() instanceof IdPage idPage)) {
+            missCounter.increment();
+            return null;
+        }
+
+        Map<String, Object> users = getUsers(idPage.getIds());
+        List<UserResponse> content = new ArrayList<>(idPage.getIds().size());
+        for (Long id : idPage.getIds()) {
+            if (!(users.get(String.valueOf(id)) instanceof UserResponse user)) {
+                hydrationMissCounter.increment();
+                missCounter.increment();
+                log.debug("Cached user page {} refers to user {} that is no longer cached", key(pageable), id);
+                return null;
+            }
+            content.add(user);
+        }
+        hitCounter.increment();
+        return idPage.toPage(content);
+    }
+
+    /**
+     * Cache the page as IDs and backfill users that are not cached yet. A user already in
+     * the cache is left alone: the page may have been read before that user was updated.
+     */
+    public void put(Pageable pageable, Page<UserResponse> page) {
+        if (pageable.isUnpaged()) {
+            return;
+        }
+        IdPage idPage = IdPage.of(page, UserResponse::getId);
+        if (idPage == null) {
+            return;
+        }
+
+        Map<Long, UserResponse> users = new LinkedHashMap<>();
+        for (UserResponse user : page.getContent()) {
+            users.put(user.getId(), user);
+        }
+        Cache userCache = users();
+        if (userCache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.putAllIfAbsent(users);
+        } else {
+            users.forEach(userCache::putIfAbsent);
+        }
+        pages().put(key(pageable), idPage);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        pages().clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        evictUser(event.getUserId(), event.getUsername(), null);
+        pages().clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        evictUser(event.getUserId(), event.getUsername(), event.getPreviousUsername());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        // Enabled flag and roles are part of the cached response
+        evictUser(event.getUserId(), event.getUsername(), null);
+    }
+
+    /**
+     * Drop the user's entries in the users cache and the by-username cache
+     */
+    private void evictUser(Long userId, String username, String previousUsername) {
+        if (userId != null) {
+            users().evict(userId);
+        }
+        Cache byUsername = cacheManager.getCache(USERNAME_CACHE_NAME);
+        if (username != null) {
+            byUsername.evict(username);
+        }
+        if (previousUsername != null && !previousUsername.equals(username)) {
+            byUsername.evict(previousUsername);
+        }
+    }
+
+    private Map<String, Object> getUsers(List<Long> ids) {
+        Cache userCache = users();
+        if (userCache instanceof TwoLevelCache twoLevelCache) {
+            return twoLevelCache.getAll(ids);
+        }
+        Map<String, Object> found = new HashMap<>();
+        for (Long id : ids) {
+            Cache.ValueWrapper cached = userCache.get(id);
+            if (cached != null && cached.get() != null) {
+                found.put(String.valueOf(id), cached.get());
+            }
+        }
+        return found;
+    }
+
+    private static String key(Pageable pageable) {
+        return pageable.getPageNumber() + "_" + pageable.getPageSize() + "_" + pageable.getSort();
+    }
+
+    private Cache pages() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private Cache users() {
+        return cacheManager.getCache(USER_CACHE_NAME);
+    }
+}
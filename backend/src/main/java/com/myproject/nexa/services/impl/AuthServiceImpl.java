@@ -1,12 +1,12 @@
 package com.myproject.nexa.services.impl;
 
 import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
 import com.myproject.nexa.dto.request.LoginRequest;
 import com.myproject.nexa.dto.request.RegisterRequest;
 import com.myproject.nexa.dto.request.RefreshTokenRequest;
 import com.myproject.nexa.dto.response.AuthResponse;
 import com.myproject.nexa.dto.response.UserResponse;
-import com.myproject.nexa.entities.RefreshToken;
 import com.myproject.nexa.entities.User;
 import com.myproject.nexa.exceptions.AppException;
 import com.myproject.nexa.exceptions.ErrorCode;
@@ -15,10 +15,11 @@ import com.myproject.nexa.security.JwtTokenProvider;
 import com.myproject.nexa.services.AuthService;
 import com.myproject.nexa.services.TokenService;
 import com.myproject.nexa.services.UserService;
-import com.myproject.nexa.utils.DateUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,8 +27,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -40,6 +39,7 @@ public class AuthServiceImpl implements AuthService {
     private final TokenService tokenService;
     private final UserService userService;
     private final AppProperties appProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -61,14 +61,23 @@ public class AuthServiceImpl implements AuthService {
 
             // Generate JWT token
             String accessToken = tokenProvider.generateToken(authentication);
-            RefreshToken refreshToken = tokenService.createRefreshToken(user);
+            String refreshToken = tokenService.createRefreshToken(user);
 
             return AuthResponse.builder()
                     .accessToken(accessToken)
-                    .refreshToken(refreshToken.getToken())
+                    .refreshToken(refreshToken)
                     .expiresIn(appProperties.getJwt().getExpiration())
                     .user(userResponse)
                     .build();
+        } catch (AppException e) {
+            // Load shedding from the password hashing pool must surface as 503, not as bad credentials
+            throw e;
+        } catch (InternalAuthenticationServiceException e) {
+            if (e.getCause() instanceof AppException appException) {
+                throw appException;
+            }
+            log.error("Login failed for user: {}", loginRequest.getUsername(), e);
+            throw new AppException(ErrorCode.AUTH_001, "Invalid credentials");
         } catch (Exception e) {
             log.error("Login failed for user: {}", loginRequest.getUsername(), e);
             throw new AppException(ErrorCode.AUTH_001, "Invalid credentials");
@@ -99,20 +108,23 @@ public class AuthServiceImpl implements AuthService {
 
         // Save user
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserCreatedEvent(savedUser.getId(), savedUser.getUsername(),
+                savedUser.getEmail()));
         UserResponse userResponse = userService.mapToUserResponse(savedUser);
 
         // Generate JWT token
         UsernamePasswordAuthenticationToken authenticationToken =
                 new UsernamePasswordAuthenticationToken(
-                        savedUser.getUsername(),
-                        registerRequest.getPassword()
+                        savedUser,
+                        null,
+                        savedUser.getAuthorities()
                 );
         String accessToken = tokenProvider.generateToken(authenticationToken);
-        RefreshToken refreshToken = tokenService.createRefreshToken(savedUser);
+        String refreshToken = tokenService.createRefreshToken(savedUser);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken)
                 .expiresIn(appProperties.getJwt().getExpiration())
                 .user(userResponse)
                 .build();
@@ -121,32 +133,27 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public AuthResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
-        RefreshToken refreshToken = tokenService.findByToken(refreshTokenRequest.getRefreshToken())
-                .orElseThrow(() -> new AppException(ErrorCode.VALIDATION_001, "Refresh token not found"));
-
-        if (DateUtil.isExpired(refreshToken.getExpiryDate())) {
-            tokenService.deleteByToken(refreshToken.getToken());
-            throw new AppException(ErrorCode.AUTH_002, "Refresh token has expired");
-        }
+        TokenService.Rotation rotation = tokenService.rotateRefreshToken(refreshTokenRequest.getRefreshToken());
 
         // Get user and generate new tokens
-        User user = refreshToken.getUser();
+        User user = userRepository.findById(rotation.getUserId())
+                .orElseThrow(() -> new AppException(ErrorCode.VALIDATION_001, "Refresh token not found"));
+        if (!user.isEnabled() || !user.isAccountNonLocked()) {
+            tokenService.revokeRefreshToken(rotation.getRefreshToken());
+            throw new AppException(user.isEnabled() ? ErrorCode.AUTH_006 : ErrorCode.AUTH_005);
+        }
         var authentication = new UsernamePasswordAuthenticationToken(
-                user.getUsername(),
+                user,
                 null,
                 user.getAuthorities()
         );
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         String accessToken = tokenProvider.generateToken(authentication);
-        RefreshToken newRefreshToken = tokenService.createRefreshToken(user);
-
-        // Mark old refresh token as used
-        refreshToken.setUsed(true);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(newRefreshToken.getToken())
+                .refreshToken(rotation.getRefreshToken())
                 .expiresIn(appProperties.getJwt().getExpiration())
                 .user(userService.mapToUserResponse(user))
                 .build();
@@ -155,6 +162,6 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public void logout(String refreshToken) {
-        tokenService.deleteByToken(refreshToken);
+        tokenService.revokeRefreshToken(refreshToken);
     }
 }
\ No newline at end of file
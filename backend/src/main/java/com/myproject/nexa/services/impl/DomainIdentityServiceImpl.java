@@ -1,11 +1,17 @@
 package com.myproject.nexa.services.impl;
 
+import com.myproject.nexa.config.properties.AppProperties;
 import com.myproject.nexa.dto.response.DomainAvailabilityResponse;
 import com.myproject.nexa.dto.response.DomainIdentityResponse;
 import com.myproject.nexa.entities.User;
-import com.myproject.nexa.repositories.UserRepository;
+import com.myproject.nexa.exceptions.AppException;
+import com.myproject.nexa.exceptions.ErrorCode;
+import com.myproject.nexa.services.DomainAvailabilityIndex;
 import com.myproject.nexa.services.DomainIdentityService;
+import com.myproject.nexa.services.DomainRankingEngine;
+import com.myproject.nexa.services.DomainSuggestionService;
 import com.myproject.nexa.utils.AuditLogUtil;
+import com.myproject.nexa.utils.DomainLabelUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,10 +19,11 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.regex.Pattern;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,8 +31,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DomainIdentityServiceImpl implements DomainIdentityService {
 
-    private final UserRepository userRepository;
+    private final DomainAvailabilityIndex domainAvailabilityIndex;
+    private final DomainRankingEngine domainRankingEngine;
+    private final DomainSuggestionService domainSuggestionService;
     private final AuditLogUtil auditLogUtil;
+    private final AppProperties appProperties;
     private final Random random = new Random();
 
     @Override
@@ -33,7 +43,7 @@ public class DomainIdentityServiceImpl implements DomainIdentityService {
         log.info("Checking domain availability for: {}", domainName);
 
         // Basic validation
-        if (domainName == null || domainName.trim().isEmpty()) {
+        if (domainName == null || domainName.isBlank()) {
             return DomainAvailabilityResponse.builder()
                     .domain(domainName)
                     .available(false)
@@ -41,14 +51,9 @@ public class DomainIdentityServiceImpl implements DomainIdentityService {
                     .build();
         }
 
-        // Clean domain name (remove .nexa if present)
-        String cleanDomainName = domainName.toLowerCase().trim();
-        if (cleanDomainName.endsWith(".nexa")) {
-            cleanDomainName = cleanDomainName.substring(0, cleanDomainName.length() - 5);
-        }
-
-        // Validate domain format
-        if (!isValidDomainName(cleanDomainName)) {
+        // Clean (remove .nexa if present) and validate the domain format in one pass
+        String cleanDomainName = DomainLabelUtil.normalizeLabel(domainName);
+        if (cleanDomainName == null) {
             return DomainAvailabilityResponse.builder()
                     .domain(domainName)
                     .available(false)
@@ -57,14 +62,14 @@ public class DomainIdentityServiceImpl implements DomainIdentityService {
         }
 
         // Check if domain already exists in the system (we'll use users as proxy for
-        // domain usage)
-        boolean exists = userRepository.existsByUsername(cleanDomainName);
+        // domain usage); answered from the in-memory index once it has been loaded
+        boolean exists = domainAvailabilityIndex.isRegistered(cleanDomainName);
 
         DomainAvailabilityResponse response = DomainAvailabilityResponse.builder()
                 .domain(cleanDomainName + ".nexa")
                 .available(!exists)
-                .suggestedAlternatives(generateSuggestions(cleanDomainName, 3))
-                .premiumRanking(calculatePremiumRanking(cleanDomainName))
+                .suggestedAlternatives(domainSuggestionService.suggest(cleanDomainName, 3))
+                .premiumRanking(domainRankingEngine.rank(cleanDomainName))
                 .build();
 
         // Record audit log
@@ -77,14 +82,79 @@ public class DomainIdentityServiceImpl implements DomainIdentityService {
         return response;
     }
 
+    @Override
+    public List<DomainAvailabilityResponse> checkDomainAvailabilityBatch(List<String> domainNames) {
+        int maxSize = appProperties.getDomain().getAvailabilityBatchMaxSize();
+        if (domainNames.size() > maxSize) {
+            throw new AppException(ErrorCode.VALIDATION_001,
+                    "A batch may contain at most " + maxSize + " domain names");
+        }
+        log.info("Checking domain availability for batch of {} names", domainNames.size());
+
+        // Normalize and validate every name in one pass, collecting the distinct valid labels
+        String[] labels = new String[domainNames.size()];
+        String[] rejections = new String[domainNames.size()];
+        Set<String> distinctLabels = new LinkedHashSet<>();
+        int validCount = 0;
+        for (int i = 0; i < labels.length; i++) {
+            String domainName = domainNames.get(i);
+            if (domainName == null || domainName.isBlank()) {
+                rejections[i] = "Domain name cannot be empty";
+                continue;
+            }
+            String label = DomainLabelUtil.normalizeLabel(domainName);
+            if (label == null) {
+                rejections[i] = "Invalid domain name format";
+                continue;
+            }
+            labels[i] = label;
+            distinctLabels.add(label);
+            validCount++;
+        }
+
+        // Resolve existence for the whole batch at once
+        Set<String> registered = domainAvailabilityIndex.findRegistered(distinctLabels);
+
+        List<DomainAvailabilityResponse> results = new ArrayList<>(labels.length);
+        int availableCount = 0;
+        for (int i = 0; i < labels.length; i++) {
+            String label = labels[i];
+            if (label == null) {
+                results.add(DomainAvailabilityResponse.builder()
+                        .domain(domainNames.get(i))
+                        .available(false)
+                        .reason(rejections[i])
+                        .build());
+                continue;
+            }
+            boolean available = !registered.contains(label);
+            if (available) {
+                availableCount++;
+            }
+            results.add(DomainAvailabilityResponse.builder()
+                    .domain(label + ".nexa")
+                    .available(available)
+                    .premiumRanking(domainRankingEngine.rank(label))
+                    .build());
+        }
+
+        // Record a single audit entry for the whole batch
+        auditLogUtil.logSystemEvent(
+                "DomainIdentity",
+                "DOMAIN_AVAILABILITY_BATCH_CHECK",
+                Map.of("requested", domainNames.size(),
+                        "distinct", distinctLabels.size(),
+                        "invalid", labels.length - validCount,
+                        "available", availableCount));
+
+        return results;
+    }
+
     @Override
     public DomainIdentityResponse getDomainIdentityInfo(String domainName) {
         log.info("Getting domain identity info for: {}", domainName);
 
-        String cleanDomainName = domainName.toLowerCase().trim();
-        if (cleanDomainName.endsWith(".nexa")) {
-            cleanDomainName = cleanDomainName.substring(0, cleanDomainName.length() - 5);
-        }
+        String cleanDomainName = DomainLabelUtil.canonicalize(domainName);
 
         return DomainIdentityResponse.builder()
                 .domain(cleanDomainName + ".nexa")
@@ -98,19 +168,14 @@ public class DomainIdentityServiceImpl implements DomainIdentityService {
     public List<DomainAvailabilityResponse> getAvailablePremiumDomains(int count) {
         log.info("Getting {} available premium domains", count);
 
-        List<String> premiumSuggestions = Arrays.asList(
-                "cloud", "tech", "ai", "data", "next", "scale", "prime", "core",
-                "flow", "pulse", "edge", "zen", "nova", "fuse", "link", "sync",
-                "forge", "pulse", "grid", "wave", "beam", "node", "hub", "lab");
-
         List<DomainAvailabilityResponse> result = new ArrayList<>();
 
-        for (int i = 0; i < count && i < premiumSuggestions.size(); i++) {
-            String domain = premiumSuggestions.get(i);
+        // Best unregistered names straight from the precomputed ranking table
+        for (String domain : domainRankingEngine.topAvailable(count)) {
             DomainAvailabilityResponse response = DomainAvailabilityResponse.builder()
                     .domain(domain + ".nexa")
-                    .available(true) // Assuming these are available for demo purposes
-                    .premiumRanking(calculatePremiumRanking(domain))
+                    .available(true)
+                    .premiumRanking(domainRankingEngine.rank(domain))
                     .build();
             result.add(response);
         }
@@ -200,51 +265,6 @@ public class DomainIdentityServiceImpl implements DomainIdentityService {
                 .collect(Collectors.toList());
     }
 
-    private boolean isValidDomainName(String domainName) {
-        // Domain name can contain letters, numbers, and hyphens, but not start or end
-        // with hyphen
-        return Pattern.matches("^[a-zA-Z0-9]([a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?$", domainName)
-                && domainName.length() >= 2
-                && domainName.length() <= 63;
-    }
-
-    private List<String> generateSuggestions(String baseDomain, int count) {
-        List<String> suggestions = new ArrayList<>();
-
-        // Add common variations
-        suggestions.add(baseDomain + "app.nexa");
-        suggestions.add(baseDomain + "io.nexa");
-        suggestions.add("get-" + baseDomain + ".nexa");
-        suggestions.add("try-" + baseDomain + ".nexa");
-
-        return suggestions.stream().limit(count).collect(Collectors.toList());
-    }
-
-    private int calculatePremiumRanking(String domainName) {
-        // Simple algorithm: shorter, more vowel-consonant balanced names get higher
-        // ranking
-        int lengthScore = Math.max(0, 10 - domainName.length()); // Shorter is better (max 8 chars)
-        int vowelCount = (int) domainName.chars()
-                .filter(c -> "aeiou".indexOf(Character.toLowerCase(c)) >= 0)
-                .count();
-        int consonantCount = domainName.length() - vowelCount;
-
-        // Balanced vowel/consonant ratio gets higher score
-        double ratio = consonantCount > 0 ? (double) vowelCount / consonantCount : 0;
-        int balanceScore = (int) (20 * Math.max(0, 1 - Math.abs(ratio - 0.6))); // Optimal ratio ~0.6
-
-        // Avoid repetitive characters
-        int repetitionPenalty = 0;
-        for (int i = 1; i < domainName.length(); i++) {
-            if (domainName.charAt(i) == domainName.charAt(i - 1)) {
-                repetitionPenalty += 10;
-            }
-        }
-
-        int score = Math.max(1, Math.min(100, lengthScore * 3 + balanceScore * 2 - repetitionPenalty));
-        return score;
-    }
-
     private List<String> getIdentityBenefits(String domainName) {
         return Arrays.asList(
                 "Premium Namespace Availability: Short, memorable names still available unlike .com",
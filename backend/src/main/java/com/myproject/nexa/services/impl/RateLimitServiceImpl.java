@@ -1,13 +1,15 @@
 package com.myproject.nexa.services.impl;
 
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.security.RateLimitDecision;
+import com.myproject.nexa.services.LeasedRateLimiter;
 import com.myproject.nexa.services.RateLimitService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -18,27 +20,33 @@ import java.util.concurrent.TimeUnit;
 public class RateLimitServiceImpl implements RateLimitService {
 
     private final RedisTemplate<String, String> customStringRedisTemplate;
+    private final LeasedRateLimiter leasedRateLimiter;
+    private final AppProperties appProperties;
 
-    // Lua script for atomic rate limiting operation
+    // Lua script for atomic rate limiting operation, returns {current, remaining, ttl, allowed}
     private static final String RATE_LIMIT_SCRIPT = "local key = KEYS[1]\n" +
             "local limit = tonumber(ARGV[1])\n" +
             "local window = tonumber(ARGV[2])\n" +
             "local current = redis.call('GET', key)\n" +
             "if current == false then\n" +
-            "  redis.call('SET', key, 1)\n" +
-            "  redis.call('EXPIRE', key, window)\n" +
-            "  return {1, limit - 1, window}\n" +
+            "  redis.call('SET', key, 1, 'EX', window)\n" +
+            "  return {1, limit - 1, window, 1}\n" +
             "end\n" +
             "current = tonumber(current)\n" +
+            "local ttl = redis.call('TTL', key)\n" +
+            "if ttl < 0 then\n" +
+            "  redis.call('EXPIRE', key, window)\n" +
+            "  ttl = window\n" +
+            "end\n" +
             "if current < limit then\n" +
             "  local newval = redis.call('INCR', key)\n" +
-            "  local ttl = redis.call('TTL', key)\n" +
-            "  return {newval, limit - newval, ttl}\n" +
+            "  return {newval, limit - newval, ttl, 1}\n" +
             "else\n" +
-            "  local ttl = redis.call('TTL', key)\n" +
-            "  return {current, 0, ttl}\n" +
+            "  return {current, 0, ttl, 0}\n" +
             "end";
 
+    private static final DefaultRedisScript<List> RATE_LIMIT = new DefaultRedisScript<>(RATE_LIMIT_SCRIPT, List.class);
+
     @Override
     public boolean isAllowed(String key, int limit, long window, TimeUnit unit) {
         return isAllowed(key, null, limit, window, unit);
@@ -46,73 +54,88 @@ public class RateLimitServiceImpl implements RateLimitService {
 
     @Override
     public boolean isAllowed(String key, String identifier, int limit, long window, TimeUnit unit) {
+        return check(key, identifier, limit, window, unit).isAllowed();
+    }
+
+    @Override
+    public RateLimitDecision check(String key, String identifier, int limit, long window, TimeUnit unit) {
         String finalKey = identifier != null ? key + ":" + identifier : key;
+        long windowSeconds = unit.toSeconds(window);
+
+        if (appProperties.getRateLimit().getMode() == AppProperties.RateLimit.Mode.LEASED) {
+            return leasedRateLimiter.tryAcquire(finalKey, limit, windowSeconds);
+        }
 
-        List<Long> result = customStringRedisTemplate.execute(
-                RedisScript.of(RATE_LIMIT_SCRIPT, List.class),
-                Collections.singletonList(finalKey),
-                String.valueOf(limit),
-                String.valueOf(unit.toSeconds(window)));
+        List<?> result;
+        try {
+            result = customStringRedisTemplate.execute(
+                    RATE_LIMIT,
+                    Collections.singletonList(finalKey),
+                    String.valueOf(limit),
+                    String.valueOf(windowSeconds));
+        } catch (Exception e) {
+            log.warn("Rate limit script execution failed for key '{}', allowing request: {}", finalKey, e.getMessage());
+            return RateLimitDecision.failOpen(limit, windowSeconds);
+        }
 
-        if (result != null && !result.isEmpty()) {
-            Long currentRequests = result.get(0);
-            Long remaining = result.get(1);
+        if (result != null && result.size() >= 4) {
+            long currentRequests = toLong(result.get(0));
+            long remaining = toLong(result.get(1));
+            long ttl = toLong(result.get(2));
+            boolean allowed = toLong(result.get(3)) == 1;
 
             log.debug("Rate limit check for key '{}': current={}, remaining={}, limit={}",
                     finalKey, currentRequests, remaining, limit);
 
-            return currentRequests <= limit;
+            return RateLimitDecision.builder()
+                    .allowed(allowed)
+                    .limit(limit)
+                    .remaining(Math.max(0, remaining))
+                    .resetAt(System.currentTimeMillis() / 1000 + ttl)
+                    .retryAfterSeconds(allowed ? 0 : Math.max(1, ttl))
+                    .build();
         }
 
         // If script execution failed, allow request to go through to not block users
         log.warn("Rate limit script execution failed for key '{}', allowing request", finalKey);
-        return true;
+        return RateLimitDecision.failOpen(limit, windowSeconds);
+    }
+
+    @Override
+    public RateLimitDecision checkIp(String ip) {
+        AppProperties.RateLimit rateLimit = appProperties.getRateLimit();
+        return check("ip:" + ip, "default", rateLimit.getMaxRequests(), rateLimit.getWindowSeconds(), TimeUnit.SECONDS);
     }
 
     @Override
     public long getRemainingRequests(String key, long window, TimeUnit unit) {
-        String count = customStringRedisTemplate.opsForValue().get(key);
-        if (count != null) {
-            try {
-                int current = Integer.parseInt(count);
-                // We need to know the limit to calculate remaining - would need to enhance this
-                // in production
-                // For now, using a default of 100 requests
-                return 100 - current; // This is a simplified implementation
-            } catch (NumberFormatException e) {
-                log.warn("Invalid count value in Redis for key '{}': {}", key, count);
-                return 100;
-            }
-        }
-        return 100; // Default if no count exists
+        return getRemainingRequests(key);
     }
 
     @Override
     public long getResetTime(String key, long window, TimeUnit unit) {
-        Long ttl = customStringRedisTemplate.getExpire(key, TimeUnit.SECONDS);
-        return ttl != null ? ttl : 0;
+        return getResetTime(key);
     }
 
     @Override
     public boolean isIpAllowed(String ip) {
-        // Use a default rate limit of 100 requests per hour for IP-based limits
-        return isAllowed("ip:" + ip, "default", 100, 3600, TimeUnit.SECONDS);
+        return checkIp(ip).isAllowed();
     }
 
     @Override
     public long getRemainingRequests(String key) {
+        // Extra round trip; request paths should read the remaining count from check() instead
+        int limit = appProperties.getRateLimit().getMaxRequests();
         String count = customStringRedisTemplate.opsForValue().get(key);
         if (count != null) {
             try {
-                int current = Integer.parseInt(count);
-                // Default to 100 requests
-                return 100 - current;
+                return Math.max(0, limit - Long.parseLong(count));
             } catch (NumberFormatException e) {
                 log.warn("Invalid count value in Redis for key '{}': {}", key, count);
-                return 100;
+                return limit;
             }
         }
-        return 100; // Default if no count exists
+        return limit; // Default if no count exists
     }
 
     @Override
@@ -124,6 +147,11 @@ public class RateLimitServiceImpl implements RateLimitService {
     @Override
     public void resetLimit(String key) {
         customStringRedisTemplate.delete(key);
+        leasedRateLimiter.evict(key);
         log.debug("Rate limit reset for key: {}", key);
     }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
 }
\ No newline at end of file
@@ -15,6 +15,8 @@ import com.myproject.nexa.repositories.UserRepository;
 import com.myproject.nexa.services.TenantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -34,6 +36,9 @@ public class TenantServiceImpl implements TenantService {
 
     private static final Logger log = LoggerFactory.getLogger(TenantServiceImpl.class);
 
+    // Tenants by subdomain; any tenant change clears it since the old subdomain is not at hand
+    private static final String TENANT_CACHE = "tenants";
+
     private final TenantRepository tenantRepository;
     private final TenantUserRepository tenantUserRepository;
     private final UserRepository userRepository;
@@ -79,6 +84,7 @@ public class TenantServiceImpl implements TenantService {
     }
 
     @Override
+    @Cacheable(value = TENANT_CACHE, key = "#subdomain", sync = true)
     @Transactional(readOnly = true)
     public TenantResponse getTenantBySubdomain(String subdomain) {
         log.debug("Getting tenant by subdomain: {}", subdomain);
@@ -107,6 +113,7 @@ public class TenantServiceImpl implements TenantService {
 
     @Override
     @Transactional
+    @CacheEvict(value = TENANT_CACHE, allEntries = true)
     public TenantResponse updateTenant(Long id, CreateTenantRequest request) {
         log.info("Updating tenant with ID: {}", id);
         Tenant tenant = tenantRepository.findById(id)
@@ -137,6 +144,7 @@ public class TenantServiceImpl implements TenantService {
 
     @Override
     @Transactional
+    @CacheEvict(value = TENANT_CACHE, allEntries = true)
     public void deleteTenant(Long id) {
         log.info("Deleting tenant with ID: {}", id);
         Tenant tenant = tenantRepository.findById(id)
@@ -237,6 +245,7 @@ public class TenantServiceImpl implements TenantService {
 
     @Override
     @Transactional
+    @CacheEvict(value = TENANT_CACHE, allEntries = true)
     public TenantResponse activateTenant(Long id) {
         log.info("Activating tenant with ID: {}", id);
         Tenant tenant = tenantRepository.findById(id)
@@ -257,6 +266,7 @@ public class TenantServiceImpl implements TenantService {
 
     @Override
     @Transactional
+    @CacheEvict(value = TENANT_CACHE, allEntries = true)
     public TenantResponse deactivateTenant(Long id) {
         log.info("Deactivating tenant with ID: {}", id);
         Tenant tenant = tenantRepository.findById(id)
@@ -277,6 +287,7 @@ public class TenantServiceImpl implements TenantService {
 
     @Override
     @Transactional
+    @CacheEvict(value = TENANT_CACHE, allEntries = true)
     public void updateTenantStatus(Long tenantId, Tenant.TenantStatus status) {
         log.info("Updating tenant {} status to: {}", tenantId, status);
         Optional<Tenant> tenantOpt = tenantRepository.findById(tenantId);
@@ -1,65 +1,315 @@
 package com.myproject.nexa.services.impl;
 
-import com.myproject.nexa.entities.RefreshToken;
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserDeletedEvent;
 import com.myproject.nexa.entities.User;
-import com.myproject.nexa.exceptions.BadRequestException;
-import com.myproject.nexa.repositories.RefreshTokenRepository;
+import com.myproject.nexa.exceptions.AppException;
+import com.myproject.nexa.exceptions.ErrorCode;
+import com.myproject.nexa.services.RefreshTokenAuditWriter;
 import com.myproject.nexa.services.TokenService;
-import com.myproject.nexa.utils.DateUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.time.LocalDateTime;
-import java.util.Optional;
-import java.util.UUID;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
 
+/**
+ * Refresh tokens kept in Redis. A token is "{userId}.{familyId}.{secret}" and is stored
+ * only as its SHA-256 hash, with a TTL equal to its expiry. Each login starts a rotation
+ * family; refreshing marks the presented token used and issues its successor in one Lua
+ * call. Presenting a used token again means it leaked, so the whole family is revoked,
+ * unless it comes within app.jwt.refresh-reuse-grace-ms of the rotation: concurrent
+ * requests of one client racing with the same token then all get the successor already
+ * issued. The successor is kept for the grace period encrypted with a key derived from
+ * the presented token, so Redis never holds a usable token. Postgres only receives an
+ * audit copy through RefreshTokenAuditWriter.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TokenServiceImpl implements TokenService {
 
-    private final RefreshTokenRepository refreshTokenRepository;
+    private static final String TOKEN_PREFIX = "refresh_token:";
+    private static final String FAMILY_PREFIX = "refresh_family:";
+    private static final String USER_FAMILIES_PREFIX = "refresh_families:";
+    private static final String GRACE_PREFIX = "refresh_grace:";
 
-    @Value("${jwt.refresh-token-expiration}")
-    private Long refreshTokenExpiration;
+    // KEYS: token, family, user families. ARGV: userId, familyId, ttl ms
+    private static final String ISSUE_SCRIPT =
+            "redis.call('HSET', KEYS[1], 'uid', ARGV[1], 'fam', ARGV[2], 'used', '0')\n" +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[3])\n" +
+            "redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[3])\n" +
+            "redis.call('SADD', KEYS[3], ARGV[2])\n" +
+            "redis.call('PEXPIRE', KEYS[3], ARGV[3])\n" +
+            "return 1";
 
-    @Override
-    public RefreshToken createRefreshToken(User user) {
-        // Delete existing refresh token for this user
-        refreshTokenRepository.deleteByUser(user);
-
-        // Create new refresh token
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(DateUtil.addDays(LocalDateTime.now(), (int) (refreshTokenExpiration / (24 * 60 * 60 * 1000))));
-        
-        return refreshTokenRepository.save(refreshToken);
+    // KEYS: presented token, successor token, family, user families, grace.
+    // ARGV: userId, familyId, ttl ms, sealed successor, grace ms
+    // Returns {1} when rotated, {0} when the token is unknown or expired, {-1} on reuse
+    // (the family is revoked), {-2} when the family was already revoked and
+    // {2, sealed successor} when the token was rotated within the grace period
+    private static final String ROTATE_SCRIPT =
+            "local token = redis.call('HMGET', KEYS[1], 'uid', 'fam', 'used')\n" +
+            "if not token[1] or token[1] ~= ARGV[1] or token[2] ~= ARGV[2] then\n" +
+            "  return {0}\n" +
+            "end\n" +
+            "if token[3] == '1' then\n" +
+            "  local sealed = redis.call('GET', KEYS[5])\n" +
+            "  if sealed and redis.call('EXISTS', KEYS[3]) == 1 then\n" +
+            "    return {2, sealed}\n" +
+            "  end\n" +
+            "  redis.call('DEL', KEYS[3])\n" +
+            "  redis.call('SREM', KEYS[4], ARGV[2])\n" +
+            "  return {-1}\n" +
+            "end\n" +
+            "if redis.call('EXISTS', KEYS[3]) == 0 then\n" +
+            "  return {-2}\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], 'used', '1')\n" +
+            "redis.call('HSET', KEYS[2], 'uid', ARGV[1], 'fam', ARGV[2], 'used', '0')\n" +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[3])\n" +
+            "redis.call('PEXPIRE', KEYS[3], ARGV[3])\n" +
+            "redis.call('PEXPIRE', KEYS[4], ARGV[3])\n" +
+            "if tonumber(ARGV[5]) > 0 then\n" +
+            "  redis.call('SET', KEYS[5], ARGV[4], 'PX', ARGV[5])\n" +
+            "end\n" +
+            "return {1}";
+
+    private static final DefaultRedisScript<Long> ISSUE = new DefaultRedisScript<>(ISSUE_SCRIPT, Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ROTATE = new DefaultRedisScript<>(ROTATE_SCRIPT, List.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RefreshTokenAuditWriter auditWriter;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Counter reuseCounter;
+    private Counter graceCounter;
+
+    @PostConstruct
+    public void init() {
+        reuseCounter = Counter.builder("refresh_token.reuse_detected")
+                .description("Redeemed refresh tokens presented again, revoking their family")
+                .register(meterRegistry);
+
+        graceCounter = Counter.builder("refresh_token.grace_replays")
+                .description("Redeemed refresh tokens presented again within the grace period")
+                .register(meterRegistry);
     }
 
     @Override
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    public String createRefreshToken(User user) {
+        String familyId = randomToken(16);
+        String token = user.getId() + "." + familyId + "." + randomToken(32);
+        String tokenHash = hash(token);
+        long ttl = appProperties.getJwt().getRefreshTokenExpiration();
+
+        try {
+            redisTemplate.execute(ISSUE,
+                    List.of(TOKEN_PREFIX + tokenHash, FAMILY_PREFIX + familyId, USER_FAMILIES_PREFIX + user.getId()),
+                    String.valueOf(user.getId()), familyId, String.valueOf(ttl));
+        } catch (Exception e) {
+            log.error("Failed to store refresh token for user {}: {}", user.getId(), e.getMessage(), e);
+            throw new AppException(ErrorCode.SYSTEM_002, "Refresh tokens are temporarily unavailable");
+        }
+
+        auditWriter.issued(user.getId(), familyId, tokenHash, System.currentTimeMillis() + ttl);
+        return token;
     }
 
     @Override
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(LocalDateTime.now())) {
-            refreshTokenRepository.delete(token);
-            throw new BadRequestException("Refresh token has expired");
+    public Rotation rotateRefreshToken(String token) {
+        ParsedToken parsed = parse(token);
+        if (parsed == null) {
+            throw new AppException(ErrorCode.VALIDATION_001, "Refresh token not found");
         }
-        return token;
+
+        String tokenHash = hash(token);
+        String successor = parsed.userId + "." + parsed.familyId + "." + randomToken(32);
+        String successorHash = hash(successor);
+        long ttl = appProperties.getJwt().getRefreshTokenExpiration();
+        long grace = appProperties.getJwt().getRefreshReuseGraceMs();
+
+        List<?> reply;
+        try {
+            reply = redisTemplate.execute(ROTATE,
+                    List.of(TOKEN_PREFIX + tokenHash, TOKEN_PREFIX + successorHash,
+                            FAMILY_PREFIX + parsed.familyId, USER_FAMILIES_PREFIX + parsed.userId,
+                            GRACE_PREFIX + tokenHash),
+                    String.valueOf(parsed.userId), parsed.familyId, String.valueOf(ttl),
+                    grace > 0 ? seal(token, successor) : "", String.valueOf(grace));
+        } catch (Exception e) {
+            log.error("Failed to rotate refresh token for user {}: {}", parsed.userId, e.getMessage(), e);
+            throw new AppException(ErrorCode.SYSTEM_002, "Refresh tokens are temporarily unavailable");
+        }
+
+        long result = reply == null || reply.isEmpty() ? 0 : ((Number) reply.get(0)).longValue();
+        if (result == 2) {
+            graceCounter.increment();
+            log.debug("Refresh token for user {} presented again within the grace period", parsed.userId);
+            return new Rotation(parsed.userId, unseal(token, String.valueOf(reply.get(1))));
+        }
+        if (result == 0) {
+            throw new AppException(ErrorCode.VALIDATION_001, "Refresh token not found");
+        }
+        if (result == -1) {
+            reuseCounter.increment();
+            auditWriter.familyRevoked(parsed.familyId);
+            log.warn("Refresh token reuse detected for user {}, revoked token family {}",
+                    parsed.userId, parsed.familyId);
+            throw new AppException(ErrorCode.AUTH_003, "Refresh token has already been used, please sign in again");
+        }
+        if (result == -2) {
+            throw new AppException(ErrorCode.AUTH_003, "Refresh token has been revoked");
+        }
+
+        auditWriter.used(tokenHash);
+        auditWriter.issued(parsed.userId, parsed.familyId, successorHash, System.currentTimeMillis() + ttl);
+        return new Rotation(parsed.userId, successor);
     }
 
     @Override
-    public void deleteByUser(User user) {
-        refreshTokenRepository.deleteByUser(user);
+    public void revokeRefreshToken(String token) {
+        ParsedToken parsed = parse(token);
+        if (parsed == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(FAMILY_PREFIX + parsed.familyId);
+            redisTemplate.opsForSet().remove(USER_FAMILIES_PREFIX + parsed.userId, parsed.familyId);
+            auditWriter.familyRevoked(parsed.familyId);
+        } catch (Exception e) {
+            log.error("Failed to revoke refresh token family {}: {}", parsed.familyId, e.getMessage(), e);
+        }
     }
 
     @Override
-    public void deleteByToken(String token) {
-        refreshTokenRepository.deleteByToken(token);
+    public void revokeAllRefreshTokens(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        String userFamiliesKey = USER_FAMILIES_PREFIX + userId;
+        try {
+            Set<String> familyIds = redisTemplate.opsForSet().members(userFamiliesKey);
+            List<String> keys = new ArrayList<>();
+            keys.add(userFamiliesKey);
+            if (familyIds != null) {
+                for (String familyId : familyIds) {
+                    keys.add(FAMILY_PREFIX + familyId);
+                }
+            }
+            redisTemplate.delete(keys);
+            auditWriter.userRevoked(userId);
+            log.info("Revoked all refresh tokens for user {}", userId);
+        } catch (Exception e) {
+            log.error("Failed to revoke refresh tokens for user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        revokeAllRefreshTokens(event.getUserId());
+    }
+
+    private static ParsedToken parse(String token) {
+        if (token == null) {
+            return null;
+        }
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (first <= 0 || second <= first + 1 || second == token.length() - 1) {
+            return null;
+        }
+        try {
+            return new ParsedToken(Long.parseLong(token.substring(0, first)), token.substring(first + 1, second));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encrypt the successor with a key only the holder of the presented token can derive.
+     * The key is a hash of the token under a different prefix, so the stored token hash
+     * does not reveal it.
+     */
+    private static String seal(String token, String successor) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, graceKey(token), new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(successor.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = new byte[iv.length + encrypted.length];
+            System.arraycopy(iv, 0, sealed, 0, iv.length);
+            System.arraycopy(encrypted, 0, sealed, iv.length, encrypted.length);
+            return Base64.getEncoder().encodeToString(sealed);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not seal refresh token successor", e);
+        }
+    }
+
+    private static String unseal(String token, String sealed) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(sealed);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, graceKey(token), new GCMParameterSpec(GCM_TAG_BITS, bytes, 0, GCM_IV_BYTES));
+            return new String(cipher.doFinal(bytes, GCM_IV_BYTES, bytes.length - GCM_IV_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new AppException(ErrorCode.AUTH_003, "Refresh token has already been used, please sign in again");
+        }
+    }
+
+    private static SecretKeySpec graceKey(String token) throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return new SecretKeySpec(digest.digest(("grace:" + token).getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+
+    private static String randomToken(int bytes) {
+        byte[] random = new byte[bytes];
+        RANDOM.nextBytes(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class ParsedToken {
+        private final long userId;
+        private final String familyId;
+
+        ParsedToken(long userId, String familyId) {
+            this.userId = userId;
+            this.familyId = familyId;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,40 +1,132 @@
 package com.myproject.nexa.services.impl;
 
+import com.myproject.nexa.cache.IdPage;
 import com.myproject.nexa.dto.response.UserResponse;
 import com.myproject.nexa.services.UserCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Redis cache of user responses and user pages, invalidated without scanning the keyspace.
+ * <p>
+ * Keys are stamped with generations: user:{generation}:{id} and
+ * users:{generation}.{pageGeneration}:{cacheKey}. Bumping the generation drops every
+ * entry at once and bumping the page generation drops every page; stale entries are never
+ * read again and simply expire. Each cached page is also recorded in a tag set per user on
+ * it, users_tag:{generation}:{id}, so a change to one user evicts just the pages that
+ * show them; reading the tag and deleting the pages is one script.
+ * <p>
+ * Every eviction also bumps an eviction stamp. A caller takes readStamp() before reading
+ * the database and passes it along when caching what it read; the write is dropped if
+ * any eviction happened in between, so a read that raced an update cannot cache the old
+ * state. The scripts derive keys from values, so they expect a single (non-cluster)
+ * Redis, as configured.
+ * <p>
+ * Values are written with the shared cache codec. A page is stored as its user IDs and
+ * total count and is resolved through the user entries with one MGET; if any of them is
+ * gone the page counts as a miss.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class UserCacheServiceImpl implements UserCacheService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisSerializer<Object> cacheCodec;
 
     private static final String USER_CACHE_PREFIX = "user:";
     private static final String USERS_CACHE_PREFIX = "users:";
+    private static final String USER_TAG_PREFIX = "users_tag:";
+    private static final String GENERATION_KEY = "user_cache_generation";
+    private static final String PAGE_GENERATION_KEY = "user_cache_page_generation";
+    private static final String EVICTION_STAMP_KEY = "user_cache_eviction_stamp";
     private static final int USER_CACHE_TTL = 3600; // 1 hour
+    // How long a node reuses generations it read, bounding how late it sees another node's bump
+    private static final long GENERATION_CHECK_INTERVAL_MS = 1000;
+
+    // KEYS: eviction stamp, tag set, user entry. Bumps the stamp and deletes the user, the
+    // pages in the tag and the tag itself; returns how many pages were deleted
+    private static final String EVICT_USER_SCRIPT =
+            "redis.call('INCR', KEYS[1])\n" +
+            "local pages = redis.call('SMEMBERS', KEYS[2])\n" +
+            "for i = 1, #pages, 500 do\n" +
+            "  redis.call('DEL', unpack(pages, i, math.min(i + 499, #pages)))\n" +
+            "end\n" +
+            "redis.call('DEL', KEYS[2], KEYS[3])\n" +
+            "return #pages";
+
+    // KEYS: eviction stamp, page ('' when caching a single user), then a user entry and tag
+    // set per user. ARGV: read stamp, TTL seconds, page value, user values. Writes nothing
+    // and returns 0 if an eviction happened since the read stamp was taken
+    private static final String CACHE_USERS_SCRIPT =
+            "if tonumber(redis.call('GET', KEYS[1]) or '0') ~= tonumber(ARGV[1]) then\n" +
+            "  return 0\n" +
+            "end\n" +
+            "if KEYS[2] ~= '' then\n" +
+            "  redis.call('SET', KEYS[2], ARGV[3], 'EX', ARGV[2])\n" +
+            "end\n" +
+            "local value = 4\n" +
+            "for i = 3, #KEYS, 2 do\n" +
+            "  redis.call('SET', KEYS[i], ARGV[value], 'EX', ARGV[2])\n" +
+            "  if KEYS[2] ~= '' then\n" +
+            "    redis.call('SADD', KEYS[i + 1], KEYS[2])\n" +
+            "    redis.call('EXPIRE', KEYS[i + 1], ARGV[2])\n" +
+            "  end\n" +
+            "  value = value + 1\n" +
+            "end\n" +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> EVICT_USER = new DefaultRedisScript<>(EVICT_USER_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> CACHE_USERS =
+            new DefaultRedisScript<>(CACHE_USERS_SCRIPT, Long.class);
+
+    private volatile Generations generations = new Generations(0, 0, 0);
 
     @Override
     public void cacheUser(UserResponse user) {
         if (user != null && user.getId() != null) {
-            String key = USER_CACHE_PREFIX + user.getId();
-            redisTemplate.opsForValue().set(key, user, USER_CACHE_TTL, TimeUnit.SECONDS);
+            byte[] key = bytes(userKey(currentGenerations(), user.getId()));
+            byte[] value = cacheCodec.serialize(user);
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(key, value, Expiration.seconds(USER_CACHE_TTL), RedisStringCommands.SetOption.upsert()));
             log.debug("Cached user with ID: {}", user.getId());
         }
     }
 
+    @Override
+    public void cacheUser(UserResponse user, long readStamp) {
+        if (user != null && user.getId() != null) {
+            Generations current = currentGenerations();
+            List<String> keys = List.of(EVICTION_STAMP_KEY, "",
+                    userKey(current, user.getId()), tagKey(current, user.getId()));
+            if (cacheUsers(keys, readStamp, new byte[0], List.of(user))) {
+                log.debug("Cached user with ID: {}", user.getId());
+            } else {
+                log.debug("Skipped caching user with ID: {} read before an eviction", user.getId());
+            }
+        }
+    }
+
     @Override
     public UserResponse getCachedUser(Long userId) {
         if (userId != null) {
-            String key = USER_CACHE_PREFIX + userId;
-            UserResponse user = (UserResponse) redisTemplate.opsForValue().get(key);
+            byte[] key = bytes(userKey(currentGenerations(), userId));
+            UserResponse user = decode(redisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.stringCommands().get(key)), UserResponse.class);
             if (user != null) {
                 log.debug("Retrieved cached user with ID: {}", userId);
             }
@@ -46,38 +138,183 @@ public class UserCacheServiceImpl implements UserCacheService {
     @Override
     public void evictUser(Long userId) {
         if (userId != null) {
-            String key = USER_CACHE_PREFIX + userId;
-            redisTemplate.delete(key);
-            log.debug("Evicted cached user with ID: {}", userId);
+            Generations current = currentGenerations();
+            Long pages = redisTemplate.execute(EVICT_USER,
+                    List.of(EVICTION_STAMP_KEY, tagKey(current, userId), userKey(current, userId)));
+            log.debug("Evicted cached user with ID: {} and {} cached pages", userId, pages);
         }
     }
 
     @Override
     public void evictAllUsers() {
-        // Delete all keys with user prefix
-        redisTemplate.delete(redisTemplate.keys(USER_CACHE_PREFIX + "*"));
+        redisTemplate.opsForValue().increment(EVICTION_STAMP_KEY);
+        Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY);
+        if (generation != null) {
+            Generations current = generations;
+            generations = new Generations(generation, current.page,
+                    System.currentTimeMillis() + GENERATION_CHECK_INTERVAL_MS);
+        }
         log.debug("Evicted all cached users");
     }
 
     @Override
-    public void cacheAllUsers(Page<UserResponse> users, String cacheKey) {
+    public void evictUserPages() {
+        redisTemplate.opsForValue().increment(EVICTION_STAMP_KEY);
+        Long pageGeneration = redisTemplate.opsForValue().increment(PAGE_GENERATION_KEY);
+        if (pageGeneration != null) {
+            Generations current = generations;
+            generations = new Generations(current.all, pageGeneration,
+                    System.currentTimeMillis() + GENERATION_CHECK_INTERVAL_MS);
+        }
+        log.debug("Evicted all cached user pages");
+    }
+
+    /**
+     * Eviction stamp to take before reading users from the database
+     */
+    @Override
+    public long readStamp() {
+        return parse(redisTemplate.execute(
+                (RedisCallback<byte[]>) connection -> connection.stringCommands().get(bytes(EVICTION_STAMP_KEY))));
+    }
+
+    @Override
+    public void cacheAllUsers(Page<UserResponse> users, String cacheKey, long readStamp) {
         if (users != null && cacheKey != null) {
-            String key = USERS_CACHE_PREFIX + cacheKey;
-            redisTemplate.opsForValue().set(key, users, USER_CACHE_TTL, TimeUnit.SECONDS);
-            log.debug("Cached users with key: {}", cacheKey);
+            IdPage idPage = IdPage.of(users, UserResponse::getId);
+            if (idPage == null) {
+                return;
+            }
+            Generations current = currentGenerations();
+            // The ID page, the users on it and their tags are written by one script
+            List<String> keys = new ArrayList<>();
+            keys.add(EVICTION_STAMP_KEY);
+            keys.add(pageKey(current, cacheKey));
+            for (UserResponse user : users.getContent()) {
+                keys.add(userKey(current, user.getId()));
+                keys.add(tagKey(current, user.getId()));
+            }
+            if (cacheUsers(keys, readStamp, cacheCodec.serialize(idPage), users.getContent())) {
+                log.debug("Cached users with key: {}", cacheKey);
+            } else {
+                log.debug("Skipped caching users with key: {} read before an eviction", cacheKey);
+            }
         }
     }
 
     @Override
     public Page<UserResponse> getCachedAllUsers(String cacheKey) {
         if (cacheKey != null) {
-            String key = USERS_CACHE_PREFIX + cacheKey;
-            Page<UserResponse> users = (Page<UserResponse>) redisTemplate.opsForValue().get(key);
-            if (users != null) {
-                log.debug("Retrieved cached users with key: {}", cacheKey);
+            Generations current = currentGenerations();
+            byte[] key = bytes(pageKey(current, cacheKey));
+            IdPage idPage = decode(redisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.stringCommands().get(key)), IdPage.class);
+            if (idPage == null) {
+                return null;
             }
-            return users;
+
+            List<UserResponse> users = new ArrayList<>(idPage.getIds().size());
+            if (!idPage.getIds().isEmpty()) {
+                byte[][] userKeys = idPage.getIds().stream()
+                        .map(id -> bytes(userKey(current, id)))
+                        .toArray(byte[][]::new);
+                List<byte[]> values = redisTemplate.execute(
+                        (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(userKeys));
+                if (values == null) {
+                    return null;
+                }
+                for (byte[] value : values) {
+                    UserResponse user = decode(value, UserResponse.class);
+                    if (user == null) {
+                        log.debug("Cached users with key: {} refer to users no longer cached", cacheKey);
+                        return null;
+                    }
+                    users.add(user);
+                }
+            }
+            log.debug("Retrieved cached users with key: {}", cacheKey);
+            return idPage.toPage(users);
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return false if the write was dropped because of an eviction since the read stamp
+     */
+    private boolean cacheUsers(List<String> keys, long readStamp, byte[] pageValue, List<UserResponse> users) {
+        Object[] args = new Object[3 + users.size()];
+        args[0] = bytes(String.valueOf(readStamp));
+        args[1] = bytes(String.valueOf(USER_CACHE_TTL));
+        args[2] = pageValue;
+        for (int i = 0; i < users.size(); i++) {
+            args[3 + i] = cacheCodec.serialize(users.get(i));
+        }
+        Long written = redisTemplate.execute(CACHE_USERS, RedisSerializer.byteArray(),
+                new GenericToStringSerializer<>(Long.class), keys, args);
+        return written != null && written == 1;
+    }
+
+    /**
+     * Unreadable entries, e.g. of a newer schema version, count as misses
+     */
+    private <T> T decode(byte[] value, Class<T> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            Object decoded = cacheCodec.deserialize(value);
+            return type.isInstance(decoded) ? type.cast(decoded) : null;
+        } catch (SerializationException e) {
+            log.warn("Could not read cached {}: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private Generations currentGenerations() {
+        Generations current = generations;
+        long now = System.currentTimeMillis();
+        if (now < current.expiresAt) {
+            return current;
+        }
+
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(bytes(GENERATION_KEY), bytes(PAGE_GENERATION_KEY)));
+        long all = values != null && values.size() == 2 ? parse(values.get(0)) : current.all;
+        long page = values != null && values.size() == 2 ? parse(values.get(1)) : current.page;
+        Generations fresh = new Generations(all, page, now + GENERATION_CHECK_INTERVAL_MS);
+        generations = fresh;
+        return fresh;
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long parse(byte[] value) {
+        return value != null ? Long.parseLong(new String(value, StandardCharsets.UTF_8)) : 0;
+    }
+
+    private static String userKey(Generations generations, Long userId) {
+        return USER_CACHE_PREFIX + generations.all + ":" + userId;
+    }
+
+    private static String pageKey(Generations generations, String cacheKey) {
+        return USERS_CACHE_PREFIX + generations.all + "." + generations.page + ":" + cacheKey;
+    }
+
+    private static String tagKey(Generations generations, Long userId) {
+        return USER_TAG_PREFIX + generations.all + ":" + userId;
+    }
+
+    private static final class Generations {
+        private final long all;
+        private final long page;
+        private final long expiresAt;
+
+        Generations(long all, long page, long expiresAt) {
+            this.all = all;
+            this.page = page;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
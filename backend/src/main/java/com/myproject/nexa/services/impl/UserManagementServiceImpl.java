@@ -1,5 +1,9 @@
 package com.myproject.nexa.services.impl;
 
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.cqrs.event.UserDeletedEvent;
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
 import com.myproject.nexa.dto.request.UserCreateRequest;
 import com.myproject.nexa.dto.request.UserUpdateRequest;
 import com.myproject.nexa.dto.response.UserResponse;
@@ -22,6 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -52,6 +57,7 @@ public class UserManagementServiceImpl implements UserManagementService {
     private final SecurityUtil securityUtil;
     private final UserValidationService userValidationService;
     private final UserCacheService userCacheService;
+    private final ApplicationEventPublisher eventPublisher;
     private final com.myproject.nexa.mapper.UserMapper userMapper;
 
     @Override
@@ -90,6 +96,8 @@ public class UserManagementServiceImpl implements UserManagementService {
                 User savedUser = userRepository.save(user);
                 log.info("User created successfully with ID: {} and correlation ID: {}", savedUser.getId(),
                         correlationId);
+                eventPublisher.publishEvent(new UserCreatedEvent(savedUser.getId(), savedUser.getUsername(),
+                        savedUser.getEmail()));
 
                 // Record audit log
                 auditLogUtil.logUserAction(
@@ -104,6 +112,8 @@ public class UserManagementServiceImpl implements UserManagementService {
                 UserResponse response = userMapper.toUserResponse(savedUser);
                 // Cache the newly created user
                 userCacheService.cacheUser(response);
+                // Every cached page may now be off by one
+                userCacheService.evictUserPages();
 
                 return response;
             } catch (DataIntegrityViolationException e) {
@@ -159,6 +169,12 @@ public class UserManagementServiceImpl implements UserManagementService {
                 User updatedUser = userRepository.save(existingUser);
                 log.info("User updated successfully with ID: {} | Correlation ID: {}", updatedUser.getId(),
                         correlationId);
+                eventPublisher.publishEvent(new UserUpdatedEvent(updatedUser.getId(), oldUsername,
+                        updatedUser.getUsername(), updatedUser.getEmail()));
+                if (request.getEnabled() != null) {
+                    eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(),
+                            updatedUser.getUsername(), request.getEnabled() ? "ENABLED" : "DISABLED"));
+                }
 
                 // Record audit log
                 auditLogUtil.logUserAction(
@@ -204,12 +220,13 @@ public class UserManagementServiceImpl implements UserManagementService {
         }
 
         // If not in cache, fetch from database
+        long readStamp = userCacheService.readStamp();
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         UserResponse userResponse = userMapper.toUserResponse(user);
 
-        // Cache the result
-        userCacheService.cacheUser(userResponse);
+        // Cache the result unless the user was evicted while it was read
+        userCacheService.cacheUser(userResponse, readStamp);
 
         return userResponse;
     }
@@ -249,11 +266,12 @@ public class UserManagementServiceImpl implements UserManagementService {
             return cachedUsers;
         }
 
+        long readStamp = userCacheService.readStamp();
         Page<User> users = userRepository.findAll(pageable);
         Page<UserResponse> userResponses = users.map(userMapper::toUserResponse);
 
-        // Cache the results
-        userCacheService.cacheAllUsers(userResponses, cacheKey);
+        // Cache the results unless a user was evicted while they were read
+        userCacheService.cacheAllUsers(userResponses, cacheKey, readStamp);
 
         return userResponses;
     }
@@ -268,9 +286,11 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDeletedEvent(user.getId(), user.getUsername()));
 
         // Evict the cached user since it was deleted
         userCacheService.evictUser(id);
+        userCacheService.evictUserPages();
 
         log.info("User soft-deleted successfully: ID={}", id);
     }
@@ -287,6 +307,8 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         User updatedUser = userRepository.save(user);
         log.info("User enabled successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "ENABLED"));
 
         // Evict the cached user since it was updated
         userCacheService.evictUser(id);
@@ -310,6 +332,8 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         User updatedUser = userRepository.save(user);
         log.info("User disabled successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "DISABLED"));
 
         // Evict the cached user since it was updated
         userCacheService.evictUser(id);
@@ -333,6 +357,8 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         User updatedUser = userRepository.save(user);
         log.info("User account locked successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "LOCKED"));
 
         // Evict the cached user since it was updated
         userCacheService.evictUser(id);
@@ -356,6 +382,8 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         User updatedUser = userRepository.save(user);
         log.info("User account unlocked successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "UNLOCKED"));
 
         // Evict the cached user since it was updated
         userCacheService.evictUser(id);
@@ -1,5 +1,6 @@
 package com.myproject.nexa.services.impl;
 
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
 import com.myproject.nexa.dto.request.UserUpdateRequest;
 import com.myproject.nexa.dto.response.UserResponse;
 import com.myproject.nexa.entities.Role;
@@ -10,6 +11,7 @@ import com.myproject.nexa.services.UserProfileService;
 import com.myproject.nexa.utils.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 
     private final UserRepository userRepository;
     private final SecurityUtil securityUtil;
+    private final ApplicationEventPublisher eventPublisher;
     private final com.myproject.nexa.mapper.UserMapper userMapper;
 
     @Override
@@ -43,6 +46,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 
         User user = userRepository.findByUsernameWithRoles(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+        String previousUsername = user.getUsername();
 
         // For current user update, we don't validate uniqueness against themselves
         if (request.getUsername() != null && !request.getUsername().equals(user.getUsername())) {
@@ -69,6 +73,8 @@ public class UserProfileServiceImpl implements UserProfileService {
         user.setUpdatedAt(LocalDateTime.now());
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(updatedUser.getId(), previousUsername,
+                updatedUser.getUsername(), updatedUser.getEmail()));
         log.info("Current user updated successfully: {}", updatedUser.getUsername());
         return userMapper.toUserResponse(updatedUser);
     }
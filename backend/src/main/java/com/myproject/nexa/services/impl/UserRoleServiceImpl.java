@@ -1,5 +1,6 @@
 package com.myproject.nexa.services.impl;
 
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
 import com.myproject.nexa.dto.response.RoleResponse;
 import com.myproject.nexa.dto.response.UserResponse;
 import com.myproject.nexa.entities.Role;
@@ -14,6 +15,7 @@ import com.myproject.nexa.repositories.UserRepository;
 import com.myproject.nexa.services.UserRoleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +35,7 @@ public class UserRoleServiceImpl implements UserRoleService {
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
     private final RoleMapper roleMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -71,6 +74,7 @@ public class UserRoleServiceImpl implements UserRoleService {
 
         User updatedUser = userRepository.save(user);
         log.info("Role '{}' assigned to user ID: {}", roleName, userId);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(userId, updatedUser.getUsername(), "ROLE_ASSIGNED"));
         return userMapper.toResponse(updatedUser);
     }
 
@@ -89,6 +93,7 @@ public class UserRoleServiceImpl implements UserRoleService {
         if (user.getRoles() != null && user.getRoles().remove(role)) {
             User updatedUser = userRepository.save(user);
             log.info("Role '{}' removed from user ID: {}", roleName, userId);
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(userId, updatedUser.getUsername(), "ROLE_REMOVED"));
             return userMapper.toResponse(updatedUser);
         } else {
             throw new AppException(ErrorCode.BUSINESS_001, "User does not have the role: " + roleName);
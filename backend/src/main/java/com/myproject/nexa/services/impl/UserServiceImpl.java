@@ -1,5 +1,9 @@
 package com.myproject.nexa.services.impl;
 
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.cqrs.event.UserDeletedEvent;
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
 import com.myproject.nexa.dto.message.UserMessageDTO;
 import com.myproject.nexa.dto.request.UserCreateRequest;
 import com.myproject.nexa.dto.request.UserUpdateRequest;
@@ -13,6 +17,7 @@ import com.myproject.nexa.exceptions.ErrorCode;
 import com.myproject.nexa.repositories.RoleRepository;
 import com.myproject.nexa.repositories.UserRepository;
 import com.myproject.nexa.services.MessageQueueService;
+import com.myproject.nexa.services.UserPageCache;
 import com.myproject.nexa.services.UserService;
 import com.myproject.nexa.utils.AuditLogUtil;
 import com.myproject.nexa.utils.ObservabilityUtil;
@@ -21,6 +26,7 @@ import com.myproject.nexa.utils.SecurityUtil;
 import com.myproject.nexa.dto.projection.UserProjection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -34,6 +40,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -48,6 +55,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
     private final AuditLogUtil auditLogUtil;
     private final SecurityUtil securityUtil;
     private final MessageQueueService messageQueueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserPageCache userPageCache;
 
     private final com.myproject.nexa.mapper.UserMapper userMapper;
 
@@ -58,6 +67,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
                           AuditLogUtil auditLogUtil,
                           SecurityUtil securityUtil,
                           MessageQueueService messageQueueService,
+                          ApplicationEventPublisher eventPublisher,
+                          UserPageCache userPageCache,
                           com.myproject.nexa.mapper.UserMapper userMapper) {
         super(userRepository);
         this.userRepository = userRepository;
@@ -67,6 +78,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         this.auditLogUtil = auditLogUtil;
         this.securityUtil = securityUtil;
         this.messageQueueService = messageQueueService;
+        this.eventPublisher = eventPublisher;
+        this.userPageCache = userPageCache;
         this.userMapper = userMapper;
     }
 
@@ -106,6 +119,9 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         }
 
         User existingUser = existingUserOpt.get();
+        String previousUsername = existingUser.getUsername();
+        Boolean previousEnabled = existingUser.getEnabled();
+        Boolean previousAccountNonLocked = existingUser.getAccountNonLocked();
 
         // Update fields
         existingUser.setUsername(user.getUsername());
@@ -120,6 +136,16 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         existingUser.setCredentialsNonExpired(user.getCredentialsNonExpired());
 
         User updatedUser = userRepository.save(existingUser);
+        eventPublisher.publishEvent(new UserUpdatedEvent(updatedUser.getId(), previousUsername,
+                updatedUser.getUsername(), updatedUser.getEmail()));
+        if (!Objects.equals(previousEnabled, updatedUser.getEnabled())) {
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                    Boolean.TRUE.equals(updatedUser.getEnabled()) ? "ENABLED" : "DISABLED"));
+        }
+        if (!Objects.equals(previousAccountNonLocked, updatedUser.getAccountNonLocked())) {
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                    Boolean.TRUE.equals(updatedUser.getAccountNonLocked()) ? "UNLOCKED" : "LOCKED"));
+        }
 
         // Log the update
         auditLogUtil.logUserUpdate(securityUtil.getCurrentUsername().orElse("system"),
@@ -153,6 +179,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         // Soft delete by setting deletedAt
         user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDeletedEvent(user.getId(), user.getUsername()));
 
         // Log the deletion
         auditLogUtil.logUserDeletion(securityUtil.getCurrentUsername().orElse("system"),
@@ -176,6 +203,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         user.setAccountNonLocked(true);
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(user.getId(), user.getUsername(), "ENABLED"));
 
         // Log the activation
         auditLogUtil.logUserActivation(securityUtil.getCurrentUsername().orElse("system"),
@@ -198,6 +226,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         user.setEnabled(false);
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(user.getId(), user.getUsername(), "DISABLED"));
 
         // Log the deactivation
         auditLogUtil.logUserDeactivation(securityUtil.getCurrentUsername().orElse("system"),
@@ -241,7 +270,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
     }
 
     @Override
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = "users", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public UserResponse getUserById(Long id) {
         log.debug("Getting user by id: {}", id);
@@ -251,7 +280,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
     }
 
     @Override
-    @Cacheable(value = "users", key = "#username")
+    @Cacheable(value = "usersByUsername", key = "#username", sync = true)
     @Transactional(readOnly = true)
     public UserResponse getCurrentUser(String username) {
         log.debug("Getting current user: {}", username);
@@ -271,13 +300,17 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
     }
 
     @Override
-    @Cacheable(value = "usersPage", key = "#pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort")
     @Transactional(readOnly = true)
     public Page<UserResponse> getAllUsers(Pageable pageable) {
         log.debug("Getting users with pagination: page={}, size={}",
                 pageable.getPageNumber(), pageable.getPageSize());
-        Page<User> users = userRepository.findAll(pageable);
-        return users.map(userMapper::toUserResponse);
+        Page<UserResponse> cached = userPageCache.get(pageable);
+        if (cached != null) {
+            return cached;
+        }
+        Page<UserResponse> users = userRepository.findAll(pageable).map(userMapper::toUserResponse);
+        userPageCache.put(pageable, users);
+        return users;
     }
 
     @Override
@@ -286,6 +319,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         log.debug("Updating user with ID: {}", id);
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        String previousUsername = existingUser.getUsername();
 
         // Update user details
         existingUser.setUsername(user.getUsername());
@@ -298,6 +332,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         existingUser.setUpdatedAt(LocalDateTime.now());
 
         User updatedUser = userRepository.save(existingUser);
+        eventPublisher.publishEvent(new UserUpdatedEvent(updatedUser.getId(), previousUsername,
+                updatedUser.getUsername(), updatedUser.getEmail()));
         return userMapper.toUserResponse(updatedUser);
     }
 
@@ -337,6 +373,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
                 User savedUser = userRepository.save(user);
                 log.info("User created successfully with ID: {} and correlation ID: {}", savedUser.getId(),
                         correlationId);
+                eventPublisher.publishEvent(new UserCreatedEvent(savedUser.getId(), savedUser.getUsername(),
+                        savedUser.getEmail()));
 
                 // Record audit log
                 auditLogUtil.logUserAction(
@@ -420,6 +458,12 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
                 User updatedUser = userRepository.save(existingUser);
                 log.info("User updated successfully with ID: {} | Correlation ID: {}", updatedUser.getId(),
                         correlationId);
+                eventPublisher.publishEvent(new UserUpdatedEvent(updatedUser.getId(), oldUsername,
+                        updatedUser.getUsername(), updatedUser.getEmail()));
+                if (request.getEnabled() != null) {
+                    eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(),
+                            updatedUser.getUsername(), request.getEnabled() ? "ENABLED" : "DISABLED"));
+                }
 
                 // Record audit log
                 auditLogUtil.logUserAction(
@@ -469,6 +513,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
 
         User user = userRepository.findByUsernameWithRoles(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+        String previousUsername = user.getUsername();
 
         // For current user update, we don't validate uniqueness against themselves
         if (request.getUsername() != null && !request.getUsername().equals(user.getUsername())) {
@@ -491,12 +536,13 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
         user.setUpdatedAt(LocalDateTime.now());
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(updatedUser.getId(), previousUsername,
+                updatedUser.getUsername(), updatedUser.getEmail()));
         log.info("Current user updated successfully: {}", updatedUser.getUsername());
         return userMapper.toUserResponse(updatedUser);
     }
 
     @Override
-    @Cacheable(value = "users", key = "'username_' + #username")
     @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
         log.debug("Finding user by username: {}", username);
@@ -504,7 +550,6 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
     }
 
     @Override
-    @Cacheable(value = "users", key = "'email_' + #email")
     @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         log.debug("Finding user by email: {}", email);
@@ -638,6 +683,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
 
         User updatedUser = userRepository.save(user);
         log.info("User enabled successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "ENABLED"));
         return userMapper.toUserResponse(updatedUser);
     }
 
@@ -653,6 +700,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
 
         User updatedUser = userRepository.save(user);
         log.info("User disabled successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "DISABLED"));
         return userMapper.toUserResponse(updatedUser);
     }
 
@@ -668,6 +717,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
 
         User updatedUser = userRepository.save(user);
         log.info("User account locked successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "LOCKED"));
         return userMapper.toUserResponse(updatedUser);
     }
 
@@ -683,6 +734,8 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
 
         User updatedUser = userRepository.save(user);
         log.info("User account unlocked successfully: ID={}", id);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                "UNLOCKED"));
         return userMapper.toUserResponse(updatedUser);
     }
 
@@ -726,6 +779,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long, UserResponse, U
 
         user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDeletedEvent(user.getId(), user.getUsername()));
 
         log.info("User soft-deleted successfully: ID={}", id);
 
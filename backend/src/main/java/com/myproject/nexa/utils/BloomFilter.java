@@ -0,0 +1,127 @@
+package com.myproject.nexa.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * Bits live in an {@link AtomicLongArray} so concurrent puts never lose updates and
+ * readers never block. Elements cannot be removed; rebuild the filter instead.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+    private static final double LN2_SQUARED = LN2 * LN2;
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    private BloomFilter(long bitSize, int hashFunctions) {
+        long wordCount = (bitSize + 63) >>> 6;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bitSize + " bits");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitSize = wordCount << 6;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Create a filter sized for the expected number of insertions and target false-positive rate
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / LN2_SQUARED);
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * LN2));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+
+    public void put(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            setBit(index(h1 + i * h2));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            if (!getBit(index(h1 + i * h2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * False-positive probability implied by the current bit density
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitCount() / bitSize, hashFunctions);
+    }
+
+    public long bitCount() {
+        long count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    private long index(int combinedHash) {
+        // Flip negative hashes so every probe maps into the bit array
+        int positive = combinedHash < 0 ? ~combinedHash : combinedHash;
+        return positive % bitSize;
+    }
+
+    private void setBit(long bitIndex) {
+        int wordIndex = (int) (bitIndex >>> 6);
+        long mask = 1L << bitIndex;
+        long current;
+        do {
+            current = words.get(wordIndex);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(wordIndex, current, current | mask));
+    }
+
+    private boolean getBit(long bitIndex) {
+        return (words.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) != 0;
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars followed by the MurmurHash3 finalizer
+     */
+    private static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
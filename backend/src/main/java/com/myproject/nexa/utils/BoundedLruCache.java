@@ -0,0 +1,167 @@
+package com.myproject.nexa.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded, in-process LRU cache with a per-entry expiry. Keys are spread over
+ * independently locked segments, each an access-ordered LinkedHashMap, so concurrent
+ * readers of different keys rarely contend. The capacity is split evenly between the
+ * segments and the least recently used entry of a full segment is evicted on insert.
+ */
+public final class BoundedLruCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity  maximum number of entries
+     * @param ttlMillis lifetime of an entry from insertion, or 0 to keep entries until evicted
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedLruCache(int capacity, long ttlMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        int count = Math.min(16, Integer.highestOneBit(capacity));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>((capacity + count - 1) / count);
+        }
+        this.segmentMask = count - 1;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return the cached value, or null when absent or expired
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && now < entry.expiresAt) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE);
+    }
+
+    /**
+     * Cache a value until the given time; the configured TTL still caps its lifetime
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        if (ttlMillis > 0) {
+            expiresAtMillis = Math.min(expiresAtMillis, System.currentTimeMillis() + ttlMillis);
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, expiresAtMillis));
+            if (segment.evicted) {
+                segment.evicted = false;
+                evictions.increment();
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Remove expired entries; lookups already ignore them, this only frees the memory
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry<V>> iterator = segment.values().iterator();
+                while (iterator.hasNext()) {
+                    if (now >= iterator.next().expiresAt) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private final int capacity;
+        private boolean evicted;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            evicted = size() > capacity;
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.myproject.nexa.utils;
+
+import java.util.Locale;
+
+/**
+ * Hand-written validation and normalization for .nexa labels.
+ * Every check is a single pass over the input with no regex, streams or intermediate
+ * strings. When the input is already canonical the same String instance is returned,
+ * so callers on the hot path only pay for an allocation when the label actually changes.
+ */
+public final class DomainLabelUtil {
+
+    public static final String DOMAIN_SUFFIX = ".nexa";
+    public static final int MIN_DOMAIN_LENGTH = 2;
+    public static final int MAX_LABEL_LENGTH = 63;
+
+    private static final int SUFFIX_LENGTH = DOMAIN_SUFFIX.length();
+
+    private DomainLabelUtil() {
+    }
+
+    /**
+     * Trim, strip the .nexa suffix and lower-case a name without validating it.
+     * Returns an empty string when nothing is left and null for null input.
+     */
+    public static String canonicalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        int start = trimStart(name);
+        int end = labelEnd(name, start);
+        return lowerCase(name, start, end);
+    }
+
+    /**
+     * Canonicalize and validate a domain name in one pass.
+     *
+     * @return the lower-case label without suffix, or null if it is not a valid domain label
+     */
+    public static String normalizeLabel(String name) {
+        if (name == null) {
+            return null;
+        }
+        int start = trimStart(name);
+        int end = labelEnd(name, start);
+        int length = end - start;
+        if (length < MIN_DOMAIN_LENGTH || length > MAX_LABEL_LENGTH
+                || name.charAt(start) == '-' || name.charAt(end - 1) == '-') {
+            return null;
+        }
+
+        boolean hasUpper = false;
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                hasUpper = true;
+            } else if (!isLowerLabelChar(c)) {
+                return null;
+            }
+        }
+
+        if (!hasUpper) {
+            return start == 0 && end == name.length() ? name : name.substring(start, end);
+        }
+        char[] chars = new char[length];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = toLowerAscii(name.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Check a bare label (no trimming or suffix handling): letters, digits and hyphens,
+     * not starting or ending with a hyphen, between minLength and 63 characters
+     */
+    public static boolean isValidLabel(CharSequence label, int minLength) {
+        if (label == null) {
+            return false;
+        }
+        int length = label.length();
+        if (length < minLength || length == 0 || length > MAX_LABEL_LENGTH
+                || label.charAt(0) == '-' || label.charAt(length - 1) == '-') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = label.charAt(i);
+            if (!isLowerLabelChar(c) && !(c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count ASCII vowels in a label, case-insensitively
+     */
+    public static int countVowels(CharSequence label) {
+        int vowels = 0;
+        for (int i = 0; i < label.length(); i++) {
+            switch (toLowerAscii(label.charAt(i))) {
+                case 'a', 'e', 'i', 'o', 'u' -> vowels++;
+                default -> {
+                }
+            }
+        }
+        return vowels;
+    }
+
+    private static int trimStart(String name) {
+        int start = 0;
+        while (start < name.length() && name.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * End index of the label once trailing whitespace and the .nexa suffix are removed
+     */
+    private static int labelEnd(String name, int start) {
+        int end = name.length();
+        while (end > start && name.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= SUFFIX_LENGTH
+                && name.regionMatches(true, end - SUFFIX_LENGTH, DOMAIN_SUFFIX, 0, SUFFIX_LENGTH)) {
+            end -= SUFFIX_LENGTH;
+        }
+        return end;
+    }
+
+    private static String lowerCase(String name, int start, int end) {
+        boolean hasUpper = false;
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                // Leave non-ASCII input to the full Unicode case mapping
+                return name.substring(start, end).toLowerCase(Locale.ROOT);
+            }
+            if (c >= 'A' && c <= 'Z') {
+                hasUpper = true;
+            }
+        }
+
+        if (!hasUpper) {
+            return start == 0 && end == name.length() ? name : name.substring(start, end);
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = toLowerAscii(name.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static boolean isLowerLabelChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-';
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
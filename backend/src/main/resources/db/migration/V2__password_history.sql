@@ -0,0 +1,12 @@
+-- V2__password_history.sql
+-- Password history kept apart from users so loading a user never touches it
+
+CREATE TABLE user_password_history (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_password_history_user_created ON user_password_history(user_id, created_at DESC);
@@ -0,0 +1,7 @@
+-- V3__refresh_token_audit.sql
+-- Refresh tokens live in Redis; this table is a write-behind audit copy keyed by the
+-- SHA-256 hash of each token, with one row per token of a rotation family
+
+ALTER TABLE refresh_tokens ADD COLUMN family_id VARCHAR(64);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens(family_id);
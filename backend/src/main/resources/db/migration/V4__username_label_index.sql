@@ -0,0 +1,5 @@
+-- V4__username_label_index.sql
+-- Domain labels are lower-case usernames; index the expression so label lookups
+-- (LOWER(username) = ? / IN (...)) use an index instead of scanning users
+
+CREATE INDEX idx_users_username_lower ON users(LOWER(username));
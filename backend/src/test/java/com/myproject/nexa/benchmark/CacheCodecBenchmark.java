@@ -0,0 +1,104 @@
+package com.myproject.nexa.benchmark;
+
+import com.myproject.nexa.cache.CompactCacheCodec;
+import com.myproject.nexa.cache.IdPage;
+import com.myproject.nexa.dto.response.UserResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode time of the cache codecs for a single user, a page of 20 users and the ID
+ * page the user cache stores instead. main() prints the encoded size of each payload
+ * before running, since the size is what Redis memory and network traffic scale with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"java", "compact"})
+    private String codec;
+
+    @Param({"user", "page", "idPage"})
+    private String payload;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        serializer = serializer(codec);
+        value = payload(payload);
+        encoded = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        blackhole.consume(serializer.serialize(value));
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        blackhole.consume(serializer.deserialize(encoded));
+    }
+
+    private static RedisSerializer<Object> serializer(String codec) {
+        return "compact".equals(codec) ? new CompactCacheCodec() : RedisSerializer.java();
+    }
+
+    private static Object payload(String payload) {
+        List<UserResponse> users = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            users.add(UserResponse.builder()
+                    .id(1000 + id)
+                    .username("user" + id)
+                    .email("user" + id + "@example.com")
+                    .firstName("First" + id)
+                    .lastName("Last" + id)
+                    .phone("+1555000" + id)
+                    .enabled(true)
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(id))
+                    .updatedAt(LocalDateTime.of(2024, 6, 1, 0, 0).plusMinutes(id))
+                    .roles(List.of("ROLE_USER"))
+                    .build());
+        }
+        Page<UserResponse> page = new PageImpl<>(users, PageRequest.of(0, 20), 1000);
+        return switch (payload) {
+            case "user" -> users.get(0);
+            case "page" -> page;
+            case "idPage" -> IdPage.of(page, UserResponse::getId);
+            default -> throw new IllegalArgumentException(payload);
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (String payload : List.of("user", "page", "idPage")) {
+            for (String codec : List.of("java", "compact")) {
+                System.out.printf("%-8s %-8s %6d bytes%n", payload, codec,
+                        serializer(codec).serialize(payload(payload)).length);
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .include(CacheCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
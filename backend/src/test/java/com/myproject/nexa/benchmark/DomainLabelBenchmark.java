@@ -0,0 +1,59 @@
+package com.myproject.nexa.benchmark;
+
+import com.myproject.nexa.utils.DomainLabelUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the regex/stream based label handling previously used by the domain
+ * services with {@link DomainLabelUtil}. Run with -prof gc to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainLabelBenchmark {
+
+    @Param({"acme", "  My-Startup.NEXA ", "not_valid!"})
+    private String input;
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        String clean = input.toLowerCase().trim();
+        if (clean.endsWith(".nexa")) {
+            clean = clean.substring(0, clean.length() - 5);
+        }
+        boolean valid = Pattern.matches("^[a-zA-Z0-9]([a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?$", clean)
+                && clean.length() >= 2
+                && clean.length() <= 63;
+        blackhole.consume(valid);
+        blackhole.consume(clean.chars()
+                .filter(c -> "aeiou".indexOf(Character.toLowerCase(c)) >= 0)
+                .count());
+    }
+
+    @Benchmark
+    public void handWritten(Blackhole blackhole) {
+        String label = DomainLabelUtil.normalizeLabel(input);
+        blackhole.consume(label);
+        if (label != null) {
+            blackhole.consume(DomainLabelUtil.countVowels(label));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DomainLabelBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.myproject.nexa.benchmark;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify throughput per signing algorithm supported by JwtKeyManager, with a parser
+ * built once as in JwtTokenProvider. Signing is measured too since it moves to the
+ * auth service only, while verification runs on every node.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSignatureBenchmark {
+
+    @Param({"HS512", "RS256", "ES256"})
+    private String algorithm;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setup() {
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.forName(algorithm);
+        Key verificationKey;
+        if (signatureAlgorithm.isHmac()) {
+            signingKey = Keys.secretKeyFor(signatureAlgorithm);
+            verificationKey = signingKey;
+        } else {
+            KeyPair keyPair = Keys.keyPairFor(signatureAlgorithm);
+            signingKey = keyPair.getPrivate();
+            verificationKey = keyPair.getPublic();
+        }
+        parser = Jwts.parserBuilder().setSigningKey(verificationKey).build();
+        token = sign();
+    }
+
+    @Benchmark
+    public void verify(Blackhole blackhole) {
+        blackhole.consume(parser.parseClaimsJws(token).getBody().getSubject());
+    }
+
+    @Benchmark
+    public void sign(Blackhole blackhole) {
+        blackhole.consume(sign());
+    }
+
+    private String sign() {
+        return Jwts.builder()
+                .setSubject("benchmark-user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtSignatureBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
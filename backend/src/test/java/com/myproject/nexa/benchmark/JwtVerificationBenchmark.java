@@ -0,0 +1,106 @@
+package com.myproject.nexa.benchmark;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.security.JwtKeyManager;
+import com.myproject.nexa.security.JwtTokenProvider;
+import com.myproject.nexa.security.TokenVersionService;
+import com.myproject.nexa.security.VerifiedToken;
+import com.myproject.nexa.security.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request JWT cost in the authentication filter: the previous path rebuilt the key
+ * and parser for every call and parsed the token twice (validate, then read the subject),
+ * the current one uses the cached parser and {@link JwtTokenProvider#verify(String)},
+ * with and without the verified token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs512-signing-0123456789";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtTokenProvider cachingTokenProvider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = tokenProvider(0);
+        cachingTokenProvider = tokenProvider(1000);
+
+        token = Jwts.builder()
+                .setSubject("benchmark-user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        SecretKey keyAgain = Keys.hmacShaKeyFor(SECRET.getBytes());
+        blackhole.consume(Jwts.parserBuilder().setSigningKey(keyAgain).build()
+                .parseClaimsJws(token).getBody().getSubject());
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole blackhole) {
+        blackhole.consume(tokenProvider.verify(token).map(VerifiedToken::getSubject).orElse(null));
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        blackhole.consume(cachingTokenProvider.verify(token).map(VerifiedToken::getSubject).orElse(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JwtTokenProvider tokenProvider(int cacheSize) {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getJwt().setSecret(SECRET);
+        appProperties.getJwt().setVerifiedTokenCacheSize(cacheSize);
+        // No session is revoked
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(appProperties, new SimpleMeterRegistry(),
+                redisTemplate, mock(RedisMessageListenerContainer.class));
+        verifiedTokenCache.init();
+        JwtKeyManager jwtKeyManager = new JwtKeyManager(appProperties, null, null, null);
+        jwtKeyManager.init();
+        JwtTokenProvider provider = new JwtTokenProvider(appProperties,
+                new TokenVersionService(null, appProperties), verifiedTokenCache, jwtKeyManager);
+        provider.init();
+        return provider;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
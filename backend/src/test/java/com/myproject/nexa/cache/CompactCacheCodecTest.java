@@ -0,0 +1,73 @@
+package com.myproject.nexa.cache;
+
+import com.myproject.nexa.dto.response.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheCodecTest {
+
+    private final CompactCacheCodec codec = new CompactCacheCodec();
+
+    @Test
+    void testUserRoundTripIsSmallerThanJavaSerialization() {
+        UserResponse user = user(42L);
+
+        byte[] bytes = codec.serialize(user);
+
+        assertEquals(user, codec.deserialize(bytes));
+        assertTrue(bytes.length * 4 < RedisSerializer.java().serialize(user).length);
+    }
+
+    @Test
+    void testPagesAndIdPagesRoundTrip() {
+        PageRequest request = PageRequest.of(2, 10, Sort.by(Sort.Order.desc("createdAt")));
+        Page<UserResponse> page = new PageImpl<>(List.of(user(1L), user(2L)), request, 22);
+
+        Page<?> decoded = (Page<?>) codec.deserialize(codec.serialize(page));
+        assertEquals(page.getContent(), decoded.getContent());
+        assertEquals(request, decoded.getPageable());
+        assertEquals(22, decoded.getTotalElements());
+
+        IdPage idPage = (IdPage) codec.deserialize(codec.serialize(IdPage.of(page, UserResponse::getId)));
+        assertEquals(List.of(1L, 2L), idPage.getIds());
+        assertEquals(request, idPage.getPageable());
+        assertEquals(22, idPage.getTotal());
+    }
+
+    @Test
+    void testOtherValuesFallBackAndUnknownVersionsFail() {
+        assertEquals(NullValue.INSTANCE, codec.deserialize(codec.serialize(NullValue.INSTANCE)));
+        assertEquals("plain", codec.deserialize(codec.serialize("plain")));
+        // Entries written with JDK serialization before the codec was introduced
+        assertEquals(user(7L), codec.deserialize(RedisSerializer.java().serialize(user(7L))));
+
+        byte[] bytes = codec.serialize(user(1L));
+        bytes[2] = 99;
+        assertThrows(SerializationException.class, () -> codec.deserialize(bytes));
+    }
+
+    private static UserResponse user(Long id) {
+        return UserResponse.builder()
+                .id(id)
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .enabled(true)
+                .createdAt(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000))
+                .updatedAt(LocalDateTime.of(2024, 6, 2, 8, 0))
+                .roles(List.of("ROLE_USER"))
+                .build();
+    }
+}
@@ -0,0 +1,211 @@
+package com.myproject.nexa.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.myproject.nexa.utils.BoundedLruCache;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get("cache_generation:users")).thenReturn("3");
+        meterRegistry = new SimpleMeterRegistry();
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(redisTemplate, listenerContainer,
+                RedisSerializer.java(), meterRegistry, Map.of("users", 1800000L), 3600000L, 60000L, 100, 1.0);
+        cache = manager.getCache("users");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPutIsServedFromLocalTier() {
+        cache.put(1L, "alice");
+
+        assertEquals("alice", cache.get(1L, String.class));
+        // One write to Redis, no read
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+        assertEquals(1.0, meterRegistry.get("cache.tier.requests")
+                .tags("tier", "l1", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRedisHitIsPromotedToLocalTier() {
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenReturn(RedisSerializer.java().serialize("bob"));
+
+        assertEquals("bob", cache.get(2L, String.class));
+        assertEquals("bob", cache.get(2L, String.class));
+
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+        assertEquals(1.0, meterRegistry.get("cache.tier.requests")
+                .tags("tier", "l2", "result", "hit").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAllReadsOnlyLocalMissesFromRedis() {
+        cache.put(1L, "alice");
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenReturn(Arrays.asList(RedisSerializer.java().serialize("bob"), null));
+
+        Map<String, Object> found = ((TwoLevelCache) cache).getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(Map.of("1", "alice", "2", "bob"), found);
+        // The put and one MGET for keys 2 and 3
+        verify(redisTemplate, times(2)).execute(any(RedisCallback.class));
+        assertEquals("bob", cache.get(2L, String.class));
+    }
+
+    @Test
+    void testInvalidationFromAnotherNodeDropsEveryListedKey() {
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(ChannelTopic.class));
+        cache.put(1L, "alice");
+        cache.put(2L, "bob");
+        cache.put(3L, "carol");
+
+        listener.getValue().onMessage(new DefaultMessage(
+                TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node\nusers\n1\n2".getBytes(StandardCharsets.UTF_8)), null);
+
+        BoundedLruCache<?, ?> local = (BoundedLruCache<?, ?>) cache.getNativeCache();
+        assertEquals(1, local.size());
+        assertEquals("carol", cache.get(3L, String.class));
+    }
+
+    @Test
+    void testClearBumpsGeneration() {
+        when(valueOperations.increment("cache_generation:users")).thenReturn(4L);
+
+        cache.clear();
+
+        verify(valueOperations).increment("cache_generation:users");
+        verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), any(String.class));
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return "carol";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> cache.get(3L, loader));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(() -> cache.get(3L, loader));
+            Counter coalesced = meterRegistry.get("cache.single_flight.coalesced").counter();
+            waitUntil(() -> coalesced.count() > 0);
+            release.countDown();
+
+            assertEquals("carol", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("carol", waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedEarlyRefreshServesCurrentValue() throws Exception {
+        Cache shortLived = shortLivedCache();
+        assertEquals("alice", shortLived.get(1L, () -> "alice"));
+        // Past the entry's expiry as recorded at load, so the next hit refreshes early
+        Thread.sleep(20);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(RedisSerializer.java().serialize("alice"));
+
+        AtomicInteger refreshes = new AtomicInteger();
+        Callable<String> failing = () -> {
+            refreshes.incrementAndGet();
+            throw new IllegalStateException("database down");
+        };
+
+        assertEquals("alice", shortLived.get(1L, failing));
+        assertEquals(1, refreshes.get());
+        // The failure is not retried on every hit
+        assertEquals("alice", shortLived.get(1L, failing));
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPutResetsEarlyRefresh() throws Exception {
+        Cache shortLived = shortLivedCache();
+        shortLived.get(1L, () -> "alice");
+        shortLived.put(1L, "alicia");
+        Thread.sleep(20);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(RedisSerializer.java().serialize("alicia"));
+
+        assertEquals("alicia", shortLived.get(1L, () -> fail("an explicitly written entry must not be refreshed")));
+    }
+
+    /**
+     * A cache whose entries expire after 5 ms, with early refresh always due once they have
+     */
+    private Cache shortLivedCache() {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(redisTemplate, listenerContainer,
+                RedisSerializer.java(), new SimpleMeterRegistry(), Map.of("short", 5L), 3600000L, 60000L, 100, 1.0);
+        return manager.getCache("short");
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            Thread.sleep(1);
+        }
+    }
+}
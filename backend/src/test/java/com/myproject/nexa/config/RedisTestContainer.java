@@ -0,0 +1,28 @@
+package com.myproject.nexa.config;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+
+/**
+ * Redis for tests that run the Lua scripts against a real server
+ */
+public final class RedisTestContainer {
+
+    private RedisTestContainer() {
+    }
+
+    public static GenericContainer<?> create() {
+        return new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+    }
+
+    public static StringRedisTemplate template(GenericContainer<?> redis) {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        template.afterPropertiesSet();
+        return template;
+    }
+}
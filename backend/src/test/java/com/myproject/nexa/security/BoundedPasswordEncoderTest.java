@@ -0,0 +1,61 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void testEncodeAndMatchOnHashingPool() {
+        AppProperties.Security config = new AppProperties.Security();
+        config.setPasswordHashAutoCalibrate(false);
+        config.setPasswordHashMinCost(4);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(config, meterRegistry);
+
+        String hash = encoder.encode("Secret-Password-1");
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("Secret-Password-1", hash));
+        assertFalse(encoder.matches("other", hash));
+        assertEquals(2, meterRegistry.get("password_hash.duration").tag("operation", "matches").timer().count());
+
+        encoder.destroy();
+    }
+
+    @Test
+    void testMatchesAnyAgainstHistory() {
+        AppProperties.Security config = new AppProperties.Security();
+        config.setPasswordHashAutoCalibrate(false);
+        config.setPasswordHashMinCost(4);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(config, new SimpleMeterRegistry());
+
+        List<String> history = List.of(
+                encoder.encode("Old-Password-1"),
+                encoder.encode("Old-Password-2"),
+                encoder.encode("Old-Password-3"));
+        assertTrue(encoder.matchesAny("Old-Password-2", history));
+        assertFalse(encoder.matchesAny("New-Password-4", history));
+        assertFalse(encoder.matchesAny("New-Password-4", List.of()));
+
+        encoder.destroy();
+    }
+
+    @Test
+    void testCalibratedCostStaysWithinBounds() {
+        AppProperties.Security config = new AppProperties.Security();
+        config.setPasswordHashMinCost(4);
+        config.setPasswordHashMaxCost(6);
+        config.setPasswordHashTargetMs(60000);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(config, new SimpleMeterRegistry());
+
+        // A generous target climbs to the upper bound
+        assertTrue(encoder.encode("Secret-Password-1").startsWith("$2a$06$"));
+
+        encoder.destroy();
+    }
+}
@@ -0,0 +1,147 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.services.DistributedLockService;
+import com.myproject.nexa.services.SecretsManagementService;
+import io.jsonwebtoken.JwsHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyManagerTest {
+
+    private static final String SIGNING_KEYS_KEY = "jwt_signing_keys";
+
+    @Mock
+    private SecretsManagementService secretsManagementService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private DistributedLockService distributedLockService;
+
+    // Stands in for the Redis hash shared by all nodes
+    private final Map<Object, Object> storedKeys = new HashMap<>();
+
+    private JwtKeyManager keyManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getJwt().setAlgorithm(AppProperties.Jwt.Algorithm.ES256);
+        keyManager = new JwtKeyManager(appProperties, secretsManagementService, redisTemplate, distributedLockService);
+
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(SIGNING_KEYS_KEY)).thenAnswer(invocation -> new HashMap<>(storedKeys));
+        lenient().doAnswer(invocation -> storedKeys.put(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(hashOperations).put(eq(SIGNING_KEYS_KEY), any(), any());
+        lenient().when(secretsManagementService.encryptSecret(anyString()))
+                .thenAnswer(invocation -> "enc:" + invocation.getArgument(0));
+        lenient().when(secretsManagementService.decryptSecret(startsWith("enc:")))
+                .thenAnswer(invocation -> invocation.<String>getArgument(0).substring(4));
+    }
+
+    @Test
+    void testRotationPublishesJwksAndKeepsPreviousKeyVerifiable() throws Exception {
+        when(distributedLockService.acquireLock(anyString(), anyLong())).thenReturn("lock");
+        when(secretsManagementService.generateSigningKeyPair(AppProperties.Jwt.Algorithm.ES256))
+                .thenReturn(ecKeyPair(), ecKeyPair());
+
+        keyManager.init();
+        String firstKid = keyManager.activeKid();
+        assertNotNull(firstKid);
+        assertNotNull(keyManager.signingKey());
+
+        keyManager.rotate(true);
+        String secondKid = keyManager.activeKid();
+        assertNotEquals(firstKid, secondKid);
+
+        List<Map<String, Object>> keys = jwks();
+        assertEquals(2, keys.size());
+        Map<String, Object> jwk = keys.stream().filter(key -> secondKid.equals(key.get("kid"))).findFirst().orElseThrow();
+        assertEquals("EC", jwk.get("kty"));
+        assertEquals("P-256", jwk.get("crv"));
+        assertEquals("ES256", jwk.get("alg"));
+        assertEquals(43, ((String) jwk.get("x")).length());
+        assertEquals(43, ((String) jwk.get("y")).length());
+
+        // Tokens signed before the rotation still verify
+        assertNotNull(keyManager.resolveSigningKey(header(firstKid), ""));
+        verify(distributedLockService, times(2)).releaseLock(anyString(), eq("lock"));
+    }
+
+    @Test
+    void testNodeThatLosesRotationLockWaitsForTheWinnersKey() throws Exception {
+        KeyPair winnersKey = ecKeyPair();
+        // The other node stores its key while holding the lock
+        when(distributedLockService.acquireLock(anyString(), anyLong())).thenAnswer(invocation -> {
+            storedKeys.put("winner", stored(winnersKey, System.currentTimeMillis(), "enc:"));
+            return null;
+        });
+
+        keyManager.init();
+
+        assertEquals("winner", keyManager.activeKid());
+        assertEquals(1, jwks().size());
+        verify(secretsManagementService, never()).generateSigningKeyPair(any());
+    }
+
+    @Test
+    void testUndecryptableKeyIsReportedAndStillVerifies() throws Exception {
+        storedKeys.put("current", stored(ecKeyPair(), System.currentTimeMillis() - 1000, "enc:"));
+        keyManager.init();
+        assertEquals("current", keyManager.activeKid());
+
+        storedKeys.put("broken", stored(ecKeyPair(), System.currentTimeMillis(), "bad:"));
+        when(secretsManagementService.decryptSecret(startsWith("bad:"))).thenThrow(new IllegalArgumentException("bad key"));
+
+        assertThrows(IllegalStateException.class, keyManager::reload);
+        assertEquals("current", keyManager.activeKid());
+        assertNotNull(keyManager.resolveSigningKey(header("broken"), ""));
+        assertEquals(2, jwks().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> jwks() {
+        return (List<Map<String, Object>>) keyManager.jwks().get("keys");
+    }
+
+    private static JwsHeader<?> header(String kid) {
+        JwsHeader<?> header = mock(JwsHeader.class);
+        when(header.getKeyId()).thenReturn(kid);
+        return header;
+    }
+
+    private static String stored(KeyPair keyPair, long createdAt, String encryptionPrefix) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return "ES256;" + createdAt + ";" + encoder.encodeToString(keyPair.getPublic().getEncoded()) + ";"
+                + encryptionPrefix + encoder.encodeToString(keyPair.getPrivate().getEncoded());
+    }
+
+    private static KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,142 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.entities.Role;
+import com.myproject.nexa.entities.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenProviderTest {
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getJwt().setSecret("test-secret-key-that-is-long-enough-for-hs512-signing-0123456789abcdef");
+        verifiedTokenCache = new VerifiedTokenCache(appProperties, new SimpleMeterRegistry(),
+                redisTemplate, listenerContainer);
+        verifiedTokenCache.init();
+        JwtKeyManager jwtKeyManager = new JwtKeyManager(appProperties, null, null, null);
+        jwtKeyManager.init();
+        tokenProvider = new JwtTokenProvider(appProperties, tokenVersionService, verifiedTokenCache, jwtKeyManager);
+        tokenProvider.init();
+    }
+
+    @Test
+    void testPrincipalIsRebuiltFromClaims() {
+        when(tokenVersionService.issuingVersion(7L)).thenReturn(3L);
+        when(tokenVersionService.currentVersion(7L)).thenReturn(3L);
+        String token = tokenProvider.generateToken(authenticationFor(user()));
+
+        VerifiedToken verified = tokenProvider.verify(token).orElseThrow();
+        assertTrue(verified.hasPrincipalClaims());
+        assertFalse(tokenProvider.isRevoked(verified));
+
+        TokenPrincipal principal = verified.toPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals(42L, principal.getTenantId());
+        assertTrue(principal.isEnabled());
+        assertFalse(principal.isAccountNonLocked());
+        assertEquals("ROLE_ADMIN", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testBumpedVersionRevokesToken() {
+        when(tokenVersionService.issuingVersion(7L)).thenReturn(3L);
+        when(tokenVersionService.currentVersion(7L)).thenReturn(4L);
+        VerifiedToken verified = tokenProvider.verify(tokenProvider.generateToken(authenticationFor(user())))
+                .orElseThrow();
+
+        assertTrue(tokenProvider.isRevoked(verified));
+    }
+
+    @Test
+    void testUnknownVersionLeavesPrincipalClaimsOut() {
+        when(tokenVersionService.issuingVersion(7L)).thenReturn(null);
+        VerifiedToken verified = tokenProvider.verify(tokenProvider.generateToken(authenticationFor(user())))
+                .orElseThrow();
+
+        assertEquals("alice", verified.getSubject());
+        assertFalse(verified.hasPrincipalClaims());
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        when(tokenVersionService.issuingVersion(7L)).thenReturn(0L);
+        String token = tokenProvider.generateToken(authenticationFor(user()));
+
+        assertTrue(tokenProvider.verify(token.substring(0, token.length() - 2) + "xx").isEmpty());
+    }
+
+    @Test
+    void testRepeatedVerificationIsServedFromCache() {
+        when(tokenVersionService.issuingVersion(7L)).thenReturn(0L);
+        String token = tokenProvider.generateToken(authenticationFor(user()));
+
+        VerifiedToken first = tokenProvider.verify(token).orElseThrow();
+        assertSame(first, tokenProvider.verify(token).orElseThrow());
+
+        tokenProvider.evictVerified(token);
+        VerifiedToken reverified = tokenProvider.verify(token).orElseThrow();
+        assertNotSame(first, reverified);
+        assertEquals(first.getSubject(), reverified.getSubject());
+    }
+
+    @Test
+    void testTokenOfRevokedSessionIsRejected() {
+        when(tokenVersionService.issuingVersion(7L)).thenReturn(0L);
+        String token = tokenProvider.generateToken(authenticationFor(user()));
+        assertTrue(tokenProvider.verify(token).isPresent());
+
+        // What SessionManagementService leaves behind when the session is invalidated
+        when(redisTemplate.hasKey(VerifiedTokenCache.REVOKED_TOKEN_PREFIX + token)).thenReturn(true);
+        tokenProvider.evictVerified(token);
+
+        assertTrue(tokenProvider.verify(token).isEmpty());
+    }
+
+    private static User user() {
+        Role role = new Role();
+        role.setName("ADMIN");
+        User user = new User();
+        user.setId(7L);
+        user.setTenantId(42L);
+        user.setUsername("alice");
+        user.setEnabled(true);
+        user.setAccountNonLocked(false);
+        user.setAccountNonExpired(true);
+        user.setCredentialsNonExpired(true);
+        user.setRoles(new ArrayList<>(List.of(role)));
+        return user;
+    }
+
+    private static UsernamePasswordAuthenticationToken authenticationFor(User user) {
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
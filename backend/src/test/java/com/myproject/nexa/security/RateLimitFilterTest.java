@@ -0,0 +1,111 @@
+package com.myproject.nexa.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myproject.nexa.config.RateLimitConfig;
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.services.RateLimitService;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs JwtAuthenticationFilter and RateLimitFilter in the order SecurityConfig registers them
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock
+    private RateLimitService rateLimitService;
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private UserDetailsNearCache userDetailsNearCache;
+
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties appProperties = new AppProperties();
+        AppProperties.RateLimit.Policy auth = policy("auth", "/api/v1/auth/**", 10);
+        AppProperties.RateLimit.Policy users = policy("users", "/api/v1/users/**", 100);
+        users.setKeyStrategy(AppProperties.RateLimit.KeyStrategy.USER);
+        users.getUserLimits().put("alice", 1000);
+        appProperties.getRateLimit().setPolicies(List.of(auth, users));
+
+        RateLimitPolicyEngine engine = new RateLimitPolicyEngine(new RateLimitConfig(appProperties), appProperties);
+        engine.init();
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(tokenProvider, userDetailsNearCache, appProperties);
+        rateLimitFilter = new RateLimitFilter(rateLimitService, new ObjectMapper(), engine);
+
+        when(rateLimitService.check(anyString(), isNull(), anyInt(), anyLong(), eq(TimeUnit.SECONDS)))
+                .thenReturn(RateLimitDecision.failOpen(10, 60));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testEncodedAndParameterizedPathsHitAuthPolicy() throws Exception {
+        for (String uri : List.of("/api/v1/auth/login", "/api/v1/%61uth/login", "/api/v1/auth;x=1/login")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+            request.setRemoteAddr("10.0.0.1");
+            run(request);
+        }
+
+        verify(rateLimitService, times(3)).check(
+                eq("rl:auth:ip:10.0.0.1"), isNull(), eq(10), eq(60L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testAuthenticatedCallerIsLimitedPerUser() throws Exception {
+        VerifiedToken token = mock(VerifiedToken.class);
+        when(token.getSubject()).thenReturn("alice");
+        when(tokenProvider.verify("token")).thenReturn(Optional.of(token));
+        when(userDetailsNearCache.load(eq("alice"), any()))
+                .thenReturn(User.withUsername("alice").password("").roles("USER").build());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/42");
+        request.addHeader("Authorization", "Bearer token");
+        request.setRemoteAddr("10.0.0.1");
+        run(request);
+
+        verify(rateLimitService).check(
+                eq("rl:users:user:alice"), isNull(), eq(1000), eq(60L), eq(TimeUnit.SECONDS));
+    }
+
+    private void run(MockHttpServletRequest request) throws Exception {
+        new MockFilterChain(new HttpServlet() {}, jwtAuthenticationFilter, rateLimitFilter)
+                .doFilter(request, new MockHttpServletResponse());
+        SecurityContextHolder.clearContext();
+    }
+
+    private static AppProperties.RateLimit.Policy policy(String name, String pattern, int limit) {
+        AppProperties.RateLimit.Policy policy = new AppProperties.RateLimit.Policy();
+        policy.setName(name);
+        policy.setPattern(pattern);
+        policy.setLimit(limit);
+        return policy;
+    }
+}
@@ -0,0 +1,68 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.RateLimitConfig;
+import com.myproject.nexa.config.properties.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitPolicyEngineTest {
+
+    private AppProperties appProperties;
+    private RateLimitPolicyEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        appProperties.getRateLimit().setPolicies(List.of(
+                policy("auth", "/api/v1/auth/**", 10),
+                policy("login", "/api/v1/auth/login", 5),
+                policy("user-items", "/api/v1/users/*/items", 20),
+                policy("contact", "/api/v1/public/contact", 3)));
+        engine = new RateLimitPolicyEngine(new RateLimitConfig(appProperties), appProperties);
+        engine.init();
+    }
+
+    @Test
+    void testMostSpecificRuleWins() {
+        assertEquals("login", engine.match("POST", "/api/v1/auth/login").getName());
+        assertEquals("auth", engine.match("POST", "/api/v1/auth/refresh").getName());
+        assertEquals("auth", engine.match("GET", "/api/v1/auth").getName());
+    }
+
+    @Test
+    void testWildcardSegmentAndExactRules() {
+        assertEquals("user-items", engine.match("GET", "/api/v1/users/42/items").getName());
+        assertNull(engine.match("GET", "/api/v1/users/42"));
+        assertEquals("contact", engine.match("POST", "/api/v1/public/contact").getName());
+        assertNull(engine.match("POST", "/api/v1/public/contact/extra"));
+    }
+
+    @Test
+    void testMethodFilterAndTiers() {
+        AppProperties.RateLimit.Policy write = policy("writes", "/api/v1/domain/**", 50);
+        write.setMethods(List.of("post"));
+        write.getTenantLimits().put("acme", 500);
+        write.getUserLimits().put("alice", 1000);
+        appProperties.getRateLimit().setPolicies(List.of(write));
+        engine.reload();
+
+        RateLimitPolicy policy = engine.match("POST", "/api/v1/domain/availability/batch");
+        assertNotNull(policy);
+        assertNull(engine.match("GET", "/api/v1/domain/availability/batch"));
+        assertEquals(50, policy.limitFor(null, null));
+        assertEquals(500, policy.limitFor("acme", "bob"));
+        assertEquals(1000, policy.limitFor("acme", "alice"));
+    }
+
+    private static AppProperties.RateLimit.Policy policy(String name, String pattern, int limit) {
+        AppProperties.RateLimit.Policy policy = new AppProperties.RateLimit.Policy();
+        policy.setName(name);
+        policy.setPattern(pattern);
+        policy.setLimit(limit);
+        return policy;
+    }
+}
@@ -0,0 +1,88 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.RedisTestContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the GCRA script against a real Redis
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RateLimitingServiceTest {
+
+    @Container
+    static GenericContainer<?> redis = RedisTestContainer.create();
+
+    private RateLimitingService rateLimitingService;
+
+    @BeforeEach
+    void setUp() {
+        StringRedisTemplate redisTemplate = RedisTestContainer.template(redis);
+        redisTemplate.getRequiredConnectionFactory().getConnection().serverCommands().flushAll();
+        rateLimitingService = new RateLimitingService(redisTemplate);
+        rateLimitingService.preloadScript();
+    }
+
+    @Test
+    void testBurstIsAdmittedUpToLimitThenDenied() {
+        // One request every 2 seconds, bursting up to 5
+        for (int i = 4; i >= 0; i--) {
+            RateLimitDecision decision = rateLimitingService.check("alice", 5, 10);
+            assertTrue(decision.isAllowed());
+            assertEquals(i, decision.getRemaining());
+            assertEquals(0, decision.getRetryAfterSeconds());
+        }
+
+        RateLimitDecision denied = rateLimitingService.check("alice", 5, 10);
+
+        assertFalse(denied.isAllowed());
+        assertEquals(0, denied.getRemaining());
+        assertEquals(2, denied.getRetryAfterSeconds());
+        // Other keys have their own quota
+        assertTrue(rateLimitingService.check("bob", 5, 10).isAllowed());
+    }
+
+    @Test
+    void testPartialRefillAdmitsAndReportsRemainingAndReset() throws Exception {
+        // One request every 200 ms, bursting up to 5
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimitingService.check("alice", 5, 1).isAllowed());
+        }
+        assertFalse(rateLimitingService.check("alice", 5, 1).isAllowed());
+
+        Thread.sleep(450);
+        long before = System.currentTimeMillis();
+        RateLimitDecision decision = rateLimitingService.check("alice", 5, 1);
+        long after = System.currentTimeMillis();
+
+        // Two requests refilled, one consumed now; the rest refills about 750 ms later
+        assertTrue(decision.isAllowed());
+        assertEquals(1, decision.getRemaining());
+        assertTrue(decision.getResetAt() >= (before + 600) / 1000, "resetAt " + decision.getResetAt());
+        assertTrue(decision.getResetAt() <= (after + 800 + 999) / 1000, "resetAt " + decision.getResetAt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRedisFailureFailsOpen() {
+        RedisTemplate<String, String> failingTemplate = mock(RedisTemplate.class);
+        when(failingTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        RateLimitDecision decision = new RateLimitingService(failingTemplate).check("alice", 5, 10);
+
+        assertTrue(decision.isAllowed());
+        assertEquals(5, decision.getRemaining());
+    }
+}
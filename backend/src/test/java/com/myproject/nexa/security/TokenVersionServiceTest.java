@@ -0,0 +1,50 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = new TokenVersionService(redisTemplate, new AppProperties());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testIssuingReadsPastTheLocalCache() {
+        // Another node revoked the user's tokens after this node cached version 3
+        when(valueOperations.get("token_version:7")).thenReturn("3", "4");
+        assertEquals(3L, tokenVersionService.currentVersion(7L));
+
+        assertEquals(4L, tokenVersionService.issuingVersion(7L));
+        // The fresher value also serves validation from now on
+        assertEquals(4L, tokenVersionService.currentVersion(7L));
+        verify(valueOperations, times(2)).get("token_version:7");
+    }
+
+    @Test
+    void testIssuingVersionIsUnknownWhenRedisFails() {
+        when(valueOperations.get("token_version:7")).thenThrow(new IllegalStateException("connection refused"));
+
+        assertNull(tokenVersionService.issuingVersion(7L));
+    }
+}
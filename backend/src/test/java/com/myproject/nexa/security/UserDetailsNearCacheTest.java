@@ -0,0 +1,98 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.entities.Role;
+import com.myproject.nexa.entities.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsNearCacheTest {
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private UserDetailsNearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        nearCache = new UserDetailsNearCache(userDetailsService, redisTemplate, listenerContainer,
+                new AppProperties(), new SimpleMeterRegistry());
+        nearCache.init();
+    }
+
+    @Test
+    void testCachedEntryIsAnImmutableSnapshot() {
+        User user = user();
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user);
+
+        UserDetails loaded = nearCache.load("alice", 1L);
+        user.setEnabled(false);
+
+        TokenPrincipal principal = assertInstanceOf(TokenPrincipal.class, loaded);
+        assertEquals(7L, principal.getId());
+        assertEquals(42L, principal.getTenantId());
+        assertEquals("ROLE_ADMIN", principal.getAuthorities().iterator().next().getAuthority());
+        assertSame(loaded, nearCache.load("alice", 1L));
+        assertTrue(nearCache.load("alice", 1L).isEnabled());
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void testInvalidationDuringLoadIsNotLost() {
+        // The user changes while the old row is being read
+        when(userDetailsService.loadUserByUsername("alice")).thenAnswer(invocation -> {
+            nearCache.invalidate("alice");
+            return user();
+        });
+
+        nearCache.load("alice", 1L);
+        nearCache.load("alice", 1L);
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void testNewTokenVersionReloads() {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user());
+
+        nearCache.load("alice", 1L);
+        nearCache.load("alice", 2L);
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    private static User user() {
+        Role role = new Role();
+        role.setName("ADMIN");
+        User user = new User();
+        user.setId(7L);
+        user.setTenantId(42L);
+        user.setUsername("alice");
+        user.setEnabled(true);
+        user.setAccountNonLocked(true);
+        user.setAccountNonExpired(true);
+        user.setCredentialsNonExpired(true);
+        user.setRoles(new ArrayList<>(List.of(role)));
+        return user;
+    }
+}
@@ -0,0 +1,112 @@
+package com.myproject.nexa.security;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedTokenCacheTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private MessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(new AppProperties(), new SimpleMeterRegistry(),
+                redisTemplate, listenerContainer);
+        verifiedTokenCache.init();
+
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(captor.capture(), any(ChannelTopic.class));
+        listener = captor.getValue();
+
+        lenient().when(redisTemplate.hasKey(startsWith(VerifiedTokenCache.REVOKED_TOKEN_PREFIX))).thenReturn(false);
+    }
+
+    @Test
+    void testEvictionOnAnotherNodeDropsEntry() {
+        VerifiedToken first = verified("header.payload.sig1");
+        VerifiedToken second = verified("header.payload.sig2");
+        assertTrue(verifiedTokenCache.admit(first));
+        assertTrue(verifiedTokenCache.admit(second));
+
+        // The other node evicted both tokens and broadcast their keys in one message
+        listener.onMessage(new DefaultMessage(VerifiedTokenCache.EVICTION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "sig1\nsig2".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertNull(verifiedTokenCache.get(first.getToken()));
+        assertNull(verifiedTokenCache.get(second.getToken()));
+    }
+
+    @Test
+    void testLocalEvictionIsBroadcast() {
+        VerifiedToken token = verified("header.payload.sig1");
+        verifiedTokenCache.admit(token);
+
+        verifiedTokenCache.evict(token.getToken());
+        verifiedTokenCache.evictAll(List.of("header.payload.sig2", "header.payload.sig3"));
+
+        assertNull(verifiedTokenCache.get(token.getToken()));
+        verify(redisTemplate).convertAndSend(VerifiedTokenCache.EVICTION_CHANNEL, "sig1");
+        verify(redisTemplate).convertAndSend(VerifiedTokenCache.EVICTION_CHANNEL, "sig2\nsig3");
+    }
+
+    @Test
+    void testNullTokensAreIgnored() {
+        verifiedTokenCache.evict(null);
+        verifiedTokenCache.evictAll(Arrays.asList(null, "header.payload.sig1"));
+
+        verify(redisTemplate).convertAndSend(VerifiedTokenCache.EVICTION_CHANNEL, "sig1");
+    }
+
+    @Test
+    void testTokenOfRevokedSessionIsNotAdmitted() {
+        VerifiedToken token = verified("header.payload.sig1");
+        when(redisTemplate.hasKey(VerifiedTokenCache.REVOKED_TOKEN_PREFIX + token.getToken())).thenReturn(true);
+
+        assertFalse(verifiedTokenCache.admit(token));
+        assertNull(verifiedTokenCache.get(token.getToken()));
+    }
+
+    @Test
+    void testTokenIsAcceptedUncachedWhenRevocationCannotBeChecked() {
+        VerifiedToken token = verified("header.payload.sig1");
+        when(redisTemplate.hasKey(VerifiedTokenCache.REVOKED_TOKEN_PREFIX + token.getToken()))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        assertTrue(verifiedTokenCache.admit(token));
+        assertNull(verifiedTokenCache.get(token.getToken()));
+    }
+
+    private static VerifiedToken verified(String token) {
+        return new VerifiedToken(token, Jwts.claims()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.RedisTestContainer;
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
+import com.myproject.nexa.dto.projection.UserProjection;
+import com.myproject.nexa.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the failed attempt script against a real Redis
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AccountLockoutServiceTest {
+
+    @Container
+    static GenericContainer<?> redis = RedisTestContainer.create();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private AppProperties appProperties;
+    private AccountLockoutService lockoutService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = RedisTestContainer.template(redis);
+        redisTemplate.getRequiredConnectionFactory().getConnection().serverCommands().flushAll();
+        appProperties = new AppProperties();
+        appProperties.getSecurity().setMaxLoginAttempts(3);
+        lockoutService = new AccountLockoutService(redisTemplate, userRepository, appProperties,
+                transactionTemplate, eventPublisher);
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+    }
+
+    @Test
+    void testAccountLocksAtLimitAndPublishesOneEvent() {
+        assertFalse(lockoutService.recordFailedAttempt("alice"));
+        assertFalse(lockoutService.recordFailedAttempt("alice"));
+        assertFalse(lockoutService.isAccountLocked("alice"));
+
+        assertTrue(lockoutService.recordFailedAttempt("alice"));
+        assertTrue(lockoutService.recordFailedAttempt("alice"));
+        assertTrue(lockoutService.isAccountLocked("alice"));
+        assertTrue(lockoutService.getUnlockTime("alice") > 0);
+
+        UserProjection alice = user(7L, "alice");
+        when(userRepository.findLockStateChanges(List.of("alice"), false)).thenReturn(List.of(alice));
+        lockoutService.flushLockStates();
+
+        verify(userRepository).updateAccountNonLocked(List.of("alice"), false);
+        ArgumentCaptor<UserSecurityChangedEvent> event = ArgumentCaptor.forClass(UserSecurityChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(7L, event.getValue().getUserId());
+        assertEquals("LOCKED", event.getValue().getReason());
+    }
+
+    @Test
+    void testConcurrentFailuresAreAllCounted() throws Exception {
+        appProperties.getSecurity().setMaxLoginAttempts(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                attempts.add(executor.submit(() -> lockoutService.recordFailedAttempt("bob")));
+            }
+            for (Future<Boolean> attempt : attempts) {
+                assertFalse(attempt.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(60, lockoutService.getRemainingAttempts("bob"));
+        assertFalse(lockoutService.isAccountLocked("bob"));
+    }
+
+    @Test
+    void testUnlockClearsAttemptsAndSkipsUnchangedAccounts() {
+        for (int i = 0; i < 3; i++) {
+            lockoutService.recordFailedAttempt("carol");
+        }
+        lockoutService.unlockAccount("carol");
+
+        assertFalse(lockoutService.isAccountLocked("carol"));
+        assertEquals(3, lockoutService.getRemainingAttempts("carol"));
+
+        // The flag was never written as locked, so the unlock changes nothing
+        when(userRepository.findLockStateChanges(List.of("carol"), true)).thenReturn(List.of());
+        lockoutService.flushLockStates();
+
+        verify(userRepository, never()).updateAccountNonLocked(anyCollection(), anyBoolean());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static UserProjection user(Long id, String username) {
+        UserProjection user = mock(UserProjection.class);
+        when(user.getId()).thenReturn(id);
+        when(user.getUsername()).thenReturn(username);
+        return user;
+    }
+}
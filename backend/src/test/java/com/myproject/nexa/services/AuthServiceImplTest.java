@@ -0,0 +1,97 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.dto.request.LoginRequest;
+import com.myproject.nexa.entities.User;
+import com.myproject.nexa.exceptions.AppException;
+import com.myproject.nexa.exceptions.ErrorCode;
+import com.myproject.nexa.repositories.UserRepository;
+import com.myproject.nexa.security.CustomUserDetailsService;
+import com.myproject.nexa.security.JwtTokenProvider;
+import com.myproject.nexa.services.impl.AuthServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Logs in through a DaoAuthenticationProvider wired like SecurityConfig's
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(new CustomUserDetailsService(userRepository));
+        authService = new AuthServiceImpl(new ProviderManager(provider), userRepository, passwordEncoder,
+                tokenProvider, tokenService, userService, new AppProperties(), eventPublisher);
+    }
+
+    @Test
+    void testSheddingOnUnknownUserIsReportedAsUnavailable() {
+        when(userRepository.findByUsername("mallory")).thenReturn(Optional.empty());
+        // The dummy hash compared for unknown usernames is shed like any other
+        when(passwordEncoder.matches(any(), any()))
+                .thenThrow(new AppException(ErrorCode.SYSTEM_002, "Too many concurrent sign-in requests"));
+
+        AppException e = assertThrows(AppException.class, () -> authService.login(login("mallory")));
+
+        assertEquals(ErrorCode.SYSTEM_002, e.getErrorCode());
+    }
+
+    @Test
+    void testWrongPasswordIsReportedAsInvalidCredentials() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword("hash");
+        user.setEnabled(true);
+        user.setAccountNonLocked(true);
+        user.setAccountNonExpired(true);
+        user.setCredentialsNonExpired(true);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrong", "hash")).thenReturn(false);
+
+        AppException e = assertThrows(AppException.class, () -> authService.login(login("alice")));
+
+        assertEquals(ErrorCode.AUTH_001, e.getErrorCode());
+    }
+
+    private static LoginRequest login(String username) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword("wrong");
+        return request;
+    }
+}
@@ -0,0 +1,220 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
+import com.myproject.nexa.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DomainAvailabilityIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DomainNegativeCache domainNegativeCache;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private AppProperties appProperties;
+    private DomainAvailabilityIndex index;
+    private MessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        index = new DomainAvailabilityIndex(userRepository, domainNegativeCache, appProperties, new SimpleMeterRegistry(),
+                redisTemplate, listenerContainer);
+        index.init();
+
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(captor.capture(), any(ChannelTopic.class));
+        listener = captor.getValue();
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testFallsBackToDatabaseBeforeLoad() {
+        when(domainNegativeCache.mightBeRegistered("alice")).thenReturn(true);
+        when(userRepository.existsByLabel("alice")).thenReturn(true);
+
+        assertFalse(index.isReady());
+        assertTrue(index.isRegistered("Alice.nexa"));
+        verify(userRepository).existsByLabel("alice");
+        verify(domainNegativeCache).recordConfirmation(true);
+    }
+
+    @Test
+    void testBloomFilterMissSkipsDatabase() {
+        when(domainNegativeCache.mightBeRegistered("fresh")).thenReturn(false);
+
+        assertFalse(index.isRegistered("fresh"));
+        verify(userRepository, never()).existsByLabel(anyString());
+    }
+
+    @Test
+    void testBatchLookupUsesSingleQueryBeforeLoad() {
+        when(domainNegativeCache.mightBeRegistered(anyString())).thenReturn(true);
+        when(userRepository.findRegisteredLabels(List.of("alice", "bob"))).thenReturn(List.of("alice"));
+
+        Set<String> registered = index.findRegistered(List.of("alice", "bob"));
+
+        assertEquals(Set.of("alice"), registered);
+        verify(userRepository, never()).existsByLabel(anyString());
+    }
+
+    @Test
+    void testBatchLookupServedFromIndexAfterLoad() {
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"));
+        index.loadOnStartup();
+
+        assertEquals(Set.of("alice"), index.findRegistered(List.of("alice", "bob")));
+        verify(userRepository, never()).findRegisteredLabels(any());
+    }
+
+    @Test
+    void testAnswersFromIndexAfterLoad() {
+        when(userRepository.findAllUsernames()).thenReturn(List.of("Alice", "bob"));
+
+        index.loadOnStartup();
+
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        assertTrue(index.isRegistered("alice"));
+        assertTrue(index.isRegistered("BOB.nexa"));
+        assertFalse(index.isRegistered("carol"));
+        verify(userRepository, never()).existsByLabel(anyString());
+    }
+
+    @Test
+    void testLifecycleEventsKeepIndexCurrent() {
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"));
+        index.loadOnStartup();
+
+        index.onUserCreated(new UserCreatedEvent(2L, "Carol", "carol@example.com"));
+        assertTrue(index.isRegistered("carol"));
+        verify(redisTemplate).convertAndSend(DomainAvailabilityIndex.CHANGES_CHANNEL, "+carol");
+
+        index.onUserUpdated(new UserUpdatedEvent(2L, "carol", "caroline", "carol@example.com"));
+        assertTrue(index.isRegistered("caroline"));
+        // The old label stays reserved until the batch check confirms no row holds it
+        assertTrue(index.isRegistered("carol"));
+        verify(userRepository, never()).existsByLabel(anyString());
+
+        when(userRepository.findRegisteredLabels(List.of("carol"))).thenReturn(List.of());
+        index.releasePending();
+        assertFalse(index.isRegistered("carol"));
+        verify(redisTemplate).convertAndSend(DomainAvailabilityIndex.CHANGES_CHANNEL, "-carol");
+        verify(valueOperations, times(3)).increment(DomainAvailabilityIndex.GENERATION_KEY);
+    }
+
+    @Test
+    void testRenamedLabelStillHeldByAnotherUserIsKept() {
+        when(userRepository.findAllUsernames()).thenReturn(List.of("Bob", "bob"));
+        index.loadOnStartup();
+
+        index.onUserUpdated(new UserUpdatedEvent(2L, "Bob", "robert", "bob@example.com"));
+        when(userRepository.findRegisteredLabels(List.of("bob"))).thenReturn(List.of("bob"));
+        index.releasePending();
+
+        assertTrue(index.isRegistered("bob"));
+        verify(redisTemplate, never()).convertAndSend(DomainAvailabilityIndex.CHANGES_CHANNEL, "-bob");
+    }
+
+    @Test
+    void testChangesFromOtherNodesAreApplied() {
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"));
+        index.loadOnStartup();
+
+        receive("+dave");
+        receive("-alice");
+
+        assertTrue(index.isRegistered("dave"));
+        assertFalse(index.isRegistered("alice"));
+    }
+
+    @Test
+    void testReconcileRebuildsAfterMissedChange() {
+        when(valueOperations.get(DomainAvailabilityIndex.GENERATION_KEY)).thenReturn("5", "8");
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"), List.of("alice", "erin"));
+        index.loadOnStartup();
+
+        // Three changes were published and two arrived; the label count still matches
+        receive("-alice");
+        receive("+alice");
+        index.reconcile();
+
+        verify(userRepository, times(2)).findAllUsernames();
+        verify(userRepository, never()).countDistinctUsernames();
+        assertTrue(index.isRegistered("erin"));
+    }
+
+    @Test
+    void testReconcileRebuildsWhenDrifted() {
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"), List.of("alice", "bob"));
+        index.loadOnStartup();
+
+        when(userRepository.countDistinctUsernames()).thenReturn(2L);
+        index.reconcile();
+
+        assertTrue(index.isRegistered("bob"));
+        assertEquals(0, index.getDrift());
+    }
+
+    @Test
+    void testReconcileKeepsIndexWhenAllChangesArrived() {
+        when(valueOperations.get(DomainAvailabilityIndex.GENERATION_KEY)).thenReturn("5", "6");
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"));
+        index.loadOnStartup();
+
+        receive("+bob");
+        when(userRepository.countDistinctUsernames()).thenReturn(2L);
+        index.reconcile();
+
+        verify(userRepository, times(1)).findAllUsernames();
+        assertEquals(0, index.getDrift());
+    }
+
+    @Test
+    void testDisabledIndexNeverLoads() {
+        appProperties.getDomain().setIndexEnabled(false);
+
+        index.loadOnStartup();
+
+        assertFalse(index.isReady());
+        verify(userRepository, never()).findAllUsernames();
+    }
+
+    private void receive(String change) {
+        listener.onMessage(new DefaultMessage(DomainAvailabilityIndex.CHANGES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                change.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DomainNegativeCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private AppProperties appProperties;
+    private DomainNegativeCache negativeCache;
+    private MessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        appProperties.getDomain().setBloomExpectedInsertions(1000);
+        negativeCache = new DomainNegativeCache(userRepository, appProperties, new SimpleMeterRegistry(),
+                redisTemplate, listenerContainer);
+        negativeCache.init();
+
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(captor.capture(), any(ChannelTopic.class));
+        listener = captor.getValue();
+
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"));
+        negativeCache.rebuild();
+    }
+
+    @Test
+    void testLabelsRegisteredOnAnotherNodeAreAdded() {
+        assertFalse(negativeCache.mightBeRegistered("bob"));
+
+        listener.onMessage(new DefaultMessage(DomainNegativeCache.REGISTERED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "bob".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(negativeCache.mightBeRegistered("bob"));
+    }
+
+    @Test
+    void testLocalRegistrationsArePublished() {
+        negativeCache.onUserCreated(new UserCreatedEvent(2L, "Carol", "carol@example.com"));
+
+        assertTrue(negativeCache.mightBeRegistered("carol"));
+        verify(redisTemplate).convertAndSend(DomainNegativeCache.REGISTERED_CHANNEL, "carol");
+    }
+
+    @Test
+    void testFilterIsRebuiltOnceItIsOld() throws InterruptedException {
+        appProperties.getDomain().setBloomRebuildIntervalMs(1);
+        Thread.sleep(5);
+        when(userRepository.findAllUsernames()).thenReturn(List.of("dave"));
+
+        negativeCache.checkFalsePositiveRate();
+
+        assertTrue(negativeCache.mightBeRegistered("dave"));
+        assertFalse(negativeCache.mightBeRegistered("alice"));
+    }
+}
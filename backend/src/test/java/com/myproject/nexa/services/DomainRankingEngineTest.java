@@ -0,0 +1,67 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DomainRankingEngineTest {
+
+    @Mock
+    private DomainAvailabilityIndex domainAvailabilityIndex;
+
+    private AppProperties appProperties;
+    private DomainRankingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        appProperties.getDomain().setPremiumTopK(2);
+        engine = new DomainRankingEngine(domainAvailabilityIndex, appProperties);
+        engine.load(List.of("nova", "zzzz", "ai", "Nexa", "invalid_label", "terra"));
+    }
+
+    @Test
+    void testRankServedFromTableMatchesScore() {
+        assertEquals(5, engine.size());
+        assertEquals(DomainRankingEngine.score("nova"), engine.rank("nova"));
+        assertEquals(DomainRankingEngine.score("unlisted"), engine.rank("unlisted"));
+    }
+
+    @Test
+    void testTopAvailableIsBestFirstAndSkipsRegistered() {
+        when(domainAvailabilityIndex.findRegistered(anyCollection())).thenAnswer(invocation -> Set.of("nova"));
+
+        List<String> top = engine.topAvailable(3);
+
+        assertEquals(3, top.size());
+        assertFalse(top.contains("nova"));
+        // Only the best two four-letter labels are kept, and "zzzz" is the weakest of three
+        assertFalse(top.contains("zzzz"));
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(engine.rank(top.get(i - 1)) >= engine.rank(top.get(i)));
+        }
+    }
+
+    @Test
+    void testCountIsCappedBeforeAllocating() {
+        when(domainAvailabilityIndex.findRegistered(anyCollection())).thenReturn(Set.of());
+
+        // Four labels survive the top-K cut
+        assertEquals(4, engine.topAvailable(Integer.MAX_VALUE).size());
+
+        appProperties.getDomain().setPremiumMaxResults(2);
+        assertEquals(2, engine.topAvailable(Integer.MAX_VALUE).size());
+        assertTrue(engine.topAvailable(-1).isEmpty());
+    }
+}
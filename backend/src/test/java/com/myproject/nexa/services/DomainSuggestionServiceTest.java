@@ -0,0 +1,67 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DomainSuggestionServiceTest {
+
+    @Mock
+    private DomainAvailabilityIndex domainAvailabilityIndex;
+
+    @Mock
+    private DomainRankingEngine domainRankingEngine;
+
+    private AppProperties appProperties;
+    private DomainSuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        appProperties.getDomain().setSuggestionTimeBudgetMs(1000);
+        suggestionService = new DomainSuggestionService(domainAvailabilityIndex, domainRankingEngine, appProperties);
+    }
+
+    @Test
+    void testReturnsOnlyAvailableNamesBestRankedFirst() {
+        when(domainAvailabilityIndex.findRegistered(anyCollection())).thenReturn(Set.of("cloudapp"));
+        when(domainRankingEngine.rank(anyString()))
+                .thenAnswer(invocation -> DomainRankingEngine.score(invocation.getArgument(0)));
+
+        List<String> suggestions = suggestionService.suggest("cloud", 5);
+
+        assertEquals(5, suggestions.size());
+        assertFalse(suggestions.contains("cloudapp.nexa"));
+        assertFalse(suggestions.contains("cloud.nexa"));
+        for (int i = 1; i < suggestions.size(); i++) {
+            assertTrue(DomainRankingEngine.score(strip(suggestions.get(i - 1)))
+                    >= DomainRankingEngine.score(strip(suggestions.get(i))));
+        }
+    }
+
+    @Test
+    void testCandidateCapBoundsGeneration() {
+        appProperties.getDomain().setSuggestionMaxCandidates(3);
+        when(domainAvailabilityIndex.findRegistered(anyCollection())).thenReturn(Set.of());
+
+        List<String> suggestions = suggestionService.suggest("acme", 10);
+
+        assertEquals(3, suggestions.size());
+    }
+
+    private static String strip(String domain) {
+        return domain.substring(0, domain.length() - ".nexa".length());
+    }
+}
@@ -0,0 +1,65 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.security.RateLimitDecision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeasedRateLimiterTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private LeasedRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LeasedRateLimiter(redisTemplate, new AppProperties(), new SimpleMeterRegistry());
+        limiter.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testServesLeasedTokensLocally() {
+        // 10% of a 100 request window is leased per round trip
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenReturn(List.of(10L, 10L, 60000L));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("ip:1.2.3.4", 100, 60).isAllowed());
+        }
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+
+        limiter.tryAcquire("ip:1.2.3.4", 100, 60);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDeniesLocallyOnceWindowIsExhausted() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenReturn(List.of(0L, 100L, 30000L));
+
+        RateLimitDecision first = limiter.tryAcquire("ip:1.2.3.4", 100, 60);
+        RateLimitDecision second = limiter.tryAcquire("ip:1.2.3.4", 100, 60);
+
+        assertFalse(first.isAllowed());
+        assertFalse(second.isAllowed());
+        assertTrue(second.getRetryAfterSeconds() > 0);
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+}
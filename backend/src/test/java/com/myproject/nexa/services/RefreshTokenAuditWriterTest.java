@@ -0,0 +1,64 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.entities.User;
+import com.myproject.nexa.repositories.RefreshTokenRepository;
+import com.myproject.nexa.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenAuditWriterTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenAuditWriter auditWriter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditWriter = new RefreshTokenAuditWriter(refreshTokenRepository, userRepository, transactionTemplate,
+                new AppProperties(), meterRegistry);
+        auditWriter.init();
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedRecordByRecord() {
+        when(userRepository.getReferenceById(7L)).thenReturn(new User());
+        when(refreshTokenRepository.markUsed(anyCollection())).thenThrow(new IllegalStateException("constraint"));
+
+        auditWriter.issued(7L, "family", "hash-1", System.currentTimeMillis());
+        auditWriter.used("hash-0");
+        auditWriter.flush();
+
+        // Once in the batch and once on its own
+        verify(refreshTokenRepository, times(2)).saveAll(anyList());
+        assertEquals(1.0, meterRegistry.counter("refresh_token.audit.written").count());
+        assertEquals(1.0, meterRegistry.counter("refresh_token.audit.dropped").count());
+    }
+}
@@ -0,0 +1,132 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.RedisTestContainer;
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.repositories.UserRepository;
+import com.myproject.nexa.security.JwtTokenProvider;
+import com.myproject.nexa.security.TokenVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the register, revoke and invalidate scripts against a real Redis
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SessionManagementServiceTest {
+
+    @Container
+    static GenericContainer<?> redis = RedisTestContainer.create();
+
+    private static final long TOKEN_LIFETIME_MS = 60000;
+
+    private final JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+    private final TokenVersionService tokenVersionService = mock(TokenVersionService.class);
+    private final TokenService tokenService = mock(TokenService.class);
+
+    private StringRedisTemplate redisTemplate;
+    private SessionManagementService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = RedisTestContainer.template(redis);
+        redisTemplate.getRequiredConnectionFactory().getConnection().serverCommands().flushAll();
+        AppProperties appProperties = new AppProperties();
+        appProperties.getSecurity().setMaxSessionsPerUser(2);
+        sessionService = new SessionManagementService(redisTemplate, tokenProvider, mock(UserRepository.class),
+                tokenVersionService, tokenService, appProperties);
+    }
+
+    @Test
+    void testCapEvictsOldestSessionFirst() throws Exception {
+        register("phone", "t1", TOKEN_LIFETIME_MS);
+        register("laptop", "t2", TOKEN_LIFETIME_MS);
+        register("tablet", "t3", TOKEN_LIFETIME_MS);
+
+        assertEquals(List.of("laptop", "tablet"), sessionService.getActiveSessions(7L).stream().sorted().toList());
+        assertRevoked("t1");
+        assertNotRevoked("t2");
+        assertNotRevoked("t3");
+        verify(tokenProvider).evictVerified(List.of("t1"));
+    }
+
+    @Test
+    void testReRegisteringDeviceReplacesItsSession() throws Exception {
+        register("phone", "t1", TOKEN_LIFETIME_MS);
+        register("laptop", "t2", TOKEN_LIFETIME_MS);
+        register("phone", "t3", TOKEN_LIFETIME_MS);
+
+        // The cap is not hit: the phone's old session is replaced, not counted
+        assertEquals(List.of("laptop", "phone"), sessionService.getActiveSessions(7L).stream().sorted().toList());
+        assertRevoked("t1");
+        assertNotRevoked("t2");
+    }
+
+    @Test
+    void testForceLogoutOtherDevicesKeepsCurrentDevice() throws Exception {
+        register("phone", "t1", TOKEN_LIFETIME_MS);
+        register("laptop", "t2", TOKEN_LIFETIME_MS);
+
+        sessionService.forceLogoutOtherDevices(7L, "phone");
+
+        assertEquals(List.of("phone"), sessionService.getActiveSessions(7L));
+        assertNotRevoked("t1");
+        assertRevoked("t2");
+        verify(tokenProvider).evictVerified(List.of("t2"));
+        verifyNoInteractions(tokenVersionService, tokenService);
+    }
+
+    @Test
+    void testForceLogoutAllDevicesSkipsMarkingExpiredTokens() throws Exception {
+        register("phone", "t1", 50);
+        register("laptop", "t2", TOKEN_LIFETIME_MS);
+        Thread.sleep(100);
+
+        sessionService.forceLogoutAllDevices(7L);
+
+        assertTrue(sessionService.getActiveSessions(7L).isEmpty());
+        // The phone's token has expired on its own, so there is nothing left to revoke
+        assertNotRevoked("t1");
+        assertRevoked("t2");
+        verify(tokenVersionService).revokeAll(7L);
+        verify(tokenService).revokeAllRefreshTokens(7L);
+    }
+
+    @Test
+    void testInvalidateMarksTokenUntilItExpires() throws Exception {
+        register("phone", "t1", TOKEN_LIFETIME_MS);
+
+        sessionService.invalidateSession(7L, "phone");
+        sessionService.invalidateSession(7L, "unknown");
+
+        assertTrue(sessionService.getActiveSessions(7L).isEmpty());
+        assertRevoked("t1");
+        verify(tokenProvider).evictVerified("t1");
+    }
+
+    private void register(String deviceId, String token, long lifetimeMs) throws InterruptedException {
+        when(tokenProvider.getExpiration(token)).thenReturn(System.currentTimeMillis() + lifetimeMs);
+        sessionService.registerSession(7L, deviceId, token);
+        // Sessions are ordered by registration time in milliseconds
+        Thread.sleep(5);
+    }
+
+    private void assertRevoked(String token) {
+        Long ttl = redisTemplate.getExpire("revoked_token:" + token, TimeUnit.MILLISECONDS);
+        assertNotNull(ttl);
+        assertTrue(ttl > 0 && ttl <= TOKEN_LIFETIME_MS, "revoked mark should expire with the token: " + ttl);
+    }
+
+    private void assertNotRevoked(String token) {
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey("revoked_token:" + token)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.RedisTestContainer;
+import com.myproject.nexa.config.properties.AppProperties;
+import com.myproject.nexa.entities.User;
+import com.myproject.nexa.exceptions.AppException;
+import com.myproject.nexa.exceptions.ErrorCode;
+import com.myproject.nexa.services.impl.TokenServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the issue and rotation scripts against a real Redis
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TokenServiceImplTest {
+
+    @Container
+    static GenericContainer<?> redis = RedisTestContainer.create();
+
+    private final RefreshTokenAuditWriter auditWriter = mock(RefreshTokenAuditWriter.class);
+
+    private AppProperties appProperties;
+    private TokenServiceImpl tokenService;
+
+    @BeforeEach
+    void setUp() {
+        StringRedisTemplate redisTemplate = RedisTestContainer.template(redis);
+        redisTemplate.getRequiredConnectionFactory().getConnection().serverCommands().flushAll();
+        appProperties = new AppProperties();
+        tokenService = new TokenServiceImpl(redisTemplate, auditWriter, appProperties, new SimpleMeterRegistry());
+        tokenService.init();
+    }
+
+    @Test
+    void testRotationIssuesWorkingSuccessor() {
+        String token = tokenService.createRefreshToken(user());
+
+        TokenService.Rotation rotation = tokenService.rotateRefreshToken(token);
+        assertEquals(7L, rotation.getUserId());
+        assertNotEquals(token, rotation.getRefreshToken());
+
+        TokenService.Rotation next = tokenService.rotateRefreshToken(rotation.getRefreshToken());
+        assertEquals(7L, next.getUserId());
+        verify(auditWriter, times(2)).used(anyString());
+    }
+
+    @Test
+    void testConcurrentRefreshWithinGraceGetsSameSuccessor() {
+        String token = tokenService.createRefreshToken(user());
+
+        String first = tokenService.rotateRefreshToken(token).getRefreshToken();
+        String second = tokenService.rotateRefreshToken(token).getRefreshToken();
+
+        assertEquals(first, second);
+        assertEquals(7L, tokenService.rotateRefreshToken(first).getUserId());
+        verify(auditWriter, never()).familyRevoked(anyString());
+    }
+
+    @Test
+    void testReuseAfterGraceRevokesFamily() {
+        appProperties.getJwt().setRefreshReuseGraceMs(0);
+        String token = tokenService.createRefreshToken(user());
+        String successor = tokenService.rotateRefreshToken(token).getRefreshToken();
+
+        AppException reuse = assertThrows(AppException.class, () -> tokenService.rotateRefreshToken(token));
+        assertEquals(ErrorCode.AUTH_003, reuse.getErrorCode());
+        verify(auditWriter).familyRevoked(anyString());
+
+        AppException revoked = assertThrows(AppException.class, () -> tokenService.rotateRefreshToken(successor));
+        assertEquals(ErrorCode.AUTH_003, revoked.getErrorCode());
+    }
+
+    @Test
+    void testUnknownAndRevokedTokensAreRejected() {
+        AppException unknown = assertThrows(AppException.class, () -> tokenService.rotateRefreshToken("7.family.secret"));
+        assertEquals(ErrorCode.VALIDATION_001, unknown.getErrorCode());
+
+        String token = tokenService.createRefreshToken(user());
+        tokenService.revokeRefreshToken(token);
+        AppException revoked = assertThrows(AppException.class, () -> tokenService.rotateRefreshToken(token));
+        assertEquals(ErrorCode.AUTH_003, revoked.getErrorCode());
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(7L);
+        return user;
+    }
+}
@@ -0,0 +1,91 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.config.RedisTestContainer;
+import com.myproject.nexa.dto.response.UserResponse;
+import com.myproject.nexa.services.impl.UserCacheServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the eviction and stamped write scripts against a real Redis
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class UserCacheServiceImplTest {
+
+    @Container
+    static GenericContainer<?> redis = RedisTestContainer.create();
+
+    private UserCacheServiceImpl userCacheService;
+
+    @BeforeEach
+    void setUp() {
+        StringRedisTemplate redisTemplate = RedisTestContainer.template(redis);
+        redisTemplate.getRequiredConnectionFactory().getConnection().serverCommands().flushAll();
+        userCacheService = new UserCacheServiceImpl(redisTemplate, RedisSerializer.java());
+    }
+
+    @Test
+    void testEvictingUserDropsOnlyPagesShowingThem() {
+        userCacheService.cacheAllUsers(page(0, user(1L, "alice")), "page_0", userCacheService.readStamp());
+        userCacheService.cacheAllUsers(page(1, user(2L, "bob")), "page_1", userCacheService.readStamp());
+
+        userCacheService.evictUser(1L);
+
+        assertNull(userCacheService.getCachedAllUsers("page_0"));
+        assertNull(userCacheService.getCachedUser(1L));
+        assertEquals("bob", userCacheService.getCachedAllUsers("page_1").getContent().get(0).getUsername());
+    }
+
+    @Test
+    void testPageReadBeforeEvictionIsNotCached() {
+        long readStamp = userCacheService.readStamp();
+        // The user is updated while the page is being read
+        userCacheService.evictUser(1L);
+
+        userCacheService.cacheAllUsers(page(0, user(1L, "alice")), "page_0", readStamp);
+
+        assertNull(userCacheService.getCachedAllUsers("page_0"));
+        assertNull(userCacheService.getCachedUser(1L));
+    }
+
+    @Test
+    void testUserReadBeforeEvictionIsNotCached() {
+        long readStamp = userCacheService.readStamp();
+        userCacheService.cacheUser(user(1L, "alice"), userCacheService.readStamp());
+        assertEquals("alice", userCacheService.getCachedUser(1L).getUsername());
+
+        userCacheService.evictUser(1L);
+        userCacheService.cacheUser(user(1L, "alice"), readStamp);
+
+        assertNull(userCacheService.getCachedUser(1L));
+    }
+
+    @Test
+    void testPageReadBeforePageEvictionIsNotCached() {
+        long readStamp = userCacheService.readStamp();
+        userCacheService.evictUserPages();
+
+        userCacheService.cacheAllUsers(page(0, user(1L, "alice")), "page_0", readStamp);
+
+        assertNull(userCacheService.getCachedAllUsers("page_0"));
+    }
+
+    private static PageImpl<UserResponse> page(int number, UserResponse user) {
+        return new PageImpl<>(List.of(user), PageRequest.of(number, 1), 2);
+    }
+
+    private static UserResponse user(Long id, String username) {
+        return UserResponse.builder().id(id).username(username).build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.myproject.nexa.services;
+
+import com.myproject.nexa.cache.IdPage;
+import com.myproject.nexa.cache.TwoLevelCacheManager;
+import com.myproject.nexa.cqrs.event.UserCreatedEvent;
+import com.myproject.nexa.cqrs.event.UserUpdatedEvent;
+import com.myproject.nexa.dto.response.UserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserPageCacheTest {
+
+    private final PageRequest request = PageRequest.of(0, 2);
+
+    private ConcurrentMapCacheManager cacheManager;
+    private UserPageCache userPageCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager();
+        userPageCache = new UserPageCache(cacheManager, new SimpleMeterRegistry());
+        userPageCache.init();
+    }
+
+    @Test
+    void testPageIsStoredAsIdsAndHydratedFromUserCache() {
+        userPageCache.put(request, new PageImpl<>(List.of(user(1L, "alice"), user(2L, "bob")), request, 5));
+
+        assertInstanceOf(IdPage.class, cacheManager.getCache(UserPageCache.CACHE_NAME).get("0_2_UNSORTED").get());
+
+        // A single-user update through the user cache shows up in the page
+        cacheManager.getCache("users").put(2L, user(2L, "robert"));
+        Page<UserResponse> page = userPageCache.get(request);
+        assertEquals(List.of("alice", "robert"), page.map(UserResponse::getUsername).getContent());
+        assertEquals(5, page.getTotalElements());
+    }
+
+    @Test
+    void testBackfillKeepsUsersAlreadyCached() {
+        cacheManager.getCache("users").put(2L, user(2L, "robert"));
+
+        userPageCache.put(request, new PageImpl<>(List.of(user(1L, "alice"), user(2L, "bob")), request, 5));
+
+        assertEquals(List.of("alice", "robert"),
+                userPageCache.get(request).map(UserResponse::getUsername).getContent());
+    }
+
+    @Test
+    void testUserEventsInvalidate() {
+        userPageCache.put(request, new PageImpl<>(List.of(user(1L, "alice"), user(2L, "bob")), request, 5));
+        cacheManager.getCache("usersByUsername").put("bob", user(2L, "bob"));
+
+        userPageCache.onUserUpdated(new UserUpdatedEvent(2L, "bob", "bobby", "bob@example.com"));
+        assertNull(userPageCache.get(request));
+        assertNull(cacheManager.getCache("usersByUsername").get("bob"));
+
+        userPageCache.put(request, new PageImpl<>(List.of(user(1L, "alice"), user(2L, "bobby")), request, 5));
+        userPageCache.onUserCreated(new UserCreatedEvent(3L, "carol", "carol@example.com"));
+        assertNull(userPageCache.get(request));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTwoLevelCacheBackfillsWithSetNxAndHydratesWithMget() throws Exception {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        TwoLevelCacheManager twoLevelCacheManager = new TwoLevelCacheManager(redisTemplate,
+                mock(RedisMessageListenerContainer.class), RedisSerializer.java(), new SimpleMeterRegistry(),
+                Map.of(), 60000L, 60000L, 100, 0);
+        UserPageCache pageCache = new UserPageCache(twoLevelCacheManager, new SimpleMeterRegistry());
+        pageCache.init();
+
+        // Redis already holds a newer copy of user 2, so only user 1 is written
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(true, false));
+        pageCache.put(request, new PageImpl<>(List.of(user(1L, "alice"), user(2L, "bob")), request, 5));
+
+        ArgumentCaptor<RedisCallback<Object>> pipeline = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(pipeline.capture());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        pipeline.getValue().doInRedis(connection);
+        verify(stringCommands, times(2)).set(any(byte[].class), any(byte[].class), any(Expiration.class),
+                eq(RedisStringCommands.SetOption.ifAbsent()));
+
+        // User 1 comes from L1, user 2 from a single MGET
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenReturn(List.of(RedisSerializer.java().serialize(user(2L, "robert"))));
+        Page<UserResponse> page = pageCache.get(request);
+
+        assertEquals(List.of("alice", "robert"), page.map(UserResponse::getUsername).getContent());
+    }
+
+    private static UserResponse user(Long id, String username) {
+        return UserResponse.builder().id(id).username(username).build();
+    }
+}
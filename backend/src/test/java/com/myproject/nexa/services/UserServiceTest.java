@@ -1,5 +1,6 @@
 package com.myproject.nexa.services;
 
+import com.myproject.nexa.cqrs.event.UserSecurityChangedEvent;
 import com.myproject.nexa.dto.request.UserCreateRequest;
 import com.myproject.nexa.dto.request.UserUpdateRequest;
 import com.myproject.nexa.dto.response.UserResponse;
@@ -12,12 +13,15 @@ import com.myproject.nexa.utils.AuditLogUtil;
 import com.myproject.nexa.utils.ObservabilityUtil;
 import com.myproject.nexa.utils.RequestTracingUtil;
 import com.myproject.nexa.utils.SecurityUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
@@ -46,6 +50,9 @@ class UserServiceTest {
     @Mock
     private SecurityUtil securityUtil;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -132,4 +139,26 @@ class UserServiceTest {
         // Act & Assert
         assertThrows(AppException.class, () -> userService.findById(1L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDeactivateUserEvictsCachedUser() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        UserPageCache userPageCache = new UserPageCache(cacheManager, new SimpleMeterRegistry());
+        userPageCache.init();
+        cacheManager.getCache("users").put(1L, UserResponse.builder().id(1L).username("testuser").build());
+        cacheManager.getCache("usersByUsername").put("testuser",
+                UserResponse.builder().id(1L).username("testuser").build());
+        // Deliver the event the way the after-commit listener would
+        doAnswer(invocation -> {
+            userPageCache.onUserSecurityChanged(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(UserSecurityChangedEvent.class));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        userService.deactivateUser(1L);
+
+        assertFalse(testUser.getEnabled());
+        assertNull(cacheManager.getCache("users").get(1L));
+        assertNull(cacheManager.getCache("usersByUsername").get("testuser"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.myproject.nexa.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("label" + i);
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("label" + i));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        BloomFilter filter = BloomFilter.create(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("label" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.03);
+    }
+
+    @Test
+    void testRejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1.0));
+    }
+}
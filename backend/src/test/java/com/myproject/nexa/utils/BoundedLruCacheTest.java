@@ -0,0 +1,58 @@
+package com.myproject.nexa.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedLruCacheTest {
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        // Capacity 1 keeps a single segment, so eviction order is exact
+        BoundedLruCache<String, Integer> cache = new BoundedLruCache<>(1, 0);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.get("b"));
+        assertEquals(1, cache.evictionCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testSizeStaysWithinCapacity() {
+        BoundedLruCache<Integer, Integer> cache = new BoundedLruCache<>(64, 0);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(1000 - cache.size(), cache.evictionCount());
+    }
+
+    @Test
+    void testExpiredEntriesAreNotServed() {
+        BoundedLruCache<String, Integer> cache = new BoundedLruCache<>(16, 0);
+        cache.put("past", 1, System.currentTimeMillis() - 1);
+        cache.put("future", 2, System.currentTimeMillis() + 60000);
+
+        assertNull(cache.get("past"));
+        assertEquals(2, cache.get("future"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testInvalidate() {
+        BoundedLruCache<String, Integer> cache = new BoundedLruCache<>(16, 0);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.get("b"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,55 @@
+package com.myproject.nexa.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainLabelUtilTest {
+
+    @Test
+    void testNormalizeLabelAcceptsValidNames() {
+        assertEquals("acme", DomainLabelUtil.normalizeLabel("acme"));
+        assertEquals("acme", DomainLabelUtil.normalizeLabel("  ACME.Nexa "));
+        assertEquals("my-shop42", DomainLabelUtil.normalizeLabel("My-Shop42.nexa"));
+    }
+
+    @Test
+    void testNormalizeLabelReturnsSameInstanceWhenCanonical() {
+        String label = "acme";
+        assertSame(label, DomainLabelUtil.normalizeLabel(label));
+    }
+
+    @Test
+    void testNormalizeLabelRejectsInvalidNames() {
+        assertNull(DomainLabelUtil.normalizeLabel(null));
+        assertNull(DomainLabelUtil.normalizeLabel("a"));
+        assertNull(DomainLabelUtil.normalizeLabel("-acme"));
+        assertNull(DomainLabelUtil.normalizeLabel("acme-"));
+        assertNull(DomainLabelUtil.normalizeLabel("ac_me"));
+        assertNull(DomainLabelUtil.normalizeLabel("acme.com"));
+        assertNull(DomainLabelUtil.normalizeLabel("a".repeat(64)));
+        assertEquals("a".repeat(63), DomainLabelUtil.normalizeLabel("a".repeat(63)));
+    }
+
+    @Test
+    void testCanonicalizeDoesNotValidate() {
+        assertEquals("john_doe", DomainLabelUtil.canonicalize(" John_Doe.NEXA"));
+        assertEquals("", DomainLabelUtil.canonicalize(".nexa"));
+        assertNull(DomainLabelUtil.canonicalize(null));
+    }
+
+    @Test
+    void testIsValidLabel() {
+        assertTrue(DomainLabelUtil.isValidLabel("a", 1));
+        assertTrue(DomainLabelUtil.isValidLabel("Api-V2", 1));
+        assertFalse(DomainLabelUtil.isValidLabel("", 1));
+        assertFalse(DomainLabelUtil.isValidLabel(" api", 1));
+        assertFalse(DomainLabelUtil.isValidLabel("api-", 1));
+    }
+
+    @Test
+    void testCountVowels() {
+        assertEquals(4, DomainLabelUtil.countVowels("NexaIo"));
+        assertEquals(0, DomainLabelUtil.countVowels("xyz"));
+    }
+}